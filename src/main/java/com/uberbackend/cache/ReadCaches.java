@@ -0,0 +1,94 @@
+package com.uberbackend.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.uberbackend.dto.response.DriverHistoryResponse;
+import com.uberbackend.dto.response.RidePage;
+import com.uberbackend.dto.response.RideResponse;
+import com.uberbackend.event.RideEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The cached read paths polled by clients. Ride and driver entries are invalidated by the
+ * {@link RideEvent}s every node receives (see {@code CacheInvalidationConsumer}); tenant history
+ * cannot be mapped from an event and relies on its short TTL.
+ */
+@Component
+@Getter
+public class ReadCaches {
+
+    private final TwoLevelCache<RideResponse> rides;
+    private final TwoLevelCache<DriverHistoryResponse> driverDetails;
+    // First page at the default size only; later pages are cheap keyset reads
+    private final TwoLevelCache<RidePage> driverRideHistory;
+    private final TwoLevelCache<RidePage> tenantRideHistory;
+
+    public ReadCaches(StringRedisTemplate redisTemplate,
+                      ObjectMapper objectMapper,
+                      MeterRegistry meterRegistry,
+                      @Value("${cache.read.local.max-size:50000}") long localMaxSize,
+                      @Value("${cache.read.local.ttl-seconds:30}") long localTtlSeconds,
+                      @Value("${cache.read.shared.ttl-seconds:300}") long sharedTtlSeconds,
+                      @Value("${cache.read.tenant-history.ttl-seconds:10}") long tenantHistoryTtlSeconds) {
+        TypeFactory types = objectMapper.getTypeFactory();
+        Duration localTtl = Duration.ofSeconds(localTtlSeconds);
+        Duration sharedTtl = Duration.ofSeconds(sharedTtlSeconds);
+        Duration tenantTtl = Duration.ofSeconds(tenantHistoryTtlSeconds);
+        this.rides = new TwoLevelCache<>("ride", types.constructType(RideResponse.class),
+            localMaxSize, localTtl, sharedTtl, redisTemplate, objectMapper, meterRegistry);
+        this.driverDetails = new TwoLevelCache<>("driver-detail", types.constructType(DriverHistoryResponse.class),
+            localMaxSize, localTtl, sharedTtl, redisTemplate, objectMapper, meterRegistry);
+        this.driverRideHistory = new TwoLevelCache<>("driver-rides", types.constructType(RidePage.class),
+            localMaxSize, localTtl, sharedTtl, redisTemplate, objectMapper, meterRegistry);
+        this.tenantRideHistory = new TwoLevelCache<>("tenant-rides", types.constructType(RidePage.class),
+            localMaxSize, tenantTtl, tenantTtl, redisTemplate, objectMapper, meterRegistry);
+    }
+
+    public void invalidate(Collection<RideEvent> events) {
+        Set<Long> rideIds = new HashSet<>();
+        Set<Long> driverIds = new HashSet<>();
+        for (RideEvent event : events) {
+            if (event.getRideId() != null) {
+                rideIds.add(event.getRideId());
+            }
+            if (event.getDriverId() != null) {
+                driverIds.add(event.getDriverId());
+            }
+        }
+        rides.evictAll(rideIds);
+        evictDrivers(driverIds);
+    }
+
+    /**
+     * For driver changes that do not produce a ride event (status toggles): evicts the shared tier
+     * and this node's tier after commit; other nodes catch up within the local TTL.
+     */
+    public void evictDriverAfterCommit(Long driverId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictDrivers(Set.of(driverId));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evictDrivers(Set.of(driverId));
+            }
+        });
+    }
+
+    private void evictDrivers(Set<Long> driverIds) {
+        driverDetails.evictAll(driverIds);
+        driverRideHistory.evictAll(driverIds);
+    }
+}
@@ -0,0 +1,161 @@
+package com.uberbackend.cache;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache with a per-node Caffeine tier in front of a shared Redis tier
+ * ({@code cache:<name>:<key>}, JSON). A miss in both loads from the database and fills both.
+ * Redis errors degrade to a database read rather than failing the request.
+ *
+ * Every eviction also bumps a per-key generation ({@code cache:<name>:<key>:gen}). A fill only
+ * lands if the generation is still the one read before the database load, so a load that raced
+ * an eviction cannot put the row it read before the change back into either tier.
+ */
+public class TwoLevelCache<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoLevelCache.class);
+
+    // KEYS[1] = entry, KEYS[2] = generation; ARGV[1] = json, ARGV[2] = ttl ms, ARGV[3] = generation read
+    private static final RedisScript<Long> FILL_SCRIPT = new DefaultRedisScript<>(
+        "if (redis.call('GET', KEYS[2]) or '') ~= ARGV[3] then return 0 end " +
+        "redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2]) " +
+        "return 1",
+        Long.class);
+
+    // KEYS = (entry, generation) pairs; ARGV[1] = generation ttl ms
+    private static final RedisScript<Long> EVICT_SCRIPT = new DefaultRedisScript<>(
+        "for i = 1, #KEYS, 2 do " +
+        "  redis.call('DEL', KEYS[i]) " +
+        "  redis.call('INCR', KEYS[i + 1]) " +
+        "  redis.call('PEXPIRE', KEYS[i + 1], ARGV[1]) " +
+        "end " +
+        "return #KEYS / 2",
+        Long.class);
+
+    private final String name;
+    private final JavaType type;
+    private final Cache<String, T> local;
+    private final Duration sharedTtl;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    public TwoLevelCache(String name, JavaType type, long localMaxSize, Duration localTtl, Duration sharedTtl,
+                         StringRedisTemplate redisTemplate, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.type = type;
+        this.sharedTtl = sharedTtl;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.local = Caffeine.newBuilder()
+            .maximumSize(localMaxSize)
+            .expireAfterWrite(localTtl)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, local, name);
+    }
+
+    public T get(Object key, Supplier<T> loader) {
+        String cacheKey = String.valueOf(key);
+        T value = local.getIfPresent(cacheKey);
+        if (value != null) {
+            return value;
+        }
+        SharedEntry<T> shared = readShared(cacheKey);
+        value = shared.value();
+        boolean current = true;
+        if (value == null) {
+            value = loader.get();
+            current = !shared.available() || writeShared(cacheKey, value, shared.generation());
+        }
+        if (value != null && current) {
+            local.put(cacheKey, value);
+        }
+        return value;
+    }
+
+    /**
+     * Drops the keys from Redis and bumps their generations (one script), then drops them from
+     * this node's tier, in that order so a concurrent read on this node cannot refill the local
+     * tier from a stale shared entry.
+     */
+    public void evictAll(Collection<?> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        List<String> cacheKeys = keys.stream().map(String::valueOf).toList();
+        List<String> sharedKeys = new ArrayList<>(cacheKeys.size() * 2);
+        for (String cacheKey : cacheKeys) {
+            sharedKeys.add(sharedKey(cacheKey));
+            sharedKeys.add(generationKey(cacheKey));
+        }
+        try {
+            redisTemplate.execute(EVICT_SCRIPT, sharedKeys, String.valueOf(sharedTtl.toMillis()));
+        } catch (Exception e) {
+            logger.warn("Shared cache eviction failed: cache={}, error={}", name, e.getMessage());
+        }
+        local.invalidateAll(cacheKeys);
+    }
+
+    public void evict(Object key) {
+        evictAll(List.of(key));
+    }
+
+    private SharedEntry<T> readShared(String key) {
+        try {
+            List<String> values = redisTemplate.opsForValue().multiGet(List.of(sharedKey(key), generationKey(key)));
+            String json = values != null ? values.get(0) : null;
+            String generation = values != null && values.get(1) != null ? values.get(1) : "";
+            return new SharedEntry<>(json != null ? objectMapper.readValue(json, type) : null, generation, true);
+        } catch (Exception e) {
+            logger.warn("Shared cache read failed: cache={}, error={}", name, e.getMessage());
+            return new SharedEntry<>(null, "", false);
+        }
+    }
+
+    /**
+     * @return false when an eviction moved the generation on while the value was loading
+     */
+    private boolean writeShared(String key, T value, String generation) {
+        if (value == null) {
+            return true;
+        }
+        try {
+            Long stored = redisTemplate.execute(FILL_SCRIPT, List.of(sharedKey(key), generationKey(key)),
+                objectMapper.writeValueAsString(value), String.valueOf(sharedTtl.toMillis()), generation);
+            if (stored == null || stored == 0L) {
+                logger.debug("Dropped fill raced by an eviction: cache={}, key={}", name, key);
+                return false;
+            }
+        } catch (Exception e) {
+            logger.warn("Shared cache write failed: cache={}, error={}", name, e.getMessage());
+        }
+        return true;
+    }
+
+    private String sharedKey(String key) {
+        return "cache:" + name + ":" + key;
+    }
+
+    private String generationKey(String key) {
+        return sharedKey(key) + ":gen";
+    }
+
+    private record SharedEntry<T>(T value, String generation, boolean available) {
+    }
+}
@@ -1,5 +1,10 @@
 package com.uberbackend.config;
 
+/**
+ * Tenant of the current request. Safe on virtual threads: a ThreadLocal does not pin the carrier,
+ * and each request runs on a fresh virtual thread. Callers must still {@link #clear()} in a
+ * finally block, since pooled platform threads (the default mode) are reused across requests.
+ */
 public class DriverContext {
     private static final ThreadLocal<String> TENANT_ID = new ThreadLocal<>();
 
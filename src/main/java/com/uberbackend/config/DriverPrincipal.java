@@ -0,0 +1,14 @@
+package com.uberbackend.config;
+
+import java.security.Principal;
+
+/**
+ * User of a STOMP session opened by a driver; see {@link StompDriverPrincipalInterceptor}.
+ */
+public record DriverPrincipal(Long driverId) implements Principal {
+
+    @Override
+    public String getName() {
+        return "driver-" + driverId;
+    }
+}
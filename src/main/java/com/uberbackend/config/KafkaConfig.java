@@ -1,65 +1,171 @@
 package com.uberbackend.config;
 
 import com.uberbackend.event.RideEvent;
+import com.uberbackend.event.RideEventDeserializer;
+import com.uberbackend.event.RideEventSerializer;
+import com.uberbackend.service.SessionRoutingRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.kafka.core.*;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
-import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @Configuration
+@EnableConfigurationProperties(KafkaProducerProperties.class)
 public class KafkaConfig {
 
     @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
     private String bootstrapServers;
 
+    @Value("${kafka.topics.ride-events.partitions:12}")
+    private int rideEventsPartitions;
+
+    @Value("${kafka.consumer.concurrency:0}")
+    private int consumerConcurrency;
+
+    @Value("${kafka.consumer.max-poll-records:500}")
+    private int maxPollRecords;
+
+    @Value("${kafka.consumer.fetch-max-wait-ms:50}")
+    private int fetchMaxWaitMs;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private final SessionRoutingRegistry sessionRoutingRegistry;
+
+    public KafkaConfig(SessionRoutingRegistry sessionRoutingRegistry) {
+        this.sessionRoutingRegistry = sessionRoutingRegistry;
+    }
+
+    /**
+     * A producer per profile in {@code kafka.producer.profiles}, instrumented with the Kafka client
+     * metrics tagged by profile.
+     */
     @Bean
-    public ProducerFactory<String, RideEvent> producerFactory() {
-        Map<String, Object> props = new HashMap<>();
-        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        return new DefaultKafkaProducerFactory<>(props);
+    public KafkaProducerTemplates kafkaProducerTemplates(KafkaProducerProperties properties,
+                                                         MeterRegistry meterRegistry) {
+        if (properties.getProfiles().isEmpty()) {
+            properties.getProfiles().put(properties.getDefaultProfile(), new KafkaProducerProperties.Profile());
+        }
+        Map<String, KafkaTemplate<String, RideEvent>> templates = new LinkedHashMap<>();
+        properties.getProfiles().forEach((name, profile) -> {
+            Map<String, Object> props = profile.toProducerConfig();
+            props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+            props.put(ProducerConfig.CLIENT_ID_CONFIG, "uber-backend-" + name);
+            props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+            props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, RideEventSerializer.class);
+            DefaultKafkaProducerFactory<String, RideEvent> factory = new DefaultKafkaProducerFactory<>(props);
+            factory.addListener(new MicrometerProducerListener<>(meterRegistry, List.of(Tag.of("profile", name))));
+            templates.put(name, new KafkaTemplate<>(factory));
+        });
+        return new KafkaProducerTemplates(properties, templates);
     }
 
     @Bean
-    public KafkaTemplate<String, RideEvent> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+    public MeterBinder kafkaProducerProfileMetrics(KafkaProducerTemplates kafkaProducerTemplates) {
+        return kafkaProducerTemplates::bindMetrics;
     }
 
     @Bean
-    public ConsumerFactory<String, RideEvent> consumerFactory() {
-        JsonDeserializer<RideEvent> deserializer =
-                new JsonDeserializer<>(RideEvent.class);
-        deserializer.addTrustedPackages("*");
+    public KafkaTemplate<String, RideEvent> kafkaTemplate(KafkaProducerTemplates kafkaProducerTemplates) {
+        return kafkaProducerTemplates.defaultTemplate();
+    }
 
+    @Bean
+    public NewTopic rideEventsTopic() {
+        return TopicBuilder.name("ride-events")
+            .partitions(rideEventsPartitions)
+            .build();
+    }
+
+    @Bean
+    public ConsumerFactory<String, RideEvent> consumerFactory(MeterRegistry meterRegistry) {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, "uber-backend-group");
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, fetchMaxWaitMs);
+        // Static membership keeps a node's partitions stable across restarts, so routes stay valid.
+        // With concurrency > 1 the container suffixes the instance id per consumer thread.
+        props.put(ConsumerConfig.GROUP_INSTANCE_ID_CONFIG, sessionRoutingRegistry.getNodeId());
 
-        return new DefaultKafkaConsumerFactory<>(
+        DefaultKafkaConsumerFactory<String, RideEvent> factory = new DefaultKafkaConsumerFactory<>(
                 props,
                 new StringDeserializer(),
-                deserializer
+                new RideEventDeserializer()
         );
+        // Client metrics, including kafka.consumer.fetch.manager.records.lag(.max) per partition
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return factory;
     }
 
+    /**
+     * Batch listener with one consumer thread per partition by default
+     * ({@code kafka.consumer.concurrency: 0}). Threads beyond the partitions this node is assigned
+     * sit idle, so on a multi-node cluster set the concurrency to partitions / nodes.
+     */
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, RideEvent>
-    kafkaListenerContainerFactory() {
+    kafkaListenerContainerFactory(ConsumerFactory<String, RideEvent> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<String, RideEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.setBatchListener(true);
+        factory.setConcurrency(consumerConcurrency > 0 ? consumerConcurrency : rideEventsPartitions);
+        factory.getContainerProperties().setConsumerRebalanceListener(sessionRoutingRegistry);
+        if (virtualThreads) {
+            // Our own factory, so Boot's virtual-thread wiring for listener containers does not apply
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("ride-events-");
+            executor.setVirtualThreads(true);
+            factory.getContainerProperties().setListenerTaskExecutor(executor);
+        }
+        return factory;
+    }
+
+    /**
+     * Every node must see every ride event to drop its own in-memory cache entries, so this
+     * container joins a group of its own ({@code cache-invalidation-<nodeId>}) instead of sharing
+     * partitions. It starts from the latest offset: a fresh node has nothing cached to invalidate.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, RideEvent>
+    cacheInvalidationListenerContainerFactory(MeterRegistry meterRegistry) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, "cache-invalidation-" + sessionRoutingRegistry.getNodeId());
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, fetchMaxWaitMs);
+
+        DefaultKafkaConsumerFactory<String, RideEvent> consumerFactory = new DefaultKafkaConsumerFactory<>(
+                props,
+                new StringDeserializer(),
+                new RideEventDeserializer()
+        );
+        consumerFactory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+
         ConcurrentKafkaListenerContainerFactory<String, RideEvent> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
-        factory.setConsumerFactory(consumerFactory());
+        factory.setConsumerFactory(consumerFactory);
+        factory.setBatchListener(true);
         return factory;
     }
 }
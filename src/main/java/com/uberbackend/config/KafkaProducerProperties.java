@@ -0,0 +1,62 @@
+package com.uberbackend.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Named producer profiles under {@code kafka.producer}. Each profile becomes its own producer;
+ * {@code topics} maps a topic to the profile that sends it, anything unmapped uses
+ * {@code default-profile}.
+ */
+@ConfigurationProperties(prefix = "kafka.producer")
+@Getter
+@Setter
+public class KafkaProducerProperties {
+
+    private String defaultProfile = "low-latency";
+
+    private Map<String, String> topics = new HashMap<>();
+
+    private Map<String, Profile> profiles = new LinkedHashMap<>();
+
+    public String profileFor(String topic) {
+        return topics.getOrDefault(topic, defaultProfile);
+    }
+
+    @Getter
+    @Setter
+    public static class Profile {
+
+        private String acks = "all";
+        private boolean idempotence = true;
+        private String compressionType = "none";
+        private int lingerMs = 0;
+        private int batchSize = 16384;
+        private int maxInFlightRequestsPerConnection = 5;
+        private long bufferMemory = 33554432L;
+        private int deliveryTimeoutMs = 120000;
+        private int requestTimeoutMs = 30000;
+
+        public Map<String, Object> toProducerConfig() {
+            Map<String, Object> props = new HashMap<>();
+            props.put(ProducerConfig.ACKS_CONFIG, acks);
+            props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, idempotence);
+            props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+            props.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+            props.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+            // Idempotence only keeps ordering with at most 5 in-flight requests per connection
+            props.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION,
+                idempotence ? Math.min(maxInFlightRequestsPerConnection, 5) : maxInFlightRequestsPerConnection);
+            props.put(ProducerConfig.BUFFER_MEMORY_CONFIG, bufferMemory);
+            props.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, deliveryTimeoutMs);
+            props.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, requestTimeoutMs);
+            return props;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.uberbackend.config;
+
+import com.uberbackend.event.RideEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One {@link KafkaTemplate} per producer profile, looked up by topic. Besides the standard
+ * {@code kafka.producer.*} client metrics each profile publishes
+ * {@code kafka.producer.batch.fill.ratio} (average record batch size over the configured
+ * {@code batch.size}) and {@code kafka.producer.requests.in.flight}.
+ *
+ * The producer factories are built here rather than registered as beans, so this bean closes
+ * them on shutdown; closing a producer sends what it still has buffered first.
+ */
+public class KafkaProducerTemplates implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(KafkaProducerTemplates.class);
+    private static final String PRODUCER_METRICS_GROUP = "producer-metrics";
+
+    private final KafkaProducerProperties properties;
+    private final Map<String, KafkaTemplate<String, RideEvent>> templates;
+
+    public KafkaProducerTemplates(KafkaProducerProperties properties,
+                                  Map<String, KafkaTemplate<String, RideEvent>> templates) {
+        this.properties = properties;
+        this.templates = templates;
+    }
+
+    public String profileFor(String topic) {
+        String profile = properties.profileFor(topic);
+        if (!templates.containsKey(profile)) {
+            throw new IllegalStateException("Unknown Kafka producer profile '" + profile + "' for topic " + topic);
+        }
+        return profile;
+    }
+
+    public KafkaTemplate<String, RideEvent> forTopic(String topic) {
+        return templates.get(profileFor(topic));
+    }
+
+    public KafkaTemplate<String, RideEvent> defaultTemplate() {
+        return templates.get(properties.getDefaultProfile());
+    }
+
+    @Override
+    public void destroy() {
+        templates.forEach((profile, template) -> {
+            if (template.getProducerFactory() instanceof DisposableBean factory) {
+                try {
+                    factory.destroy();
+                } catch (Exception e) {
+                    logger.warn("Failed to close Kafka producer: profile={}, error={}", profile, e.getMessage());
+                }
+            }
+        });
+    }
+
+    void bindMetrics(MeterRegistry registry) {
+        templates.forEach((profile, template) -> {
+            int batchSize = properties.getProfiles().get(profile).getBatchSize();
+            List<Tag> tags = List.of(Tag.of("profile", profile));
+            Gauge.builder("kafka.producer.batch.fill.ratio", template,
+                    t -> producerMetric(t, "batch-size-avg") / batchSize)
+                .tags(tags)
+                .register(registry);
+            Gauge.builder("kafka.producer.requests.in.flight", template,
+                    t -> producerMetric(t, "requests-in-flight"))
+                .tags(tags)
+                .register(registry);
+        });
+    }
+
+    static double producerMetric(KafkaTemplate<?, ?> template, String name) {
+        for (Map.Entry<MetricName, ? extends Metric> entry : template.metrics().entrySet()) {
+            MetricName metricName = entry.getKey();
+            if (PRODUCER_METRICS_GROUP.equals(metricName.group()) && name.equals(metricName.name())) {
+                Object value = entry.getValue().metricValue();
+                if (value instanceof Number number && !Double.isNaN(number.doubleValue())) {
+                    return number.doubleValue();
+                }
+                return 0.0;
+            }
+        }
+        return 0.0;
+    }
+}
@@ -0,0 +1,32 @@
+package com.uberbackend.config;
+
+import com.uberbackend.payment.PaymentGateway;
+import com.uberbackend.payment.SimulatedGatewayProperties;
+import com.uberbackend.payment.SimulatedPaymentGateway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(SimulatedGatewayProperties.class)
+public class PaymentGatewayConfig {
+
+    static final List<String> PROVIDERS = List.of(SimulatedPaymentGateway.NAME);
+
+    /**
+     * The gateway named by {@code payment.gateway.provider}. An unknown name fails startup here
+     * rather than as a missing {@link PaymentGateway} bean further down the context.
+     */
+    @Bean
+    public PaymentGateway paymentGateway(@Value("${payment.gateway.provider:" + SimulatedPaymentGateway.NAME + "}") String provider,
+                                         SimulatedGatewayProperties properties) {
+        return switch (provider.trim()) {
+            case SimulatedPaymentGateway.NAME -> new SimulatedPaymentGateway(properties);
+            default -> throw new IllegalStateException(
+                "Unknown payment.gateway.provider '" + provider + "'; supported providers: " + PROVIDERS);
+        };
+    }
+}
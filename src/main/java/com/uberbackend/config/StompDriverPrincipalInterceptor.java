@@ -0,0 +1,40 @@
+package com.uberbackend.config;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Binds a STOMP session to the driver it was opened for on the client inbound channel. The
+ * {@code driver-id} header of CONNECT becomes the session's {@link DriverPrincipal}, and inbound
+ * messages take the driver from that principal rather than from their payload, so once connected
+ * a session can only speak for its own driver.
+ */
+@Component
+public class StompDriverPrincipalInterceptor implements ChannelInterceptor {
+
+    public static final String DRIVER_ID_HEADER = "driver-id";
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.CONNECT) {
+            return message;
+        }
+        String driverId = accessor.getFirstNativeHeader(DRIVER_ID_HEADER);
+        if (driverId == null || driverId.isBlank()) {
+            return message;
+        }
+        try {
+            accessor.setUser(new DriverPrincipal(Long.valueOf(driverId.trim())));
+        } catch (NumberFormatException e) {
+            throw new MessagingException(message, "Invalid " + DRIVER_ID_HEADER + " header: " + driverId);
+        }
+        return message;
+    }
+}
@@ -1,23 +1,97 @@
 package com.uberbackend.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
 
+/**
+ * STOMP over WebSocket. {@code websocket.broker.mode} picks the broker:
+ * <ul>
+ *   <li>{@code simple} - in-memory broker, subscriptions live in this JVM only (single node)</li>
+ *   <li>{@code relay} - external STOMP broker (RabbitMQ/ActiveMQ) shared by all nodes; each node
+ *       only holds its own client sessions, and user destinations are resolved across nodes
+ *       through the broker so a message is forwarded by the node that owns the session</li>
+ * </ul>
+ * Destinations use {@code .} as separator ({@code /topic/rides.{rideId}},
+ * {@code /topic/drivers.{driverId}.rides}, {@code /app/location}) in both modes, since RabbitMQ's
+ * STOMP plugin maps the part after {@code /topic/} to an AMQP routing key and does not accept
+ * {@code /} there.
+ */
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final WebSocketMetricsInterceptor webSocketMetricsInterceptor;
+    private final StompDriverPrincipalInterceptor stompDriverPrincipalInterceptor;
+
+    @Value("${websocket.inbound.pool-size:16}")
+    private int inboundPoolSize;
+
+    @Value("${websocket.broker.mode:simple}")
+    private String brokerMode;
+
+    @Value("${websocket.broker.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${websocket.broker.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${websocket.broker.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${websocket.broker.relay.passcode:guest}")
+    private String relayPasscode;
+
+    public WebSocketConfig(WebSocketMetricsInterceptor webSocketMetricsInterceptor,
+                           StompDriverPrincipalInterceptor stompDriverPrincipalInterceptor) {
+        this.webSocketMetricsInterceptor = webSocketMetricsInterceptor;
+        this.stompDriverPrincipalInterceptor = stompDriverPrincipalInterceptor;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic", "/queue");
+        if ("relay".equalsIgnoreCase(brokerMode)) {
+            config.enableStompBrokerRelay("/topic", "/queue")
+                .setRelayHost(relayHost)
+                .setRelayPort(relayPort)
+                .setClientLogin(relayLogin)
+                .setClientPasscode(relayPasscode)
+                .setSystemLogin(relayLogin)
+                .setSystemPasscode(relayPasscode)
+                .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                .setUserRegistryBroadcast("/topic/simp-user-registry");
+        } else {
+            config.enableSimpleBroker("/topic", "/queue");
+        }
         config.setApplicationDestinationPrefixes("/app");
+        config.setPathMatcher(destinationPathMatcher());
+    }
+
+    public static AntPathMatcher destinationPathMatcher() {
+        return new AntPathMatcher(".");
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Drivers stream locations to /app/location, so inbound traffic is the hot path
+        registration.taskExecutor()
+            .corePoolSize(inboundPoolSize)
+            .maxPoolSize(inboundPoolSize);
+        registration.interceptors(stompDriverPrincipalInterceptor);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.interceptors(webSocketMetricsInterceptor);
     }
 
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/ws").setAllowedOriginPatterns("*").withSockJS();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,39 @@
+package com.uberbackend.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Map;
+
+/**
+ * Queue depth and active threads of the STOMP channel executors, so a backed-up outbound
+ * channel (slow subscribers, fan-out storms) is visible before sessions start timing out.
+ */
+@Configuration
+public class WebSocketMetricsConfig {
+
+    @Bean
+    public MeterBinder webSocketChannelMetrics(
+            @Qualifier("clientInboundChannelExecutor") ThreadPoolTaskExecutor inbound,
+            @Qualifier("clientOutboundChannelExecutor") ThreadPoolTaskExecutor outbound,
+            @Qualifier("brokerChannelExecutor") ThreadPoolTaskExecutor broker) {
+        Map<String, ThreadPoolTaskExecutor> executors = Map.of(
+            "inbound", inbound,
+            "outbound", outbound,
+            "broker", broker
+        );
+        return registry -> executors.forEach((channel, executor) -> {
+            Gauge.builder("websocket.channel.queue.depth", executor,
+                    e -> e.getThreadPoolExecutor().getQueue().size())
+                .tag("channel", channel)
+                .register(registry);
+            Gauge.builder("websocket.channel.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .tag("channel", channel)
+                .register(registry);
+        });
+    }
+}
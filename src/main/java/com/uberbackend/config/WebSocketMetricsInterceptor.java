@@ -0,0 +1,71 @@
+package com.uberbackend.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Records fan-out latency per topic on the client outbound channel: the time between a server-side
+ * publish (stamped with {@link #PUBLISHED_AT_HEADER}) and the copy being handed to each
+ * subscriber's session. Ids in destinations are collapsed so the metric has one series per topic.
+ */
+@Component
+public class WebSocketMetricsInterceptor implements ChannelInterceptor {
+
+    public static final String PUBLISHED_AT_HEADER = "x-published-at";
+
+    private static final Pattern ID_SEGMENT = Pattern.compile("([./])\\d+(?=[./]|$)");
+
+    private final MeterRegistry meterRegistry;
+
+    public WebSocketMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Headers to pass to {@code SimpMessagingTemplate.convertAndSend} so the fan-out is measured.
+     */
+    public static Map<String, Object> publishHeaders() {
+        return Map.of(PUBLISHED_AT_HEADER, String.valueOf(System.currentTimeMillis()));
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        if (accessor.getMessageType() != SimpMessageType.MESSAGE) {
+            return message;
+        }
+        String publishedAt = accessor.getFirstNativeHeader(PUBLISHED_AT_HEADER);
+        if (publishedAt == null) {
+            return message;
+        }
+        try {
+            long latencyMs = Math.max(0, System.currentTimeMillis() - Long.parseLong(publishedAt));
+            Timer.builder("websocket.fanout.latency")
+                .description("Time from server publish to delivery to a subscriber session")
+                .tag("destination", normalize(accessor.getDestination()))
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry)
+                .record(Duration.ofMillis(latencyMs));
+        } catch (NumberFormatException nfe) {
+            // foreign header value, ignore
+        }
+        return message;
+    }
+
+    static String normalize(String destination) {
+        if (destination == null) {
+            return "unknown";
+        }
+        return ID_SEGMENT.matcher(destination).replaceAll("$1{id}");
+    }
+}
@@ -0,0 +1,39 @@
+package com.uberbackend.consumer;
+
+import com.uberbackend.cache.ReadCaches;
+import com.uberbackend.event.RideEvent;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Drops cached ride and driver reads for every ride event, on every node. Runs in a per-node
+ * consumer group (see {@code KafkaConfig#cacheInvalidationListenerContainerFactory}), separate
+ * from the partitioned {@link RideEventConsumer}.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheInvalidationConsumer {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationConsumer.class);
+
+    private final ReadCaches readCaches;
+
+    @KafkaListener(topics = "ride-events", containerFactory = "cacheInvalidationListenerContainerFactory")
+    public void invalidate(List<ConsumerRecord<String, RideEvent>> records) {
+        List<RideEvent> events = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, RideEvent> record : records) {
+            if (record.value() != null) {
+                events.add(record.value());
+            }
+        }
+        readCaches.invalidate(events);
+        logger.debug("Invalidated cached reads: events={}", events.size());
+    }
+}
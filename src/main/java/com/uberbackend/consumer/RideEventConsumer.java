@@ -1,36 +1,113 @@
 package com.uberbackend.consumer;
 
+import com.uberbackend.config.WebSocketMetricsInterceptor;
 import com.uberbackend.event.RideEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes ride events to WebSocket subscribers, one polled batch at a time. Within a batch only the
+ * newest event per ride is delivered: a subscriber catching up on a backlog needs the current
+ * status, not every intermediate one.
+ */
 @Component
 public class RideEventConsumer {
 
     private static final Logger logger = LoggerFactory.getLogger(RideEventConsumer.class);
 
     private final SimpMessagingTemplate messagingTemplate;
+    private final Timer recordLag;
+    private final DistributionSummary batchSize;
+    private final Counter coalesced;
 
-    public RideEventConsumer(SimpMessagingTemplate messagingTemplate) {
+    public RideEventConsumer(SimpMessagingTemplate messagingTemplate, MeterRegistry meterRegistry) {
         this.messagingTemplate = messagingTemplate;
+        this.recordLag = Timer.builder("ride.events.consumer.lag")
+            .description("Time from produce to consume of ride events")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("ride.events.consumer.batch.size")
+            .register(meterRegistry);
+        this.coalesced = Counter.builder("ride.events.consumer.coalesced")
+            .description("Events superseded by a newer event for the same ride in the same batch")
+            .register(meterRegistry);
     }
 
     @KafkaListener(topics = "ride-events", groupId = "uber-backend-group")
-    public void consumeRideEvent(RideEvent event) {
-        logger.info("Consuming ride event: rideId={}, status={}, eventType={}", 
-            event.getRideId(), event.getStatus(), event.getEventType());
-        
+    public void consumeRideEvents(List<ConsumerRecord<String, RideEvent>> records) {
+        long now = System.currentTimeMillis();
+        for (ConsumerRecord<String, RideEvent> record : records) {
+            if (record.timestamp() < 0) {
+                continue;
+            }
+            recordLag.record(Math.max(0, now - record.timestamp()), TimeUnit.MILLISECONDS);
+        }
+        batchSize.record(records.size());
+
+        Collection<RideEvent> latest = coalesce(records);
+        coalesced.increment(records.size() - latest.size());
+        logger.debug("Consuming ride events: records={}, rides={}", records.size(), latest.size());
+
+        for (RideEvent event : latest) {
+            try {
+                push(event);
+            } catch (Exception e) {
+                // One failed push must not replay the whole batch to everyone else
+                logger.error("Failed to push ride event: rideId={}, error={}", event.getRideId(), e.getMessage());
+            }
+        }
+    }
+
+    private void push(RideEvent event) {
         // Send WebSocket notification to passenger
-        String destination = "/topic/rides/" + event.getRideId();
-        messagingTemplate.convertAndSend(destination, event);
-        
+        String destination = "/topic/rides." + event.getRideId();
+        messagingTemplate.convertAndSend(destination, event, WebSocketMetricsInterceptor.publishHeaders());
+
         // Send notification to driver if assigned
         if (event.getDriverId() != null) {
-            String driverDestination = "/topic/drivers/" + event.getDriverId() + "/rides";
-            messagingTemplate.convertAndSend(driverDestination, event);
+            String driverDestination = "/topic/drivers." + event.getDriverId() + ".rides";
+            messagingTemplate.convertAndSend(driverDestination, event, WebSocketMetricsInterceptor.publishHeaders());
+        }
+    }
+
+    /**
+     * Newest event per ride, in order of each ride's first appearance. Records of one ride normally
+     * share a partition, so a later record wins; the event timestamp breaks ties for rides whose
+     * records were routed to different partitions. Payment events are coalesced separately so a
+     * payment update never hides the ride's own latest status.
+     */
+    static Collection<RideEvent> coalesce(List<ConsumerRecord<String, RideEvent>> records) {
+        Map<String, RideEvent> latest = new LinkedHashMap<>();
+        for (ConsumerRecord<String, RideEvent> record : records) {
+            RideEvent event = record.value();
+            if (event == null || event.getRideId() == null) {
+                continue;
+            }
+            boolean payment = event.getEventType() != null && event.getEventType().isPayment();
+            latest.merge((payment ? "payment:" : "ride:") + event.getRideId(), event, RideEventConsumer::newer);
+        }
+        return latest.values();
+    }
+
+    private static RideEvent newer(RideEvent current, RideEvent candidate) {
+        if (current.getTimestamp() != null && candidate.getTimestamp() != null
+                && candidate.getTimestamp().isBefore(current.getTimestamp())) {
+            return current;
         }
+        return candidate;
     }
-}
\ No newline at end of file
+}
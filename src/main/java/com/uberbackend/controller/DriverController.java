@@ -1,25 +1,59 @@
 package com.uberbackend.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.uberbackend.dto.request.CreateDriverRequest;
+import com.uberbackend.dto.request.DriverLocationUpdateRequest;
 import com.uberbackend.dto.request.UpdateDriverLocationRequest;
+import com.uberbackend.dto.response.BatchLocationUpdateResponse;
+import com.uberbackend.dto.response.BulkDriverOnboardingResponse;
 import com.uberbackend.dto.response.DriverHistoryResponse;
+import com.uberbackend.dto.response.DriverRowError;
+import com.uberbackend.dto.response.RidePage;
 import com.uberbackend.model.entity.Driver;
 import com.uberbackend.model.entity.Tenant;
+import com.uberbackend.service.DriverOnboardingService;
 import com.uberbackend.service.DriverService;
+import com.uberbackend.service.HistoryService;
+import com.uberbackend.service.ReadQueryService;
 import com.uberbackend.service.TenantService;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
 @RestController
 @RequestMapping("/drivers")
 @RequiredArgsConstructor
 public class DriverController {
 
+    private static final int LOCATION_CHUNK_SIZE = 5000;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
     private final DriverService driverService;
+    private final DriverOnboardingService driverOnboardingService;
+    private final HistoryService historyService;
     private final TenantService tenantService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
 
     @PostMapping
     public ResponseEntity<Driver> registerDriver(@Valid @RequestBody CreateDriverRequest request) {
@@ -27,18 +61,47 @@ public class DriverController {
         Tenant tenant = tenantService.findById(request.getTenantId())
                 .orElseThrow(() -> new RuntimeException("Tenant not found: " + request.getTenantId()));
 
-        Driver driver = new Driver();
-        driver.setTenantId(tenant.getId());
-        driver.setName(tenant.getName());
-        driver.setPhoneNumber(request.getPhoneNumber());
-        driver.setLicenseNumber(request.getLicenseNumber());
-        driver.setVehicleModel(request.getVehicleModel());
-        driver.setVehiclePlateNumber(request.getVehiclePlateNumber());
-
-        Driver saved = driverService.createDriver(driver);
+        Driver saved = driverService.createDriver(toDriver(request, tenant));
         return ResponseEntity.status(HttpStatus.CREATED).body(saved);
     }
 
+    /**
+     * Registers many drivers in one call. Valid rows are created even when others fail; every
+     * rejected row comes back with its index and the field at fault.
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkDriverOnboardingResponse> registerDrivers(@RequestBody List<CreateDriverRequest> requests) {
+
+        List<DriverRowError> errors = new ArrayList<>();
+        List<DriverOnboardingService.Candidate> candidates = new ArrayList<>(requests.size());
+        Map<Long, Optional<Tenant>> tenants = new HashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            CreateDriverRequest request = requests.get(i);
+            if (request == null) {
+                errors.add(new DriverRowError(i, null, "Row is empty"));
+                continue;
+            }
+            Set<ConstraintViolation<CreateDriverRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                ConstraintViolation<CreateDriverRequest> violation = violations.iterator().next();
+                errors.add(new DriverRowError(i, violation.getPropertyPath().toString(), violation.getMessage()));
+                continue;
+            }
+            Optional<Tenant> tenant = request.getTenantId() == null ? Optional.empty()
+                : tenants.computeIfAbsent(request.getTenantId(), tenantService::findById);
+            if (tenant.isEmpty()) {
+                errors.add(new DriverRowError(i, "tenantId", "Tenant not found: " + request.getTenantId()));
+                continue;
+            }
+            candidates.add(new DriverOnboardingService.Candidate(i, toDriver(request, tenant.get())));
+        }
+
+        DriverOnboardingService.Result result = driverOnboardingService.onboard(candidates);
+        errors.addAll(result.errors());
+        errors.sort(Comparator.comparingInt(DriverRowError::getIndex));
+        return ResponseEntity.ok(new BulkDriverOnboardingResponse(requests.size(), result.created(), errors));
+    }
+
     @PostMapping("/{driverId}/location")
     public ResponseEntity<Void> updateLocation(@PathVariable Long driverId, @Valid @RequestBody UpdateDriverLocationRequest request) {
 
@@ -46,6 +109,95 @@ public class DriverController {
         return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
     }
 
+    @PostMapping(value = "/locations", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BatchLocationUpdateResponse> updateLocations(@RequestBody List<DriverLocationUpdateRequest> requests) {
+
+        List<DriverRowError> errors = new ArrayList<>();
+        List<DriverLocationUpdateRequest> valid = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            DriverRowError error = validateLocation(i, requests.get(i));
+            if (error != null) {
+                report(errors, error);
+                continue;
+            }
+            valid.add(requests.get(i));
+        }
+        if (!valid.isEmpty()) {
+            driverService.updateDriverLocations(valid);
+        }
+        return ResponseEntity.accepted().body(
+            new BatchLocationUpdateResponse(valid.size(), requests.size() - valid.size(), errors));
+    }
+
+    /**
+     * Newline-delimited JSON, one {@link DriverLocationUpdateRequest} per line. The body is read as a
+     * stream and applied in chunks, so large gateway uploads are never held in memory at once. A
+     * malformed or invalid line is reported with its line number (from 0) and the others still apply.
+     */
+    @PostMapping(value = "/locations", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<BatchLocationUpdateResponse> updateLocationsNdjson(InputStream body) throws IOException {
+
+        int accepted = 0;
+        int rejected = 0;
+        List<DriverRowError> errors = new ArrayList<>();
+        List<DriverLocationUpdateRequest> chunk = new ArrayList<>(LOCATION_CHUNK_SIZE);
+        ObjectReader reader = objectMapper.readerFor(DriverLocationUpdateRequest.class);
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            int lineNumber = -1;
+            String line;
+            while ((line = lines.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                DriverLocationUpdateRequest request;
+                try {
+                    request = reader.readValue(line);
+                } catch (JsonProcessingException e) {
+                    rejected++;
+                    report(errors, new DriverRowError(lineNumber, null, "Malformed JSON: " + e.getOriginalMessage()));
+                    continue;
+                }
+                DriverRowError error = validateLocation(lineNumber, request);
+                if (error != null) {
+                    rejected++;
+                    report(errors, error);
+                    continue;
+                }
+                chunk.add(request);
+                if (chunk.size() == LOCATION_CHUNK_SIZE) {
+                    driverService.updateDriverLocations(chunk);
+                    accepted += chunk.size();
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            driverService.updateDriverLocations(chunk);
+            accepted += chunk.size();
+        }
+        return ResponseEntity.accepted().body(new BatchLocationUpdateResponse(accepted, rejected, errors));
+    }
+
+    private DriverRowError validateLocation(int index, DriverLocationUpdateRequest request) {
+        if (request == null) {
+            return new DriverRowError(index, null, "Row is empty");
+        }
+        Set<ConstraintViolation<DriverLocationUpdateRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        ConstraintViolation<DriverLocationUpdateRequest> violation = violations.iterator().next();
+        return new DriverRowError(index, violation.getPropertyPath().toString(), violation.getMessage());
+    }
+
+    private static void report(List<DriverRowError> errors, DriverRowError error) {
+        // Rejected rows are always counted; only the first ones are itemised
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(error);
+        }
+    }
+
     @PostMapping("/{driverId}/accept")
     public ResponseEntity<Void> acceptRide(@PathVariable Long driverId, @RequestParam Long rideId) {
 
@@ -66,4 +218,22 @@ public class DriverController {
         return ResponseEntity.ok(response);
     }
 
-}
\ No newline at end of file
+    @GetMapping("/{driverId}/rides")
+    public ResponseEntity<RidePage> getDriverRides(@PathVariable Long driverId,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = "" + ReadQueryService.DEFAULT_PAGE_SIZE) int size) {
+        RidePage page = historyService.getDriverRideHistory(driverId, cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
+    private Driver toDriver(CreateDriverRequest request, Tenant tenant) {
+        Driver driver = new Driver();
+        driver.setTenantId(tenant.getId());
+        driver.setName(tenant.getName());
+        driver.setPhoneNumber(request.getPhoneNumber());
+        driver.setLicenseNumber(request.getLicenseNumber());
+        driver.setVehicleModel(request.getVehicleModel());
+        driver.setVehiclePlateNumber(request.getVehiclePlateNumber());
+        return driver;
+    }
+}
@@ -0,0 +1,53 @@
+package com.uberbackend.controller;
+
+import com.uberbackend.config.DriverPrincipal;
+import com.uberbackend.dto.request.UpdateDriverLocationRequest;
+import com.uberbackend.service.DriverLocationIngestionService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.stereotype.Controller;
+
+import java.security.Principal;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Inbound STOMP channel for drivers streaming their position over an open session
+ * ({@code SEND /app/location}) instead of one REST call per ping. The driver is the session's
+ * {@link DriverPrincipal}, set from the {@code driver-id} CONNECT header; a driver id in the
+ * payload is ignored.
+ */
+@Controller
+@RequiredArgsConstructor
+public class DriverLocationMessageController {
+
+    private static final Logger logger = LoggerFactory.getLogger(DriverLocationMessageController.class);
+
+    private final DriverLocationIngestionService driverLocationIngestionService;
+
+    @MessageMapping("location")
+    public void updateLocation(@Valid @Payload UpdateDriverLocationRequest request, Optional<Principal> principal) {
+        if (!(principal.orElse(null) instanceof DriverPrincipal driver)) {
+            throw new IllegalStateException("Session is not bound to a driver: connect with a driver-id header");
+        }
+        driverLocationIngestionService.submit(
+            driver.driverId(),
+            request.getCity(),
+            request.getLatitude().doubleValue(),
+            request.getLongitude().doubleValue()
+        );
+    }
+
+    @MessageExceptionHandler
+    @SendToUser(destinations = "/queue/errors", broadcast = false)
+    public Map<String, String> handleException(Exception ex) {
+        logger.warn("Rejected driver location message: {}", ex.getMessage());
+        return Map.of("error", ex.getMessage() != null ? ex.getMessage() : "Invalid location message");
+    }
+}
@@ -2,6 +2,7 @@ package com.uberbackend.controller;
 
 import com.uberbackend.dto.request.CreatePaymentRequest;
 import com.uberbackend.model.entity.Payment;
+import com.uberbackend.model.entity.PaymentEvent;
 import com.uberbackend.model.entity.Tenant;
 import com.uberbackend.service.PaymentService;
 import com.uberbackend.service.TenantService;
@@ -11,6 +12,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/payments")
 @RequiredArgsConstructor
@@ -23,6 +26,13 @@ public class PaymentController {
     public ResponseEntity<Payment> createPayment(@Valid @RequestBody CreatePaymentRequest request) {
 
         Payment payment = paymentService.createPayment(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(payment);
+        // Processing continues in the background; the payment is returned as PENDING
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(payment);
+    }
+
+    // State transitions from the payment event log, oldest first
+    @GetMapping("/{id}/events")
+    public ResponseEntity<List<PaymentEvent>> getPaymentHistory(@PathVariable Long id) {
+        return ResponseEntity.ok(paymentService.getPaymentHistory(id));
     }
 }
\ No newline at end of file
@@ -1,24 +1,38 @@
 package com.uberbackend.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.uberbackend.dto.request.CreateTenantRequest;
+import com.uberbackend.dto.response.RidePage;
 import com.uberbackend.dto.response.RideResponse;
 import com.uberbackend.model.entity.Tenant;
 import com.uberbackend.service.HistoryService;
+import com.uberbackend.service.ReadQueryService;
 import com.uberbackend.service.TenantService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 @RestController
 @RequestMapping("/tenants")
 @RequiredArgsConstructor
 public class TenantController {
 
+    private static final Logger logger = LoggerFactory.getLogger(TenantController.class);
+
     private final TenantService tenantService;
     private final HistoryService historyService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ResponseEntity<Tenant> registerTenant(@Valid @RequestBody CreateTenantRequest request) {
@@ -30,8 +44,34 @@ public class TenantController {
     }
 
     @GetMapping("/{tenantId}/history")
-    public ResponseEntity<List<RideResponse>> getTenantHistory(@PathVariable Long tenantId) {
-        List<RideResponse> history = historyService.getTenantRideHistory(tenantId);
+    public ResponseEntity<RidePage> getTenantHistory(@PathVariable Long tenantId,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @RequestParam(defaultValue = "" + ReadQueryService.DEFAULT_PAGE_SIZE) int size) {
+        RidePage history = historyService.getTenantRideHistory(tenantId, cursor, size);
         return ResponseEntity.ok(history);
     }
+
+    /**
+     * Whole tenant history as NDJSON, one ride per line, streamed from a database cursor.
+     */
+    @GetMapping(value = "/{tenantId}/history/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportTenantHistory(@PathVariable Long tenantId) {
+        // Let the servlet buffer decide when to flush instead of flushing every line
+        ObjectWriter writer = objectMapper.writerFor(RideResponse.class)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                long rides = historyService.exportTenantRideHistory(tenantId, ride -> {
+                    try {
+                        writer.writeValue(generator, ride);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                logger.info("Exported tenant history: tenantId={}, rides={}", tenantId, rides);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
 }
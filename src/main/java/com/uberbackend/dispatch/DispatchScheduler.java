@@ -0,0 +1,282 @@
+package com.uberbackend.dispatch;
+
+import com.uberbackend.event.RideEvent;
+import com.uberbackend.geo.NearbyDriver;
+import com.uberbackend.model.entity.Ride;
+import com.uberbackend.model.enums.RideEventType;
+import com.uberbackend.model.enums.RideStatus;
+import com.uberbackend.repository.RideRepository;
+import com.uberbackend.service.DriverAvailabilityService;
+import com.uberbackend.service.RedisGeoService;
+import com.uberbackend.service.RideEventOutbox;
+import com.uberbackend.service.RideService;
+import lombok.RequiredArgsConstructor;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matches PENDING rides to drivers in short time windows instead of inside the HTTP request.
+ *
+ * Every window each city with pending rides is dispatched on its own: up to
+ * {@code max-rides-per-window} of its pending rides are loaded, each ride gets its nearest drivers
+ * from the geo index, and the rides x drivers distance matrix is solved as a minimum-cost
+ * assignment. Winning drivers are claimed through {@link DriverAvailabilityService} and the rides
+ * move to ASSIGNED with one batched statement. A per-city Redis lock keeps nodes from dispatching
+ * the same city in the same window; the claim and the conditional update keep it safe regardless.
+ *
+ * When a city has more pending rides than fit in a window, the next window continues after the
+ * last ride loaded and wraps back to the oldest once it reaches the end, so rides nobody can serve
+ * do not keep newer ones out of the window. The cursor is per node, which only changes where a
+ * node resumes. Rides still PENDING after {@code pending-timeout-ms} are cancelled.
+ */
+@Component
+@RequiredArgsConstructor
+public class DispatchScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(DispatchScheduler.class);
+    private static final String DISPATCH_LOCK_PREFIX = "dispatch:lock:";
+    private static final double SEARCH_RADIUS_KM = 5.0;
+    private static final double MAX_SEARCH_RADIUS_KM = 20.0;
+
+    private static final String ASSIGN_RIDE_SQL =
+        "UPDATE rides SET driver_id = ?, status = 'ASSIGNED', version = version + 1, updated_at = ? " +
+        "WHERE id = ? AND status = 'PENDING'";
+    private static final String CANCEL_RIDE_SQL =
+        "UPDATE rides SET status = 'CANCELLED', version = version + 1, updated_at = ? " +
+        "WHERE id = ? AND status = 'PENDING'";
+    private static final String DRIVER_IN_RIDE_SQL =
+        "UPDATE drivers SET status = 'IN_RIDE', version = version + 1, updated_at = ? WHERE id = ?";
+
+    private final RideRepository rideRepository;
+    private final RedisGeoService redisGeoService;
+    private final DriverAvailabilityService driverAvailabilityService;
+    private final RideEventOutbox rideEventOutbox;
+    private final RedissonClient redissonClient;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, Ride> cityCursors = new ConcurrentHashMap<>();
+
+    @Value("${dispatch.batch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${dispatch.batch.max-rides-per-window:200}")
+    private int maxRidesPerWindow;
+
+    @Value("${dispatch.batch.candidates-per-ride:8}")
+    private int candidatesPerRide;
+
+    @Value("${dispatch.batch.window-ms:1500}")
+    private long windowMs;
+
+    @Value("${dispatch.batch.pending-timeout-ms:300000}")
+    private long pendingTimeoutMs;
+
+    @Scheduled(fixedDelayString = "${dispatch.batch.window-ms:1500}")
+    public void dispatchPendingRides() {
+        if (!enabled) {
+            return;
+        }
+        expireStaleRides();
+
+        for (String city : rideRepository.findPendingRideCities()) {
+            RLock lock = redissonClient.getLock(DISPATCH_LOCK_PREFIX + city);
+            boolean locked = false;
+            try {
+                locked = lock.tryLock(0, windowMs, TimeUnit.MILLISECONDS);
+                if (locked) {
+                    List<Ride> rides = nextPendingRides(city);
+                    if (!rides.isEmpty()) {
+                        dispatchCity(city, rides);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.error("Dispatch failed: city={}, error={}", city, e.getMessage());
+            } finally {
+                if (locked && lock.isHeldByCurrentThread()) {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * The city's pending rides after the cursor left by the previous window, oldest first. A full
+     * page moves the cursor to its last ride; a short one means the end was reached, so the next
+     * window starts again from the oldest.
+     */
+    List<Ride> nextPendingRides(String city) {
+        PageRequest page = PageRequest.of(0, maxRidesPerWindow);
+        Ride cursor = cityCursors.remove(city);
+        List<Ride> rides = cursor == null
+            ? List.of()
+            : rideRepository.findPendingRidesByCityAfter(city, cursor.getCreatedAt(), cursor.getId(), page);
+        if (rides.isEmpty()) {
+            rides = rideRepository.findPendingRidesByCity(city, page);
+        }
+        if (rides.size() == maxRidesPerWindow) {
+            cityCursors.put(city, rides.get(rides.size() - 1));
+        }
+        return rides;
+    }
+
+    /**
+     * Cancels rides that have waited longer than the pending timeout and publishes a CANCELLED
+     * event for each. The update is conditional on PENDING, so nodes racing on the same ride, or a
+     * ride assigned meanwhile, publish nothing twice.
+     */
+    void expireStaleRides() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(Duration.ofMillis(pendingTimeoutMs));
+        List<Ride> stale = rideRepository.findPendingRidesCreatedBefore(cutoff, PageRequest.of(0, maxRidesPerWindow));
+        if (stale.isEmpty()) {
+            return;
+        }
+        Integer cancelled = transactionTemplate.execute(status -> cancelInBulk(stale));
+        logger.info("Expired pending rides: stale={}, cancelled={}", stale.size(), cancelled);
+    }
+
+    void dispatchCity(String city, List<Ride> rides) {
+        // Candidate drivers per ride, and the union of all candidates as matrix columns
+        Map<Long, Integer> driverColumns = new HashMap<>();
+        List<Long> drivers = new ArrayList<>();
+        List<List<NearbyDriver>> candidates = new ArrayList<>(rides.size());
+        for (Ride ride : rides) {
+            List<NearbyDriver> nearest = redisGeoService.findNearestDrivers(
+                city,
+                ride.getPickupLatitude().doubleValue(),
+                ride.getPickupLongitude().doubleValue(),
+                SEARCH_RADIUS_KM,
+                MAX_SEARCH_RADIUS_KM,
+                candidatesPerRide
+            );
+            for (NearbyDriver nearby : nearest) {
+                if (driverColumns.putIfAbsent(nearby.getDriverId(), drivers.size()) == null) {
+                    drivers.add(nearby.getDriverId());
+                }
+            }
+            candidates.add(nearest);
+        }
+        if (drivers.isEmpty()) {
+            return;
+        }
+
+        double[][] cost = new double[rides.size()][drivers.size()];
+        for (int i = 0; i < rides.size(); i++) {
+            Arrays.fill(cost[i], HungarianAssignment.FORBIDDEN);
+            for (NearbyDriver nearby : candidates.get(i)) {
+                cost[i][driverColumns.get(nearby.getDriverId())] = nearby.getDistanceKm();
+            }
+        }
+        int[] assignment = HungarianAssignment.solve(cost);
+
+        List<Ride> matchedRides = new ArrayList<>();
+        List<Long> matchedDrivers = new ArrayList<>();
+        for (int i = 0; i < rides.size(); i++) {
+            if (assignment[i] < 0) {
+                continue;
+            }
+            Long driverId = drivers.get(assignment[i]);
+            // A driver claimed by someone else since the geo lookup leaves the ride for the next window
+            if (driverAvailabilityService.tryClaim(driverId, city)) {
+                matchedRides.add(rides.get(i));
+                matchedDrivers.add(driverId);
+            }
+        }
+        if (matchedRides.isEmpty()) {
+            return;
+        }
+
+        int[] updated;
+        try {
+            updated = transactionTemplate.execute(status -> assignInBulk(matchedRides, matchedDrivers));
+        } catch (RuntimeException e) {
+            matchedDrivers.forEach(driverId -> driverAvailabilityService.release(driverId, city));
+            throw e;
+        }
+
+        int assigned = 0;
+        for (int i = 0; i < matchedRides.size(); i++) {
+            Ride ride = matchedRides.get(i);
+            Long driverId = matchedDrivers.get(i);
+            if (updated[i] == 0) {
+                // Ride was accepted or cancelled in the meantime
+                driverAvailabilityService.release(driverId, city);
+                continue;
+            }
+            assigned++;
+        }
+        logger.info("Dispatched rides: city={}, pending={}, assigned={}", city, rides.size(), assigned);
+    }
+
+    private int[] assignInBulk(List<Ride> rides, List<Long> driverIds) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rideArgs = new ArrayList<>(rides.size());
+        for (int i = 0; i < rides.size(); i++) {
+            rideArgs.add(new Object[]{driverIds.get(i), now, rides.get(i).getId()});
+        }
+        int[] updated = jdbcTemplate.batchUpdate(ASSIGN_RIDE_SQL, rideArgs);
+
+        List<Object[]> driverArgs = new ArrayList<>(driverIds.size());
+        for (int i = 0; i < driverIds.size(); i++) {
+            if (updated[i] > 0) {
+                driverArgs.add(new Object[]{now, driverIds.get(i)});
+            }
+        }
+        if (!driverArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(DRIVER_IN_RIDE_SQL, driverArgs);
+        }
+
+        List<RideEvent> events = new ArrayList<>();
+        for (int i = 0; i < rides.size(); i++) {
+            if (updated[i] > 0) {
+                Ride ride = rides.get(i);
+                ride.setDriverId(driverIds.get(i));
+                ride.setStatus(RideStatus.ASSIGNED);
+                events.add(RideService.toEvent(ride, RideEventType.UPDATED));
+            }
+        }
+        rideEventOutbox.appendAll(events);
+        return updated;
+    }
+
+    private int cancelInBulk(List<Ride> rides) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = new ArrayList<>(rides.size());
+        for (Ride ride : rides) {
+            args.add(new Object[]{now, ride.getId()});
+        }
+        int[] updated = jdbcTemplate.batchUpdate(CANCEL_RIDE_SQL, args);
+
+        List<RideEvent> events = new ArrayList<>();
+        for (int i = 0; i < rides.size(); i++) {
+            if (updated[i] > 0) {
+                Ride ride = rides.get(i);
+                ride.setStatus(RideStatus.CANCELLED);
+                events.add(RideService.toEvent(ride, RideEventType.CANCELLED));
+            }
+        }
+        rideEventOutbox.appendAll(events);
+        return events.size();
+    }
+}
@@ -0,0 +1,111 @@
+package com.uberbackend.dispatch;
+
+import java.util.Arrays;
+
+/**
+ * Minimum-cost bipartite assignment (Hungarian method with potentials, O(n^2 m)).
+ *
+ * Works on rectangular matrices: every row is matched to a distinct column when there are at
+ * least as many columns as rows, otherwise every column gets a distinct row. Pairs that must not
+ * be matched should carry {@link #FORBIDDEN}; they are reported as unassigned.
+ */
+public final class HungarianAssignment {
+
+    public static final double FORBIDDEN = 1e9;
+
+    private HungarianAssignment() {
+    }
+
+    /**
+     * @return for every row the assigned column, or -1 if the row stays unassigned
+     */
+    public static int[] solve(double[][] cost) {
+        int rows = cost.length;
+        int cols = rows == 0 ? 0 : cost[0].length;
+        int[] rowToCol = new int[rows];
+        Arrays.fill(rowToCol, -1);
+        if (rows == 0 || cols == 0) {
+            return rowToCol;
+        }
+
+        if (rows <= cols) {
+            int[] colToRow = solveWide(cost, rows, cols, false);
+            for (int j = 0; j < cols; j++) {
+                if (colToRow[j] >= 0) {
+                    rowToCol[colToRow[j]] = j;
+                }
+            }
+        } else {
+            int[] rowOfTransposed = solveWide(cost, cols, rows, true);
+            for (int i = 0; i < rows; i++) {
+                if (rowOfTransposed[i] >= 0) {
+                    rowToCol[i] = rowOfTransposed[i];
+                }
+            }
+        }
+
+        for (int i = 0; i < rows; i++) {
+            if (rowToCol[i] >= 0 && cost[i][rowToCol[i]] >= FORBIDDEN) {
+                rowToCol[i] = -1;
+            }
+        }
+        return rowToCol;
+    }
+
+    // n <= m; returns for each of the m columns the matched row (or -1)
+    private static int[] solveWide(double[][] cost, int n, int m, boolean transposed) {
+        double[] u = new double[n + 1];
+        double[] v = new double[m + 1];
+        int[] p = new int[m + 1];
+        int[] way = new int[m + 1];
+        double[] minv = new double[m + 1];
+        boolean[] used = new boolean[m + 1];
+
+        for (int i = 1; i <= n; i++) {
+            p[0] = i;
+            int j0 = 0;
+            Arrays.fill(minv, Double.POSITIVE_INFINITY);
+            Arrays.fill(used, false);
+            do {
+                used[j0] = true;
+                int i0 = p[j0];
+                double delta = Double.POSITIVE_INFINITY;
+                int j1 = 0;
+                for (int j = 1; j <= m; j++) {
+                    if (!used[j]) {
+                        double c = transposed ? cost[j - 1][i0 - 1] : cost[i0 - 1][j - 1];
+                        double cur = c - u[i0] - v[j];
+                        if (cur < minv[j]) {
+                            minv[j] = cur;
+                            way[j] = j0;
+                        }
+                        if (minv[j] < delta) {
+                            delta = minv[j];
+                            j1 = j;
+                        }
+                    }
+                }
+                for (int j = 0; j <= m; j++) {
+                    if (used[j]) {
+                        u[p[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minv[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (p[j0] != 0);
+            do {
+                int j1 = way[j0];
+                p[j0] = p[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+
+        int[] colToRow = new int[m];
+        for (int j = 1; j <= m; j++) {
+            colToRow[j - 1] = p[j] - 1;
+        }
+        return colToRow;
+    }
+}
@@ -0,0 +1,12 @@
+package com.uberbackend.dto.request;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class DriverLocationUpdateRequest extends UpdateDriverLocationRequest {
+    @NotNull(message = "Driver ID is required")
+    private Long driverId;
+}
@@ -0,0 +1,17 @@
+package com.uberbackend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchLocationUpdateResponse {
+    private int accepted;
+    private int rejected;
+    // One entry per rejected row (line number for NDJSON), capped for very large uploads
+    private List<DriverRowError> errors;
+}
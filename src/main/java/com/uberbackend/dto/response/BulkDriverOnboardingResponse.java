@@ -0,0 +1,16 @@
+package com.uberbackend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkDriverOnboardingResponse {
+    private int received;
+    private int created;
+    private List<DriverRowError> errors;
+}
@@ -1,14 +1,11 @@
 package com.uberbackend.dto.response;
 
-import com.uberbackend.model.entity.Driver;
-import com.uberbackend.model.entity.Ride;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Data
 @Builder
@@ -16,12 +13,7 @@ import java.util.stream.Collectors;
 @AllArgsConstructor
 public class DriverHistoryResponse {
     private DriverSummaryResponse driver;
+    // Most recent rides only; page on with GET /drivers/{id}/rides?cursor=nextCursor
     private List<RideResponse> rides;
-
-    public static DriverHistoryResponse from(Driver driver, List<Ride> history) {
-        return DriverHistoryResponse.builder()
-            .driver(DriverSummaryResponse.from(driver))
-            .rides(history.stream().map(RideResponse::from).collect(Collectors.toList()))
-            .build();
-    }
+    private String nextCursor;
 }
@@ -0,0 +1,16 @@
+package com.uberbackend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DriverRowError {
+    // Position of the row in the request body
+    private int index;
+    // Offending field, or null when the row as a whole was rejected
+    private String field;
+    private String message;
+}
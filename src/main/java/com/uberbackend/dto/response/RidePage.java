@@ -0,0 +1,18 @@
+package com.uberbackend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RidePage {
+    private List<RideResponse> items;
+    // Opaque; null on the last page
+    private String nextCursor;
+}
@@ -27,6 +27,7 @@ public class RideResponse {
     private String dropoffAddress;
     private BigDecimal estimatedFare;
     private BigDecimal actualFare;
+    private LocalDateTime createdAt;
 
     public static RideResponse from(Ride ride) {
         return RideResponse.builder()
@@ -42,6 +43,7 @@ public class RideResponse {
                 .dropoffAddress(ride.getDropoffAddress())
                 .estimatedFare(ride.getEstimatedFare())
                 .actualFare(ride.getActualFare())
+                .createdAt(ride.getCreatedAt())
                 .build();
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.uberbackend.event;
 
+import com.uberbackend.model.enums.RideEventType;
 import com.uberbackend.model.enums.RideStatus;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -24,5 +25,5 @@ public class RideEvent {
     private BigDecimal dropoffLongitude;
     private BigDecimal fare;
     private LocalDateTime timestamp;
-    private String eventType; // CREATED, UPDATED, COMPLETED, CANCELLED
+    private RideEventType eventType;
 }
\ No newline at end of file
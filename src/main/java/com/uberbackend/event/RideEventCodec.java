@@ -0,0 +1,185 @@
+package com.uberbackend.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uberbackend.model.enums.RideEventType;
+import com.uberbackend.model.enums.RideStatus;
+import org.apache.kafka.common.errors.SerializationException;
+import org.springframework.kafka.support.JacksonUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Compact binary encoding of {@link RideEvent} for Kafka.
+ *
+ * <pre>
+ * v1:  byte    schema version (1)
+ *      short   presence bitmask, one bit per field below in order
+ *      long    rideId, passengerId, driverId
+ *      byte    status ordinal
+ *      int x4  pickup/dropoff lat/lon, fixed point 1e-7 degrees
+ *      long    fare in cents
+ *      long    timestamp, epoch millis (UTC)
+ *      byte    eventType ordinal
+ * </pre>
+ *
+ * Absent fields take no bytes. Evolution rules: fields are only appended, each new field gets the
+ * next presence bit and the version is bumped; decoders skip trailing bytes they do not know, and
+ * enum ordinals they do not know decode to null. Payloads starting with '{' are legacy JSON events
+ * still on the topic from before the codec and are read with Jackson.
+ */
+public final class RideEventCodec {
+
+    public static final byte VERSION_1 = 1;
+    public static final byte CURRENT_VERSION = VERSION_1;
+
+    // Decimal places kept on the wire: coordinates as int 1e-7 degrees, fares as long cents
+    private static final int COORDINATE_DIGITS = 7;
+    private static final int FARE_DIGITS = 2;
+    private static final int MAX_V1_SIZE = 1 + 2 + 3 * Long.BYTES + 1 + 4 * Integer.BYTES + 2 * Long.BYTES + 1;
+
+    private static final int RIDE_ID = 0;
+    private static final int PASSENGER_ID = 1;
+    private static final int DRIVER_ID = 2;
+    private static final int STATUS = 3;
+    private static final int PICKUP_LAT = 4;
+    private static final int PICKUP_LON = 5;
+    private static final int DROPOFF_LAT = 6;
+    private static final int DROPOFF_LON = 7;
+    private static final int FARE = 8;
+    private static final int TIMESTAMP = 9;
+    private static final int EVENT_TYPE = 10;
+
+    private static final RideStatus[] STATUSES = RideStatus.values();
+    private static final RideEventType[] EVENT_TYPES = RideEventType.values();
+    private static final ObjectMapper LEGACY_JSON = JacksonUtils.enhancedObjectMapper();
+
+    private RideEventCodec() {
+    }
+
+    public static byte[] encode(RideEvent event) {
+        ByteBuffer buffer = ByteBuffer.allocate(MAX_V1_SIZE);
+        buffer.put(CURRENT_VERSION);
+        buffer.putShort((short) 0);
+
+        int presence = 0;
+        presence |= putLong(buffer, RIDE_ID, event.getRideId());
+        presence |= putLong(buffer, PASSENGER_ID, event.getPassengerId());
+        presence |= putLong(buffer, DRIVER_ID, event.getDriverId());
+        if (event.getStatus() != null) {
+            buffer.put((byte) event.getStatus().ordinal());
+            presence |= 1 << STATUS;
+        }
+        presence |= putCoordinate(buffer, PICKUP_LAT, event.getPickupLatitude());
+        presence |= putCoordinate(buffer, PICKUP_LON, event.getPickupLongitude());
+        presence |= putCoordinate(buffer, DROPOFF_LAT, event.getDropoffLatitude());
+        presence |= putCoordinate(buffer, DROPOFF_LON, event.getDropoffLongitude());
+        if (event.getFare() != null) {
+            buffer.putLong(event.getFare().movePointRight(FARE_DIGITS).setScale(0, RoundingMode.HALF_UP).longValueExact());
+            presence |= 1 << FARE;
+        }
+        if (event.getTimestamp() != null) {
+            buffer.putLong(event.getTimestamp().toInstant(ZoneOffset.UTC).toEpochMilli());
+            presence |= 1 << TIMESTAMP;
+        }
+        if (event.getEventType() != null) {
+            buffer.put((byte) event.getEventType().ordinal());
+            presence |= 1 << EVENT_TYPE;
+        }
+
+        buffer.putShort(1, (short) presence);
+        byte[] bytes = new byte[buffer.position()];
+        buffer.flip();
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    public static RideEvent decode(byte[] data) {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        if (data[0] == '{') {
+            return decodeLegacyJson(data);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        byte version = buffer.get();
+        if (version < VERSION_1) {
+            throw new SerializationException("Unsupported RideEvent schema version: " + version);
+        }
+        // Versions above ours only append fields, so the v1 prefix is always readable
+        int presence = buffer.getShort() & 0xffff;
+
+        RideEvent event = new RideEvent();
+        if (has(presence, RIDE_ID)) {
+            event.setRideId(buffer.getLong());
+        }
+        if (has(presence, PASSENGER_ID)) {
+            event.setPassengerId(buffer.getLong());
+        }
+        if (has(presence, DRIVER_ID)) {
+            event.setDriverId(buffer.getLong());
+        }
+        if (has(presence, STATUS)) {
+            event.setStatus(lookup(STATUSES, buffer.get()));
+        }
+        if (has(presence, PICKUP_LAT)) {
+            event.setPickupLatitude(BigDecimal.valueOf(buffer.getInt(), COORDINATE_DIGITS));
+        }
+        if (has(presence, PICKUP_LON)) {
+            event.setPickupLongitude(BigDecimal.valueOf(buffer.getInt(), COORDINATE_DIGITS));
+        }
+        if (has(presence, DROPOFF_LAT)) {
+            event.setDropoffLatitude(BigDecimal.valueOf(buffer.getInt(), COORDINATE_DIGITS));
+        }
+        if (has(presence, DROPOFF_LON)) {
+            event.setDropoffLongitude(BigDecimal.valueOf(buffer.getInt(), COORDINATE_DIGITS));
+        }
+        if (has(presence, FARE)) {
+            event.setFare(BigDecimal.valueOf(buffer.getLong(), FARE_DIGITS));
+        }
+        if (has(presence, TIMESTAMP)) {
+            event.setTimestamp(LocalDateTime.ofInstant(Instant.ofEpochMilli(buffer.getLong()), ZoneOffset.UTC));
+        }
+        if (has(presence, EVENT_TYPE)) {
+            event.setEventType(lookup(EVENT_TYPES, buffer.get()));
+        }
+        return event;
+    }
+
+    private static int putLong(ByteBuffer buffer, int field, Long value) {
+        if (value == null) {
+            return 0;
+        }
+        buffer.putLong(value);
+        return 1 << field;
+    }
+
+    private static int putCoordinate(ByteBuffer buffer, int field, BigDecimal value) {
+        if (value == null) {
+            return 0;
+        }
+        buffer.putInt(value.movePointRight(COORDINATE_DIGITS).setScale(0, RoundingMode.HALF_UP).intValueExact());
+        return 1 << field;
+    }
+
+    private static boolean has(int presence, int field) {
+        return (presence & (1 << field)) != 0;
+    }
+
+    private static <E> E lookup(E[] values, byte ordinal) {
+        return ordinal >= 0 && ordinal < values.length ? values[ordinal] : null;
+    }
+
+    private static RideEvent decodeLegacyJson(byte[] data) {
+        try {
+            return LEGACY_JSON.readValue(data, RideEvent.class);
+        } catch (IOException e) {
+            throw new SerializationException("Cannot read legacy JSON RideEvent", e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.uberbackend.event;
+
+import org.apache.kafka.common.serialization.Deserializer;
+
+public class RideEventDeserializer implements Deserializer<RideEvent> {
+
+    @Override
+    public RideEvent deserialize(String topic, byte[] data) {
+        return RideEventCodec.decode(data);
+    }
+}
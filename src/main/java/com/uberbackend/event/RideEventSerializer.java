@@ -0,0 +1,11 @@
+package com.uberbackend.event;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+public class RideEventSerializer implements Serializer<RideEvent> {
+
+    @Override
+    public byte[] serialize(String topic, RideEvent event) {
+        return event == null ? null : RideEventCodec.encode(event);
+    }
+}
@@ -0,0 +1,301 @@
+package com.uberbackend.geo;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory driver location index, sharded per city.
+ *
+ * Each shard is a grid of ~1 km cells and every cell keeps its drivers in parallel
+ * primitive arrays, so a radius query is a scan over a handful of small buckets.
+ * Redis stays the durable copy of the same data (see {@link com.uberbackend.service.RedisGeoService}).
+ */
+@Component
+public class DriverGeoIndex {
+
+    static final double CELL_SIZE_DEG = 0.01;
+
+    private final Map<String, CityShard> shards = new ConcurrentHashMap<>();
+    private final Map<Long, String> driverCities = new ConcurrentHashMap<>();
+    // System.nanoTime() of the last local update/remove per driver; compute() on it serializes
+    // the writes of one driver, including those of a reload
+    private final Map<Long, Long> lastWrites = new ConcurrentHashMap<>();
+
+    public void update(Long driverId, String city, double lat, double lon) {
+        String shardKey = String.valueOf(city);
+        lastWrites.compute(driverId, (id, written) -> {
+            place(id, shardKey, lat, lon);
+            return System.nanoTime();
+        });
+    }
+
+    public void remove(Long driverId, String city) {
+        String shardKey = String.valueOf(city);
+        lastWrites.compute(driverId, (id, written) -> {
+            String known = driverCities.remove(id);
+            if (known != null && !known.equals(shardKey)) {
+                removeFromShard(known, id);
+            }
+            removeFromShard(shardKey, id);
+            return System.nanoTime();
+        });
+    }
+
+    /**
+     * Drivers of the city within {@code radiusKm} of the point, closest first.
+     */
+    public List<NearbyDriver> findWithin(String city, double lat, double lon, double radiusKm) {
+        CityShard shard = shards.get(String.valueOf(city));
+        if (shard == null) {
+            return List.of();
+        }
+        List<NearbyDriver> result = shard.findWithin(lat, lon, radiusKm);
+        result.sort(Comparator.comparingDouble(NearbyDriver::getDistanceKm));
+        return result;
+    }
+
+    /**
+     * The {@code k} drivers of the city closest to the point, closest first. The search starts at
+     * {@code initialRadiusKm} and doubles the ring while fewer than {@code k} drivers were found,
+     * up to {@code maxRadiusKm}, so the result size is bounded however dense the city is.
+     */
+    public List<NearbyDriver> findNearest(String city, double lat, double lon, int k,
+                                          double initialRadiusKm, double maxRadiusKm) {
+        CityShard shard = shards.get(String.valueOf(city));
+        if (shard == null || k <= 0) {
+            return List.of();
+        }
+        double radiusKm = Math.min(initialRadiusKm, maxRadiusKm);
+        List<NearbyDriver> found = shard.findWithin(lat, lon, radiusKm);
+        while (found.size() < k && radiusKm < maxRadiusKm && found.size() < shard.size()) {
+            radiusKm = Math.min(radiusKm * 2, maxRadiusKm);
+            found = shard.findWithin(lat, lon, radiusKm);
+        }
+        found.sort(Comparator.comparingDouble(NearbyDriver::getDistanceKm));
+        return found.size() > k ? new ArrayList<>(found.subList(0, k)) : found;
+    }
+
+    /**
+     * Merges a Redis snapshot of the city whose read began at {@code readStartedAt}
+     * ({@link System#nanoTime()}). Callers write Redis before this index, so a driver updated or
+     * removed here since then is already newer than the snapshot and keeps its local state. Every
+     * other driver takes the snapshot's position, and drivers of the city missing from it are
+     * dropped together with their city entry.
+     */
+    public void replaceCity(String city, Map<Long, double[]> positions, long readStartedAt) {
+        String shardKey = String.valueOf(city);
+        positions.forEach((driverId, pos) -> lastWrites.compute(driverId, (id, written) -> {
+            if (written == null || written - readStartedAt < 0) {
+                place(id, shardKey, pos[0], pos[1]);
+            }
+            return written;
+        }));
+        CityShard shard = shards.get(shardKey);
+        if (shard == null) {
+            return;
+        }
+        for (long driverId : shard.driverIds()) {
+            if (positions.containsKey(driverId)) {
+                continue;
+            }
+            lastWrites.compute(driverId, (id, written) -> {
+                if (written == null || written - readStartedAt < 0) {
+                    driverCities.remove(id, shardKey);
+                    shard.remove(id);
+                }
+                return written;
+            });
+        }
+    }
+
+    public int size(String city) {
+        CityShard shard = shards.get(String.valueOf(city));
+        return shard == null ? 0 : shard.size();
+    }
+
+    private void place(Long driverId, String shardKey, double lat, double lon) {
+        String previous = driverCities.put(driverId, shardKey);
+        if (previous != null && !previous.equals(shardKey)) {
+            removeFromShard(previous, driverId);
+        }
+        shards.computeIfAbsent(shardKey, k -> new CityShard()).put(driverId, lat, lon);
+    }
+
+    private void removeFromShard(String shardKey, Long driverId) {
+        CityShard shard = shards.get(shardKey);
+        if (shard != null) {
+            shard.remove(driverId);
+        }
+    }
+
+    static long cellKey(int latIdx, int lonIdx) {
+        return ((long) latIdx << 32) | (lonIdx & 0xffffffffL);
+    }
+
+    static int cellIndex(double degrees) {
+        return (int) Math.floor(degrees / CELL_SIZE_DEG);
+    }
+
+    private static final class CityShard {
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<Long, Cell> cells = new HashMap<>();
+        private final Map<Long, Long> driverCells = new HashMap<>();
+
+        void put(long driverId, double lat, double lon) {
+            long key = cellKey(cellIndex(lat), cellIndex(lon));
+            lock.writeLock().lock();
+            try {
+                Long currentKey = driverCells.get(driverId);
+                if (currentKey != null && currentKey == key) {
+                    Cell cell = cells.get(key);
+                    cell.set(cell.indexOf(driverId), lat, lon);
+                    return;
+                }
+                if (currentKey != null) {
+                    removeFromCell(currentKey, driverId);
+                }
+                cells.computeIfAbsent(key, k -> new Cell()).add(driverId, lat, lon);
+                driverCells.put(driverId, key);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(long driverId) {
+            lock.writeLock().lock();
+            try {
+                Long key = driverCells.remove(driverId);
+                if (key != null) {
+                    removeFromCell(key, driverId);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        List<NearbyDriver> findWithin(double lat, double lon, double radiusKm) {
+            int latSpan = (int) Math.ceil(radiusKm / (GeoDistance.KM_PER_DEGREE_LAT * CELL_SIZE_DEG));
+            double cosLat = Math.max(Math.cos(Math.toRadians(lat)), 0.01);
+            int lonSpan = (int) Math.ceil(radiusKm / (GeoDistance.KM_PER_DEGREE_LAT * cosLat * CELL_SIZE_DEG));
+            int latIdx = cellIndex(lat);
+            int lonIdx = cellIndex(lon);
+
+            List<NearbyDriver> result = new ArrayList<>();
+            lock.readLock().lock();
+            try {
+                long window = (2L * latSpan + 1) * (2L * lonSpan + 1);
+                if (window > cells.size()) {
+                    // Sparse shard: cheaper to walk the occupied cells than the window
+                    for (Cell cell : cells.values()) {
+                        cell.collect(lat, lon, radiusKm, result);
+                    }
+                } else {
+                    for (int i = latIdx - latSpan; i <= latIdx + latSpan; i++) {
+                        for (int j = lonIdx - lonSpan; j <= lonIdx + lonSpan; j++) {
+                            Cell cell = cells.get(cellKey(i, j));
+                            if (cell != null) {
+                                cell.collect(lat, lon, radiusKm, result);
+                            }
+                        }
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            return result;
+        }
+
+        List<Long> driverIds() {
+            lock.readLock().lock();
+            try {
+                return new ArrayList<>(driverCells.keySet());
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        int size() {
+            lock.readLock().lock();
+            try {
+                return driverCells.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private void removeFromCell(long key, long driverId) {
+            Cell cell = cells.get(key);
+            if (cell == null) {
+                return;
+            }
+            int index = cell.indexOf(driverId);
+            if (index >= 0) {
+                cell.removeAt(index);
+            }
+            if (cell.size == 0) {
+                cells.remove(key);
+            }
+        }
+    }
+
+    private static final class Cell {
+
+        private long[] ids = new long[4];
+        private double[] lats = new double[4];
+        private double[] lons = new double[4];
+        private int size;
+
+        void add(long driverId, double lat, double lon) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                lats = Arrays.copyOf(lats, capacity);
+                lons = Arrays.copyOf(lons, capacity);
+            }
+            ids[size] = driverId;
+            lats[size] = lat;
+            lons[size] = lon;
+            size++;
+        }
+
+        void set(int index, double lat, double lon) {
+            lats[index] = lat;
+            lons[index] = lon;
+        }
+
+        int indexOf(long driverId) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == driverId) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        void removeAt(int index) {
+            int last = size - 1;
+            ids[index] = ids[last];
+            lats[index] = lats[last];
+            lons[index] = lons[last];
+            size = last;
+        }
+
+        void collect(double lat, double lon, double radiusKm, List<NearbyDriver> out) {
+            for (int i = 0; i < size; i++) {
+                double distance = GeoDistance.haversineKm(lat, lon, lats[i], lons[i]);
+                if (distance <= radiusKm) {
+                    out.add(new NearbyDriver(ids[i], distance));
+                }
+            }
+        }
+    }
+}
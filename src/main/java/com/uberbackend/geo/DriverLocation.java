@@ -0,0 +1,14 @@
+package com.uberbackend.geo;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+@Value
+public class DriverLocation {
+    Long driverId;
+    String city;
+    double latitude;
+    double longitude;
+    LocalDateTime receivedAt;
+}
@@ -0,0 +1,9 @@
+package com.uberbackend.geo;
+
+import lombok.Value;
+
+@Value
+public class NearbyDriver {
+    Long driverId;
+    double distanceKm;
+}
@@ -8,7 +8,14 @@ import lombok.experimental.SuperBuilder;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "drivers")
+@Table(name = "drivers", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_drivers_phone_number", columnNames = "phone_number"),
+    @UniqueConstraint(name = "uk_drivers_license_number", columnNames = "license_number"),
+    @UniqueConstraint(name = "uk_drivers_vehicle_plate_number", columnNames = "vehicle_plate_number")
+}, indexes = {
+    @Index(name = "idx_drivers_tenant_id", columnList = "tenant_id, id"),
+    @Index(name = "idx_drivers_status", columnList = "status")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,53 @@
+package com.uberbackend.model.entity;
+
+import com.uberbackend.model.enums.RideEventType;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A ride event written in the same transaction as the state change it describes, waiting to be
+ * relayed to Kafka. The payload is the {@code RideEventCodec} encoding, so the relay publishes it
+ * without re-reading the ride.
+ */
+@Entity
+@Table(name = "ride_event_outbox", indexes = {
+    @Index(name = "idx_outbox_unpublished", columnList = "published_at, id")
+    // The partial idx_outbox_pending for the relay's batch select lives only in db/migration
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long rideId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private RideEventType eventType;
+
+    @Column(nullable = false, columnDefinition = "bytea")
+    private byte[] payload;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column
+    private LocalDateTime publishedAt;
+
+    @Column
+    private Integer kafkaPartition;
+
+    @Column
+    private Long kafkaOffset;
+}
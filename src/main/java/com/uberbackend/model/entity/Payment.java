@@ -12,7 +12,8 @@ import java.time.LocalDateTime;
 @Table(name = "payments", indexes = {
     @Index(name = "idx_payment_passenger_status", columnList = "passenger_id, status"),
     @Index(name = "idx_payment_ride", columnList = "passenger_id,ride_id"),
-    @Index(name = "idx_payment_idempotency", columnList = "idempotency_key", unique = true)
+    @Index(name = "idx_payment_idempotency", columnList = "idempotency_key", unique = true),
+    @Index(name = "idx_payment_status_created", columnList = "status, created_at, id")
 })
 @Getter
 @Setter
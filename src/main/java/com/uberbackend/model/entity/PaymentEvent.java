@@ -0,0 +1,48 @@
+package com.uberbackend.model.entity;
+
+import com.uberbackend.model.enums.PaymentStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One state a payment entered, in the append-only payment event log. The {@code payments} row only
+ * holds the initial and terminal states; everything in between lives here. Written by
+ * {@code PaymentStateMachine}. A payment enters each state once, except PROCESSING: an expired claim
+ * is taken over as the next attempt.
+ */
+@Entity
+@Table(name = "payment_events", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_payment_events_payment_status", columnNames = {"payment_id", "status", "attempt"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long paymentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private PaymentStatus status;
+
+    @Column(nullable = false)
+    private Integer attempt;
+
+    @Column(length = 100)
+    private String transactionId;
+
+    @Column(length = 500)
+    private String failureReason;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -8,7 +8,12 @@ import lombok.experimental.SuperBuilder;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "rides")
+@Table(name = "rides", indexes = {
+    // Keyset pagination of a driver's history, newest first
+    @Index(name = "idx_rides_driver_created", columnList = "driver_id, created_at, id"),
+    @Index(name = "idx_rides_status_city", columnList = "status, city, created_at, id")
+    // Partial indexes (idempotency key, pending rides) live only in db/migration
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -2,13 +2,18 @@ package com.uberbackend.model.entity;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "tenants")
+@Table(name = "tenants", indexes = {
+    // Identity lookup at login
+    @Index(name = "idx_tenants_contact_email", columnList = "contact_email"),
+    @Index(name = "idx_tenants_name", columnList = "name")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
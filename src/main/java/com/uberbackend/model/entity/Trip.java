@@ -9,7 +9,9 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "trips")
+@Table(name = "trips", indexes = {
+    @Index(name = "idx_trips_ride_id", columnList = "ride_id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,18 @@
+package com.uberbackend.model.enums;
+
+/**
+ * Kinds of {@link com.uberbackend.event.RideEvent}. The binary Kafka codec stores the ordinal,
+ * so constants are append-only: never reorder or remove one.
+ */
+public enum RideEventType {
+    CREATED,
+    UPDATED,
+    COMPLETED,
+    CANCELLED,
+    PAYMENT_COMPLETED,
+    PAYMENT_FAILED;
+
+    public boolean isPayment() {
+        return this == PAYMENT_COMPLETED || this == PAYMENT_FAILED;
+    }
+}
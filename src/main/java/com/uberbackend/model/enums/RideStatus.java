@@ -2,6 +2,10 @@ package com.uberbackend.model.enums;
 
 import lombok.Getter;
 
+/**
+ * The binary Kafka codec ({@link com.uberbackend.event.RideEventCodec}) stores the ordinal, so
+ * constants are append-only: never reorder or remove one.
+ */
 @Getter
 public enum RideStatus {
     PENDING,
@@ -0,0 +1,14 @@
+package com.uberbackend.payment;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+@Value
+public class ChargeRequest {
+    Long paymentId;
+    BigDecimal amount;
+    String paymentMethod;
+    // Sent with every attempt so a gateway that supports it can deduplicate retries
+    String idempotencyKey;
+}
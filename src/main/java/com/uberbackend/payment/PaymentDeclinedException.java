@@ -0,0 +1,8 @@
+package com.uberbackend.payment;
+
+public class PaymentDeclinedException extends RuntimeException {
+
+    public PaymentDeclinedException(String message) {
+        super(message);
+    }
+}
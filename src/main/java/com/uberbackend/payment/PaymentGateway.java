@@ -0,0 +1,21 @@
+package com.uberbackend.payment;
+
+/**
+ * A card/wallet processor that payments are charged through. Implementations block until the
+ * processor answers; {@code PaymentProcessor} bounds how many calls run at once and for how long.
+ */
+public interface PaymentGateway {
+
+    /**
+     * Name used to select the gateway ({@code payment.gateway.provider}) and to tag its limiter.
+     */
+    String name();
+
+    /**
+     * Charges the payment and returns the processor's transaction id.
+     *
+     * @throws PaymentDeclinedException when the charge is refused; retrying will not help
+     * @throws PaymentGatewayException on transient errors that may succeed on retry
+     */
+    String charge(ChargeRequest request) throws InterruptedException;
+}
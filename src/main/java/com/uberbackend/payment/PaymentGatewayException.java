@@ -0,0 +1,8 @@
+package com.uberbackend.payment;
+
+public class PaymentGatewayException extends RuntimeException {
+
+    public PaymentGatewayException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,43 @@
+package com.uberbackend.payment;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Behaviour of {@link SimulatedPaymentGateway} under {@code payment.gateway.simulator}.
+ * Rates are probabilities per call in [0, 1].
+ */
+@ConfigurationProperties(prefix = "payment.gateway.simulator")
+@Getter
+@Setter
+public class SimulatedGatewayProperties {
+
+    private LatencyModel latency = LatencyModel.FIXED;
+
+    // FIXED: every call takes this long
+    private long fixedMs = 100;
+
+    // LOG_NORMAL and LONG_TAIL body: median and spread (sigma of the underlying normal)
+    private double medianMs = 80;
+    private double sigma = 0.5;
+
+    // LONG_TAIL: this share of calls takes tailMinMs..tailMaxMs instead
+    private double tailRate = 0.01;
+    private long tailMinMs = 1000;
+    private long tailMaxMs = 5000;
+
+    // Transient 5xx-style errors, hard declines, and calls that never answer
+    private double failureRate = 0.0;
+    private double declineRate = 0.0;
+    private double hangRate = 0.0;
+
+    // Fixed seed for reproducible runs; 0 draws a fresh seed
+    private long seed = 0;
+
+    public enum LatencyModel {
+        FIXED,
+        LOG_NORMAL,
+        LONG_TAIL
+    }
+}
@@ -0,0 +1,78 @@
+package com.uberbackend.payment;
+
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for a real processor, for local runs and load tests. Each call sleeps for a
+ * latency drawn from the configured model, then answers, fails, declines or never answers
+ * according to the configured rates. Sleeping on a virtual thread costs no carrier thread, so
+ * thousands of simulated calls can be in flight on one machine.
+ */
+public class SimulatedPaymentGateway implements PaymentGateway {
+
+    public static final String NAME = "simulator";
+
+    private static final long SEED_STEP = 0x9E3779B97F4A7C15L;
+
+    private final SimulatedGatewayProperties properties;
+    private final AtomicLong nextSeed;
+
+    public SimulatedPaymentGateway(SimulatedGatewayProperties properties) {
+        this.properties = properties;
+        this.nextSeed = new AtomicLong(properties.getSeed() != 0 ? properties.getSeed() : System.nanoTime());
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public String charge(ChargeRequest request) throws InterruptedException {
+        SplittableRandom random = split();
+        double outcome = random.nextDouble();
+        if (outcome < properties.getHangRate()) {
+            // Never answers; only the caller's timeout (interrupt) ends the call
+            Thread.sleep(Long.MAX_VALUE);
+        }
+        Thread.sleep(sampleLatencyMs(properties, random));
+
+        outcome -= properties.getHangRate();
+        if (outcome >= 0 && outcome < properties.getFailureRate()) {
+            throw new PaymentGatewayException("Simulated gateway error for payment " + request.getPaymentId());
+        }
+        outcome -= properties.getFailureRate();
+        if (outcome >= 0 && outcome < properties.getDeclineRate()) {
+            throw new PaymentDeclinedException("Simulated decline for payment " + request.getPaymentId());
+        }
+        return "sim_" + UUID.randomUUID();
+    }
+
+    static long sampleLatencyMs(SimulatedGatewayProperties properties, SplittableRandom random) {
+        return switch (properties.getLatency()) {
+            case FIXED -> properties.getFixedMs();
+            case LOG_NORMAL -> logNormal(properties, random);
+            case LONG_TAIL -> random.nextDouble() < properties.getTailRate()
+                ? random.nextLong(properties.getTailMinMs(), properties.getTailMaxMs() + 1)
+                : logNormal(properties, random);
+        };
+    }
+
+    private static long logNormal(SimulatedGatewayProperties properties, SplittableRandom random) {
+        return Math.round(properties.getMedianMs() * Math.exp(properties.getSigma() * gaussian(random)));
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        // Box-Muller; SplittableRandom has no nextGaussian
+        double u1 = 1.0 - random.nextDouble();
+        double u2 = random.nextDouble();
+        return Math.sqrt(-2.0 * Math.log(u1)) * Math.cos(2.0 * Math.PI * u2);
+    }
+
+    private SplittableRandom split() {
+        // One generator per call, seeded from a shared sequence: no contention, and a fixed seed replays the same run
+        return new SplittableRandom(nextSeed.getAndAdd(SEED_STEP));
+    }
+}
@@ -1,9 +1,11 @@
 package com.uberbackend.repository;
 
+import com.uberbackend.dto.response.DriverSummaryResponse;
 import com.uberbackend.model.entity.Driver;
 import com.uberbackend.model.enums.DriverStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -18,4 +20,21 @@ public interface DriverRepository extends JpaRepository<Driver, Long> {
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT d FROM Driver d WHERE d.id = :id")
     Optional<Driver> findByIdAndTenantIdWithLock(@Param("id") Long id);
+
+    @Query("SELECT new com.uberbackend.dto.response.DriverSummaryResponse(d.id, d.tenantId, d.name, " +
+           "d.phoneNumber, d.vehicleModel, d.status, d.city) FROM Driver d WHERE d.id = :id")
+    Optional<DriverSummaryResponse> findSummaryById(@Param("id") Long id);
+
+    // Any one driver of the tenant, via idx_drivers_tenant_id
+    Optional<Driver> findFirstByTenantIdOrderByIdAsc(Long tenantId);
+
+    // Single index-backed probe across the three unique columns
+    boolean existsByPhoneNumberOrLicenseNumberOrVehiclePlateNumber(String phoneNumber, String licenseNumber,
+                                                                  String vehiclePlateNumber);
+
+    List<Driver> findByStatusIn(List<DriverStatus> statuses);
+
+    @Modifying
+    @Query("UPDATE Driver d SET d.status = :status, d.version = d.version + 1, d.updatedAt = CURRENT_TIMESTAMP WHERE d.id = :id")
+    int updateStatus(@Param("id") Long id, @Param("status") DriverStatus status);
 }
\ No newline at end of file
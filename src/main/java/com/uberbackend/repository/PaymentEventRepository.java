@@ -0,0 +1,14 @@
+package com.uberbackend.repository;
+
+import com.uberbackend.model.entity.PaymentEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PaymentEventRepository extends JpaRepository<PaymentEvent, Long> {
+
+    // Oldest first, via uk_payment_events_payment_status
+    List<PaymentEvent> findByPaymentIdOrderByIdAsc(Long paymentId);
+}
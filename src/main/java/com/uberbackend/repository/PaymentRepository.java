@@ -1,13 +1,34 @@
 package com.uberbackend.repository;
 
 import com.uberbackend.model.entity.Payment;
+import com.uberbackend.model.enums.PaymentStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
 
+    // A worker has taken the payment (in any attempt): its PROCESSING state is only in the payment event log
+    String CLAIMED = "EXISTS (SELECT e.id FROM PaymentEvent e WHERE e.paymentId = p.id " +
+           "AND e.status = com.uberbackend.model.enums.PaymentStatus.PROCESSING) ";
+
     Optional<Payment> findByIdempotencyKey(String idempotencyKey);
-}
\ No newline at end of file
+
+    // The one write to the row after its insert: straight from PENDING to the outcome, once claimed
+    @Modifying
+    @Query("UPDATE Payment p SET p.status = :status, p.transactionId = :transactionId, " +
+           "p.failureReason = :failureReason, p.processedAt = :processedAt, " +
+           "p.version = p.version + 1, p.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE p.id = :id AND p.status = com.uberbackend.model.enums.PaymentStatus.PENDING AND " + CLAIMED)
+    int finishIfClaimed(@Param("id") Long id,
+                        @Param("status") PaymentStatus status,
+                        @Param("transactionId") String transactionId,
+                        @Param("failureReason") String failureReason,
+                        @Param("processedAt") LocalDateTime processedAt);
+}
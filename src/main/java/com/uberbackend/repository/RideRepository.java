@@ -1,25 +1,96 @@
 package com.uberbackend.repository;
 
+import com.uberbackend.dto.response.RideResponse;
 import com.uberbackend.model.entity.Ride;
+import jakarta.persistence.QueryHint;
 import jakarta.validation.constraints.NotBlank;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import jakarta.persistence.LockModeType;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface RideRepository extends JpaRepository<Ride, Long> {
 
+    // Read-side projection: selects only the response columns and skips entity hydration
+    String RIDE_RESPONSE = "SELECT new com.uberbackend.dto.response.RideResponse(r.id, r.passengerId, r.driverId, " +
+           "r.status, r.pickupLatitude, r.pickupLongitude, r.dropoffLatitude, r.dropoffLongitude, " +
+           "r.pickupAddress, r.dropoffAddress, r.estimatedFare, r.actualFare, r.createdAt) ";
+    String TENANT_RIDES = "FROM Ride r, Driver d WHERE r.driverId = d.id AND d.tenantId = :tenantId ";
+    // Rows strictly after the cursor in (createdAt DESC, id DESC) order; the first bound lets the index range-scan
+    String BEFORE_CURSOR = "AND r.createdAt <= :createdAt " +
+           "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) ";
+    String NEWEST_FIRST = "ORDER BY r.createdAt DESC, r.id DESC";
+    String PENDING_IN_CITY = "FROM Ride r WHERE r.status = com.uberbackend.model.enums.RideStatus.PENDING AND r.city = :city ";
+    // Rows strictly after the cursor in (createdAt, id) order
+    String AFTER_CURSOR = "AND r.createdAt >= :createdAt " +
+           "AND (r.createdAt > :createdAt OR (r.createdAt = :createdAt AND r.id > :id)) ";
+    String OLDEST_FIRST = "ORDER BY r.createdAt, r.id";
+
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT r FROM Ride r WHERE r.id = :id")
     Optional<Ride> findByIdAndTenantIdWithLock(@Param("id") Long id);
 
     Optional<Ride> findByIdempotencyKeyAndPassengerId(String idempotencyKey, @NotBlank(message = "Passenger ID is required") Long passengerId);
 
-    List<Ride> findByDriverIdOrderByCreatedAtDesc(Long driverId);
+    @Query(RIDE_RESPONSE + "FROM Ride r WHERE r.id = :id")
+    Optional<RideResponse> findResponseById(@Param("id") Long id);
+
+    @Query(RIDE_RESPONSE + "FROM Ride r WHERE r.driverId = :driverId " + NEWEST_FIRST)
+    List<RideResponse> findResponsesByDriverId(@Param("driverId") Long driverId, Pageable pageable);
+
+    @Query(RIDE_RESPONSE + "FROM Ride r WHERE r.driverId = :driverId " + BEFORE_CURSOR + NEWEST_FIRST)
+    List<RideResponse> findResponsesByDriverIdBefore(@Param("driverId") Long driverId,
+                                                     @Param("createdAt") LocalDateTime createdAt,
+                                                     @Param("id") Long id,
+                                                     Pageable pageable);
+
+    @Query(RIDE_RESPONSE + TENANT_RIDES + NEWEST_FIRST)
+    List<RideResponse> findResponsesByTenantId(@Param("tenantId") Long tenantId, Pageable pageable);
+
+    @Query(RIDE_RESPONSE + TENANT_RIDES + BEFORE_CURSOR + NEWEST_FIRST)
+    List<RideResponse> findResponsesByTenantIdBefore(@Param("tenantId") Long tenantId,
+                                                     @Param("createdAt") LocalDateTime createdAt,
+                                                     @Param("id") Long id,
+                                                     Pageable pageable);
+
+    // Server-side cursor for exports: must be consumed inside a transaction and closed
+    @Query(RIDE_RESPONSE + TENANT_RIDES + NEWEST_FIRST)
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<RideResponse> streamResponsesByTenantId(@Param("tenantId") Long tenantId);
+
+    // Rides without a city cannot be matched through the per-city geo index; they are left to expire
+    @Query("SELECT DISTINCT r.city FROM Ride r " +
+           "WHERE r.status = com.uberbackend.model.enums.RideStatus.PENDING AND r.city IS NOT NULL")
+    List<String> findPendingRideCities();
+
+    @Query("SELECT r " + PENDING_IN_CITY + OLDEST_FIRST)
+    List<Ride> findPendingRidesByCity(@Param("city") String city, Pageable pageable);
+
+    @Query("SELECT r " + PENDING_IN_CITY + AFTER_CURSOR + OLDEST_FIRST)
+    List<Ride> findPendingRidesByCityAfter(@Param("city") String city,
+                                           @Param("createdAt") LocalDateTime createdAt,
+                                           @Param("id") Long id,
+                                           Pageable pageable);
+
+    @Query("SELECT r FROM Ride r WHERE r.status = com.uberbackend.model.enums.RideStatus.PENDING " +
+           "AND r.createdAt < :createdBefore " + OLDEST_FIRST)
+    List<Ride> findPendingRidesCreatedBefore(@Param("createdBefore") LocalDateTime createdBefore, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Ride r SET r.driverId = :driverId, r.status = com.uberbackend.model.enums.RideStatus.ASSIGNED, " +
+           "r.version = r.version + 1, r.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE r.id = :id AND r.status = com.uberbackend.model.enums.RideStatus.PENDING")
+    int assignDriverIfPending(@Param("id") Long id, @Param("driverId") Long driverId);
 }
\ No newline at end of file
@@ -0,0 +1,316 @@
+package com.uberbackend.service;
+
+import com.uberbackend.geo.DriverGeoIndex;
+import com.uberbackend.geo.DriverLocation;
+import com.uberbackend.model.entity.Driver;
+import com.uberbackend.model.enums.DriverStatus;
+import com.uberbackend.repository.DriverRepository;
+import lombok.RequiredArgsConstructor;
+import org.redisson.api.RBatch;
+import org.redisson.api.RFuture;
+import org.redisson.api.RMap;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Driver availability kept in Redis as a small state hash per driver ({@code drivers:state:<id>}),
+ * next to the city geo set. Claiming a driver for a ride is a single Lua compare-and-set that flips
+ * ONLINE to RESERVED and drops the driver from the geo set, so matching never takes a database lock;
+ * the drivers row catches up asynchronously through {@link DriverStatusWriter}.
+ */
+@Service
+@RequiredArgsConstructor
+public class DriverAvailabilityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DriverAvailabilityService.class);
+    private static final String STATE_KEY_PREFIX = "drivers:state:";
+    private static final String GEO_KEY_PREFIX = RedisGeoService.geoKey("");
+
+    static final String ONLINE = "ONLINE";
+    static final String RESERVED = "RESERVED";
+    static final String OFFLINE = "OFFLINE";
+
+    // The state hash also keeps the city of the driver's last location ('city'), so claims and
+    // releases use the geo set the driver is actually in; the city of the drivers row only
+    // catches up through the write-behind snapshot. Their geo key is therefore built in the script.
+
+    // KEYS[1] = state hash; ARGV[1] = member, ARGV[2] = geo key prefix, ARGV[3] = fallback city.
+    // Returns the city the driver was claimed in.
+    private static final String CLAIM_SCRIPT =
+        "if redis.call('HGET', KEYS[1], 'status') ~= 'ONLINE' then return false end " +
+        "local city = redis.call('HGET', KEYS[1], 'city') or ARGV[3] " +
+        "local geo = ARGV[2] .. city " +
+        "local pos = redis.call('GEOPOS', geo, ARGV[1])[1] " +
+        "if pos then redis.call('HSET', KEYS[1], 'lon', pos[1], 'lat', pos[2]) end " +
+        "redis.call('HSET', KEYS[1], 'status', 'RESERVED') " +
+        "redis.call('ZREM', geo, ARGV[1]) " +
+        "return city";
+
+    // KEYS[1] = state hash; ARGV[1] = member, ARGV[2] = geo key prefix, ARGV[3] = fallback city.
+    // Returns {lon, lat, city} when re-added.
+    private static final String RELEASE_SCRIPT =
+        "if redis.call('HGET', KEYS[1], 'status') ~= 'RESERVED' then return nil end " +
+        "redis.call('HSET', KEYS[1], 'status', 'ONLINE') " +
+        "local city = redis.call('HGET', KEYS[1], 'city') or ARGV[3] " +
+        "local lon = redis.call('HGET', KEYS[1], 'lon') " +
+        "local lat = redis.call('HGET', KEYS[1], 'lat') " +
+        "if not lon or not lat then return {} end " +
+        "redis.call('GEOADD', ARGV[2] .. city, lon, lat, ARGV[1]) " +
+        "return {lon, lat, city}";
+
+    // KEYS[1] = state hash, KEYS[2] = geo set; ARGV[1] = member, ARGV[2] = lon, ARGV[3] = lat,
+    // ARGV[4] = city, ARGV[5] = geo key prefix. A driver who changed city leaves the old geo set.
+    // Ids without a status (never seeded or set, so not a known driver) are skipped.
+    private static final String LOCATION_SCRIPT =
+        "local status = redis.call('HGET', KEYS[1], 'status') " +
+        "if not status then return 0 end " +
+        "local previous = redis.call('HGET', KEYS[1], 'city') " +
+        "redis.call('HSET', KEYS[1], 'lon', ARGV[2], 'lat', ARGV[3], 'city', ARGV[4]) " +
+        "if previous and previous ~= ARGV[4] then redis.call('ZREM', ARGV[5] .. previous, ARGV[1]) end " +
+        "if status ~= 'ONLINE' then return 0 end " +
+        "redis.call('GEOADD', KEYS[2], ARGV[2], ARGV[3], ARGV[1]) " +
+        "return 1";
+
+    // KEYS[1] = geo set, KEYS[2..n+1] = state hashes; ARGV[1] = city, ARGV[2] = geo key prefix,
+    // then (member, lon, lat) triples. Returns the members that were ONLINE and added to the geo set;
+    // ids without a status are skipped as in LOCATION_SCRIPT.
+    private static final String LOCATION_BATCH_SCRIPT =
+        "local added = {} " +
+        "for i = 3, #ARGV, 3 do " +
+        "  local state = KEYS[i / 3 + 1] " +
+        "  local status = redis.call('HGET', state, 'status') " +
+        "  if status then " +
+        "    local previous = redis.call('HGET', state, 'city') " +
+        "    redis.call('HSET', state, 'lon', ARGV[i + 1], 'lat', ARGV[i + 2], 'city', ARGV[1]) " +
+        "    if previous and previous ~= ARGV[1] then redis.call('ZREM', ARGV[2] .. previous, ARGV[i]) end " +
+        "    if status == 'ONLINE' then " +
+        "      redis.call('GEOADD', KEYS[1], ARGV[i + 1], ARGV[i + 2], ARGV[i]) " +
+        "      added[#added + 1] = ARGV[i] " +
+        "    end " +
+        "  end " +
+        "end " +
+        "return added";
+
+    private static final int LOCATION_BATCH_SIZE = 500;
+
+    private final RedissonClient redissonClient;
+    private final DriverGeoIndex driverGeoIndex;
+    private final DriverRepository driverRepository;
+    private final DriverStatusWriter driverStatusWriter;
+
+    /**
+     * Atomically reserves an ONLINE driver and removes them from the geo set of the city of their
+     * last location. {@code city} is only used for a driver with no location in Redis yet.
+     *
+     * @return false when the driver is not ONLINE (already reserved, offline or unknown)
+     */
+    public boolean tryClaim(Long driverId, String city) {
+        String claimedCity = script().eval(RScript.Mode.READ_WRITE, CLAIM_SCRIPT, RScript.ReturnType.VALUE,
+            List.<Object>of(stateKey(driverId)), driverId.toString(), GEO_KEY_PREFIX, String.valueOf(city));
+        if (claimedCity == null) {
+            return false;
+        }
+        driverGeoIndex.remove(driverId, claimedCity);
+        return true;
+    }
+
+    /**
+     * Persists a successful claim once the surrounding transaction commits, or gives the
+     * driver back if it rolls back.
+     */
+    public void confirmClaim(Long driverId, String city) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            driverStatusWriter.writeStatus(driverId, DriverStatus.IN_RIDE);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    driverStatusWriter.writeStatus(driverId, DriverStatus.IN_RIDE);
+                } else {
+                    release(driverId, city);
+                }
+            }
+        });
+    }
+
+    /**
+     * Puts a RESERVED driver back to ONLINE at their last known position, in the city of that
+     * position; {@code city} is only used for a driver with no location in Redis.
+     */
+    public void release(Long driverId, String city) {
+        List<Object> position = script().eval(RScript.Mode.READ_WRITE, RELEASE_SCRIPT, RScript.ReturnType.MULTI,
+            List.<Object>of(stateKey(driverId)), driverId.toString(), GEO_KEY_PREFIX, String.valueOf(city));
+        if (position != null && position.size() == 3) {
+            driverGeoIndex.update(driverId, position.get(2).toString(),
+                Double.parseDouble(position.get(1).toString()),
+                Double.parseDouble(position.get(0).toString()));
+        }
+        logger.debug("Released driver: driverId={}", driverId);
+    }
+
+    /**
+     * Releases the driver once the surrounding transaction commits.
+     */
+    public void releaseAfterCommit(Long driverId, String city) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            release(driverId, city);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                release(driverId, city);
+            }
+        });
+    }
+
+    /**
+     * Records a location and adds the driver to the geo set only if they are ONLINE, so a
+     * reserved driver is never put back into matching by a late GPS ping.
+     */
+    public boolean updateLocationIfAvailable(Long driverId, String city, double lat, double lon) {
+        Long added = script().eval(RScript.Mode.READ_WRITE, LOCATION_SCRIPT, RScript.ReturnType.INTEGER,
+            List.<Object>of(stateKey(driverId), RedisGeoService.geoKey(city)),
+            driverId.toString(), Double.toString(lon), Double.toString(lat), String.valueOf(city), GEO_KEY_PREFIX);
+        if (added == null || added == 0L) {
+            return false;
+        }
+        driverGeoIndex.update(driverId, city, lat, lon);
+        return true;
+    }
+
+    /**
+     * Batched form of {@link #updateLocationIfAvailable}: one script per city (chunked), all sent
+     * in a single Redis pipeline.
+     *
+     * @return number of drivers that were ONLINE and are now in the geo sets
+     */
+    public int updateLocationsIfAvailable(Map<String, List<DriverLocation>> locationsByCity) {
+        RBatch batch = redissonClient.createBatch();
+        List<RFuture<List<Object>>> results = new ArrayList<>();
+        List<List<DriverLocation>> chunks = new ArrayList<>();
+        locationsByCity.forEach((city, locations) -> {
+            for (int from = 0; from < locations.size(); from += LOCATION_BATCH_SIZE) {
+                List<DriverLocation> chunk = locations.subList(from, Math.min(from + LOCATION_BATCH_SIZE, locations.size()));
+                List<Object> keys = new ArrayList<>(chunk.size() + 1);
+                Object[] args = new Object[2 + chunk.size() * 3];
+                keys.add(RedisGeoService.geoKey(city));
+                args[0] = String.valueOf(city);
+                args[1] = GEO_KEY_PREFIX;
+                for (int i = 0; i < chunk.size(); i++) {
+                    DriverLocation location = chunk.get(i);
+                    keys.add(stateKey(location.getDriverId()));
+                    args[2 + i * 3] = location.getDriverId().toString();
+                    args[2 + i * 3 + 1] = Double.toString(location.getLongitude());
+                    args[2 + i * 3 + 2] = Double.toString(location.getLatitude());
+                }
+                results.add(batch.getScript(StringCodec.INSTANCE).evalAsync(
+                    RScript.Mode.READ_WRITE, LOCATION_BATCH_SCRIPT, RScript.ReturnType.MULTI, keys, args));
+                chunks.add(chunk);
+            }
+        });
+        if (chunks.isEmpty()) {
+            return 0;
+        }
+        batch.execute();
+
+        int added = 0;
+        for (int c = 0; c < chunks.size(); c++) {
+            Map<String, DriverLocation> byMember = new HashMap<>();
+            for (DriverLocation location : chunks.get(c)) {
+                byMember.put(location.getDriverId().toString(), location);
+            }
+            for (Object member : results.get(c).toCompletableFuture().join()) {
+                DriverLocation location = byMember.get(member.toString());
+                driverGeoIndex.update(location.getDriverId(), location.getCity(), location.getLatitude(), location.getLongitude());
+                added++;
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Mirrors an explicit status change once the surrounding transaction commits, so a rolled
+     * back change never reaches matching; going offline also removes the driver from matching.
+     */
+    public void setStatus(Long driverId, String city, DriverStatus status, Double lat, Double lon) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            applyStatus(driverId, city, status, lat, lon);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                applyStatus(driverId, city, status, lat, lon);
+            }
+        });
+    }
+
+    private void applyStatus(Long driverId, String city, DriverStatus status, Double lat, Double lon) {
+        RMap<String, String> state = redissonClient.getMap(stateKey(driverId), StringCodec.INSTANCE);
+        state.fastPut("status", toState(status));
+        if (status == DriverStatus.ONLINE && lat != null && lon != null) {
+            updateLocationIfAvailable(driverId, city, lat, lon);
+        } else if (status != DriverStatus.ONLINE) {
+            String lastCity = state.getOrDefault("city", city);
+            redissonClient.getGeo(RedisGeoService.geoKey(lastCity)).remove(driverId.toString());
+            driverGeoIndex.remove(driverId, lastCity);
+        }
+    }
+
+    /**
+     * Seeds state hashes for drivers that were online before this service started tracking
+     * availability in Redis. Existing hashes are left alone.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedFromDatabase() {
+        try {
+            RBatch batch = redissonClient.createBatch();
+            int seeded = 0;
+            for (Driver driver : driverRepository.findByStatusIn(List.of(DriverStatus.ONLINE, DriverStatus.IN_RIDE))) {
+                batch.getMap(stateKey(driver.getId()), StringCodec.INSTANCE)
+                    .fastPutIfAbsentAsync("status", toState(driver.getStatus()));
+                if (driver.getCity() != null) {
+                    batch.getMap(stateKey(driver.getId()), StringCodec.INSTANCE)
+                        .fastPutIfAbsentAsync("city", driver.getCity());
+                }
+                seeded++;
+            }
+            batch.execute();
+            logger.info("Seeded driver availability: drivers={}", seeded);
+        } catch (Exception e) {
+            logger.warn("Failed to seed driver availability: {}", e.getMessage());
+        }
+    }
+
+    private RScript script() {
+        return redissonClient.getScript(StringCodec.INSTANCE);
+    }
+
+    private static String toState(DriverStatus status) {
+        return switch (status) {
+            case ONLINE -> ONLINE;
+            case IN_RIDE -> RESERVED;
+            case OFFLINE -> OFFLINE;
+        };
+    }
+
+    static String stateKey(Long driverId) {
+        return STATE_KEY_PREFIX + driverId;
+    }
+}
@@ -0,0 +1,154 @@
+package com.uberbackend.service;
+
+import com.uberbackend.geo.DriverLocation;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind pipeline for driver GPS pings.
+ *
+ * Pings land in a buffer that keeps only the latest position per driver. The buffer is flushed
+ * to Redis every {@code location.ingest.flush-interval-ms} as one pipelined batch of scripts
+ * (one per city), and Postgres only receives a coarse snapshot every
+ * {@code location.ingest.snapshot-interval-ms} through a single JDBC batch that bypasses the
+ * entity lifecycle. When the buffer holds {@code max-buffered-drivers} drivers, the caller
+ * flushes inline, which keeps memory bounded and slows producers down.
+ */
+@Service
+@RequiredArgsConstructor
+public class DriverLocationIngestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DriverLocationIngestionService.class);
+
+    private static final String SNAPSHOT_SQL =
+        "UPDATE drivers SET current_latitude = ?, current_longitude = ?, city = ?, location_updated_at = ? WHERE id = ?";
+
+    private final DriverAvailabilityService driverAvailabilityService;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, DriverLocation> pendingRedis = new ConcurrentHashMap<>();
+    private final Map<Long, DriverLocation> pendingSnapshot = new ConcurrentHashMap<>();
+
+    @Value("${location.ingest.max-buffered-drivers:100000}")
+    private int maxBufferedDrivers;
+
+    public void submit(Long driverId, String city, double lat, double lon) {
+        submit(new DriverLocation(driverId, city, lat, lon, LocalDateTime.now()));
+    }
+
+    public void submit(DriverLocation location) {
+        if (pendingRedis.size() >= maxBufferedDrivers && !pendingRedis.containsKey(location.getDriverId())) {
+            flushToRedis();
+        }
+        pendingRedis.put(location.getDriverId(), location);
+        pendingSnapshot.put(location.getDriverId(), location);
+    }
+
+    /**
+     * Applies a gateway batch right away: the latest ping per driver goes to Redis in a single
+     * pipeline (one script per city), and the positions join the next database snapshot. Buffered
+     * pings the batch supersedes are dropped once the write succeeds; if it fails, the batch goes
+     * into the buffer for the next flush instead.
+     */
+    public int ingestBatch(List<DriverLocation> locations) {
+        Map<Long, DriverLocation> latest = new HashMap<>(locations.size() * 2);
+        for (DriverLocation location : locations) {
+            latest.put(location.getDriverId(), location);
+        }
+        List<DriverLocation> batch = new ArrayList<>(latest.values());
+        pendingSnapshot.putAll(latest);
+        int added;
+        try {
+            added = driverAvailabilityService.updateLocationsIfAvailable(groupByCity(batch));
+        } catch (Exception e) {
+            // Same as a failed flush, but keep a newer ping that was submitted meanwhile
+            batch.forEach(location -> pendingRedis.merge(location.getDriverId(), location,
+                (buffered, failed) -> buffered.getReceivedAt().isAfter(failed.getReceivedAt()) ? buffered : failed));
+            logger.error("Failed to apply driver location batch to Redis, buffered for the next flush: {}", e.getMessage());
+            return 0;
+        }
+        batch.forEach(location -> pendingRedis.computeIfPresent(location.getDriverId(),
+            (driverId, buffered) -> buffered.getReceivedAt().isAfter(location.getReceivedAt()) ? buffered : null));
+        return added;
+    }
+
+    @Scheduled(fixedDelayString = "${location.ingest.flush-interval-ms:250}")
+    public void flushToRedis() {
+        List<DriverLocation> batch = drain(pendingRedis);
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            int added = driverAvailabilityService.updateLocationsIfAvailable(groupByCity(batch));
+            logger.debug("Flushed driver locations to Redis: received={}, online={}", batch.size(), added);
+        } catch (Exception e) {
+            // Put back what is still the latest ping so the next flush retries it
+            batch.forEach(location -> pendingRedis.putIfAbsent(location.getDriverId(), location));
+            logger.error("Failed to flush driver locations to Redis: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${location.ingest.snapshot-interval-ms:30000}")
+    public void snapshotToDatabase() {
+        List<DriverLocation> batch = drain(pendingSnapshot);
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(batch.size());
+        for (DriverLocation location : batch) {
+            args.add(new Object[]{
+                location.getLatitude(),
+                location.getLongitude(),
+                location.getCity(),
+                Timestamp.valueOf(location.getReceivedAt()),
+                location.getDriverId()
+            });
+        }
+        try {
+            jdbcTemplate.batchUpdate(SNAPSHOT_SQL, args);
+            logger.debug("Snapshotted driver locations: drivers={}", batch.size());
+        } catch (Exception e) {
+            batch.forEach(location -> pendingSnapshot.putIfAbsent(location.getDriverId(), location));
+            logger.error("Failed to snapshot driver locations: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        flushToRedis();
+        snapshotToDatabase();
+    }
+
+    private static List<DriverLocation> drain(Map<Long, DriverLocation> buffer) {
+        List<DriverLocation> drained = new ArrayList<>(buffer.size());
+        for (Long driverId : buffer.keySet()) {
+            DriverLocation location = buffer.remove(driverId);
+            if (location != null) {
+                drained.add(location);
+            }
+        }
+        return drained;
+    }
+
+    static Map<String, List<DriverLocation>> groupByCity(List<DriverLocation> locations) {
+        Map<String, List<DriverLocation>> byCity = new HashMap<>();
+        for (DriverLocation location : locations) {
+            byCity.computeIfAbsent(location.getCity(), c -> new ArrayList<>()).add(location);
+        }
+        return byCity;
+    }
+}
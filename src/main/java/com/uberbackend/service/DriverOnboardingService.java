@@ -0,0 +1,145 @@
+package com.uberbackend.service;
+
+import com.uberbackend.dto.response.DriverRowError;
+import com.uberbackend.model.entity.Driver;
+import com.uberbackend.model.enums.DriverStatus;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Bulk driver registration for onboarding campaigns.
+ *
+ * Rows go in chunks of {@code drivers.onboarding.batch-size}, each chunk in its own transaction:
+ * one query finds the phone/license/plate values that already exist, the remaining rows are
+ * inserted in a single JDBC batch with {@code ON CONFLICT DO NOTHING}, and any row the database
+ * still skipped (a concurrent registration) is reported instead of failing the chunk. Duplicates
+ * inside the upload itself are caught before they reach the database.
+ */
+@Service
+@RequiredArgsConstructor
+public class DriverOnboardingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DriverOnboardingService.class);
+
+    private static final String EXISTING_SQL =
+        "SELECT phone_number, license_number, vehicle_plate_number FROM drivers " +
+        "WHERE phone_number IN (:phones) OR license_number IN (:licenses) OR vehicle_plate_number IN (:plates)";
+    private static final String INSERT_SQL =
+        "INSERT INTO drivers (tenant_id, name, phone_number, license_number, vehicle_model, vehicle_plate_number, " +
+        "status, created_at, updated_at, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0) ON CONFLICT DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${drivers.onboarding.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * A driver to register and its position in the caller's request, for error reporting.
+     */
+    public record Candidate(int index, Driver driver) {
+    }
+
+    public record Result(int created, List<DriverRowError> errors) {
+    }
+
+    public Result onboard(List<Candidate> candidates) {
+        List<DriverRowError> errors = new ArrayList<>();
+        Set<String> phones = new HashSet<>();
+        Set<String> licenses = new HashSet<>();
+        Set<String> plates = new HashSet<>();
+        List<Candidate> unique = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates) {
+            Driver driver = candidate.driver();
+            String field = !phones.add(driver.getPhoneNumber()) ? "phoneNumber"
+                : !licenses.add(driver.getLicenseNumber()) ? "licenseNumber"
+                : !plates.add(driver.getVehiclePlateNumber()) ? "vehiclePlateNumber"
+                : null;
+            if (field != null) {
+                errors.add(new DriverRowError(candidate.index(), field, "Duplicate " + field + " in request"));
+            } else {
+                unique.add(candidate);
+            }
+        }
+
+        int created = 0;
+        for (int from = 0; from < unique.size(); from += batchSize) {
+            List<Candidate> chunk = unique.subList(from, Math.min(from + batchSize, unique.size()));
+            Integer inserted = transactionTemplate.execute(status -> insertChunk(chunk, errors));
+            created += inserted != null ? inserted : 0;
+        }
+        errors.sort((a, b) -> Integer.compare(a.getIndex(), b.getIndex()));
+        logger.info("Onboarded drivers: received={}, created={}, rejected={}",
+            candidates.size(), created, errors.size());
+        return new Result(created, errors);
+    }
+
+    int insertChunk(List<Candidate> chunk, List<DriverRowError> errors) {
+        Set<String> existingPhones = new HashSet<>();
+        Set<String> existingLicenses = new HashSet<>();
+        Set<String> existingPlates = new HashSet<>();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("phones", chunk.stream().map(c -> c.driver().getPhoneNumber()).toList())
+            .addValue("licenses", chunk.stream().map(c -> c.driver().getLicenseNumber()).toList())
+            .addValue("plates", chunk.stream().map(c -> c.driver().getVehiclePlateNumber()).toList());
+        namedParameterJdbcTemplate.query(EXISTING_SQL, params, rs -> {
+            existingPhones.add(rs.getString(1));
+            existingLicenses.add(rs.getString(2));
+            existingPlates.add(rs.getString(3));
+        });
+
+        List<Candidate> toInsert = new ArrayList<>(chunk.size());
+        for (Candidate candidate : chunk) {
+            Driver driver = candidate.driver();
+            String field = existingPhones.contains(driver.getPhoneNumber()) ? "phoneNumber"
+                : existingLicenses.contains(driver.getLicenseNumber()) ? "licenseNumber"
+                : existingPlates.contains(driver.getVehiclePlateNumber()) ? "vehiclePlateNumber"
+                : null;
+            if (field != null) {
+                errors.add(new DriverRowError(candidate.index(), field, "A driver with this " + field + " already exists"));
+            } else {
+                toInsert.add(candidate);
+            }
+        }
+        if (toInsert.isEmpty()) {
+            return 0;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(toInsert.size());
+        for (Candidate candidate : toInsert) {
+            Driver driver = candidate.driver();
+            rows.add(new Object[]{
+                driver.getTenantId(), driver.getName(), driver.getPhoneNumber(), driver.getLicenseNumber(),
+                driver.getVehicleModel(), driver.getVehiclePlateNumber(), DriverStatus.OFFLINE.name(), now, now
+            });
+        }
+        int[] counts = jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+
+        int inserted = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                // Skipped by ON CONFLICT: registered concurrently since the existence check
+                errors.add(new DriverRowError(toInsert.get(i).index(), null, "A driver with these details already exists"));
+            } else {
+                inserted++;
+            }
+        }
+        return inserted;
+    }
+}
@@ -1,20 +1,27 @@
 package com.uberbackend.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.uberbackend.cache.ReadCaches;
+import com.uberbackend.dto.request.DriverLocationUpdateRequest;
 import com.uberbackend.dto.request.UpdateDriverLocationRequest;
 import com.uberbackend.dto.response.DriverHistoryResponse;
+import com.uberbackend.geo.DriverLocation;
 import com.uberbackend.model.entity.Driver;
 import com.uberbackend.model.entity.Ride;
 import com.uberbackend.model.enums.DriverStatus;
-import com.uberbackend.model.enums.RideStatus;
+import com.uberbackend.model.enums.RideEventType;
 import com.uberbackend.repository.DriverRepository;
 import com.uberbackend.repository.RideRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
@@ -22,71 +29,80 @@ import java.util.List;
 public class DriverService {
 
     private static final Logger logger = LoggerFactory.getLogger(DriverService.class);
+    private static final int KNOWN_DRIVERS_MAX_SIZE = 100_000;
 
     private final DriverRepository driverRepository;
     private final RideRepository rideRepository;
-    private final RedisGeoService redisGeoService;
-
-    @Transactional
+    private final DriverAvailabilityService driverAvailabilityService;
+    private final DriverLocationIngestionService driverLocationIngestionService;
+    private final RideEventOutbox rideEventOutbox;
+    private final ReadCaches readCaches;
+    private final ReadQueryService readQueryService;
+
+    // Ids that exist; drivers are never deleted, so a hit stays valid. Misses are not cached, so a
+    // newly registered driver is accepted on their first ping.
+    private final Cache<Long, Boolean> knownDrivers = Caffeine.newBuilder()
+        .maximumSize(KNOWN_DRIVERS_MAX_SIZE)
+        .build();
+
+    /**
+     * Hands the ping to the write-behind pipeline. The only database work on this path is an
+     * existence check on a driver's first ping after startup.
+     */
     public void updateDriverLocation(Long driverId, UpdateDriverLocationRequest request) {
-        Driver driver = driverRepository.findByIdAndTenantIdWithLock(driverId)
-            .orElseThrow(() -> new RuntimeException("Driver not found: " + driverId));
-
-        driver.setCurrentLatitude(request.getLatitude());
-        driver.setCurrentLongitude(request.getLongitude());
-        driver.setLocationUpdatedAt(LocalDateTime.now());
-        driver.setCity(request.getCity());
-
-        driverRepository.save(driver);
+        if (knownDrivers.get(driverId, id -> driverRepository.existsById(id) ? Boolean.TRUE : null) == null) {
+            throw new RuntimeException("Driver not found: " + driverId);
+        }
+        driverLocationIngestionService.submit(
+            driverId,
+            request.getCity(),
+            request.getLatitude().doubleValue(),
+            request.getLongitude().doubleValue()
+        );
+        logger.debug("Buffered driver location: driverId={}, lat={}, lon={}", 
+            driverId, request.getLatitude(), request.getLongitude());
+    }
 
-        // Update Redis geo index if driver is online
-        if (driver.getStatus() == DriverStatus.ONLINE) {
-            redisGeoService.updateDriverLocation(
-                driver.getId(),
-                driver.getCity(),
+    /**
+     * Bulk form of {@link #updateDriverLocation} for fleet gateways.
+     */
+    public void updateDriverLocations(List<DriverLocationUpdateRequest> requests) {
+        List<DriverLocation> locations = new ArrayList<>(requests.size());
+        LocalDateTime receivedAt = LocalDateTime.now();
+        for (DriverLocationUpdateRequest request : requests) {
+            locations.add(new DriverLocation(
+                request.getDriverId(),
+                request.getCity(),
                 request.getLatitude().doubleValue(),
-                request.getLongitude().doubleValue()
-            );
-            logger.debug("Updated driver location in Redis geo index: driverId={}", driverId);
+                request.getLongitude().doubleValue(),
+                receivedAt
+            ));
         }
-
-        logger.info("Updated driver location: driverId={}, lat={}, lon={}", 
-            driverId, request.getLatitude(), request.getLongitude());
+        int online = driverLocationIngestionService.ingestBatch(locations);
+        logger.debug("Applied driver location batch: received={}, online={}", requests.size(), online);
     }
 
     @Transactional
     public void acceptRide(Long driverId, Long rideId) {
-        // Lock driver to prevent concurrent modifications
-        Driver driver = driverRepository.findByIdAndTenantIdWithLock(driverId)
+        Driver driver = driverRepository.findById(driverId)
             .orElseThrow(() -> new RuntimeException("Driver not found: " + driverId));
 
-        if (driver.getStatus() != DriverStatus.ONLINE) {
+        // Reserve the driver in Redis; fails if they are not online or already taken
+        if (!driverAvailabilityService.tryClaim(driverId, driver.getCity())) {
             throw new IllegalStateException("Driver must be online to accept rides");
         }
+        driverAvailabilityService.confirmClaim(driverId, driver.getCity());
 
-        // Lock ride to prevent concurrent modifications
-        var rideOpt = rideRepository.findByIdAndTenantIdWithLock(rideId);
-        if (rideOpt.isEmpty()) {
-            throw new RuntimeException("Ride not found: " + rideId);
-        }
-
-        Ride ride = rideOpt.get();
-        
-        if (ride.getStatus() != RideStatus.PENDING) {
+        // Conditional update instead of a row lock: only a PENDING ride can be taken
+        if (rideRepository.assignDriverIfPending(rideId, driverId) == 0) {
+            Ride ride = rideRepository.findById(rideId)
+                .orElseThrow(() -> new RuntimeException("Ride not found: " + rideId));
             throw new IllegalStateException("Ride is not available for acceptance. Status: " + ride.getStatus());
         }
 
-        // Update ride
-        ride.setDriverId(driverId);
-        ride.setStatus(RideStatus.ASSIGNED);
-        rideRepository.save(ride);
-
-        // Update driver status
-        driver.setStatus(DriverStatus.IN_RIDE);
-        driverRepository.save(driver);
-
-        // Remove driver from geo index (not available for new rides)
-        redisGeoService.removeDriver(driverId, driver.getCity());
+        // The assignment must reach consumers and invalidate cached reads of the ride and driver
+        rideRepository.findById(rideId).ifPresent(ride ->
+            rideEventOutbox.append(RideService.toEvent(ride, RideEventType.UPDATED)));
 
         logger.info("Driver accepted ride: driverId={}, rideId={}", 
             driverId, rideId);
@@ -94,16 +110,21 @@ public class DriverService {
 
     @Transactional
     public Driver createDriver(Driver driver) {
-        // Ensure uniqueness by phone number globally (previous per-tenant id removed)
-        var existing = driverRepository.findAll().stream()
-            .filter(d -> driver.getPhoneNumber().equals(d.getPhoneNumber()))
-            .findAny();
-        if (existing.isPresent()) {
-            throw new IllegalArgumentException("Driver already exists with phone: " + driver.getPhoneNumber());
+        // Phone, license and plate are unique globally; the exists probe turns the common case into a clean 400
+        if (driverRepository.existsByPhoneNumberOrLicenseNumberOrVehiclePlateNumber(
+                driver.getPhoneNumber(), driver.getLicenseNumber(), driver.getVehiclePlateNumber())) {
+            throw new IllegalArgumentException("Driver already exists with phone: " + driver.getPhoneNumber()
+                + " or the same license/plate number");
         }
 
         driver.setStatus(DriverStatus.OFFLINE);
-        return driverRepository.save(driver);
+        try {
+            return driverRepository.saveAndFlush(driver);
+        } catch (DataIntegrityViolationException e) {
+            // Lost a race with a concurrent registration; the unique constraints are the real guard
+            throw new IllegalArgumentException("Driver already exists with phone: " + driver.getPhoneNumber()
+                + " or the same license/plate number");
+        }
     }
 
     @Transactional
@@ -120,15 +141,15 @@ public class DriverService {
 
         driver.setStatus(newStatus);
         driverRepository.save(driver);
+        driverAvailabilityService.setStatus(driverId, driver.getCity(), newStatus,
+            driver.getCurrentLatitude() != null ? driver.getCurrentLatitude().doubleValue() : null,
+            driver.getCurrentLongitude() != null ? driver.getCurrentLongitude().doubleValue() : null);
+        readCaches.evictDriverAfterCommit(driverId);
         logger.info("Updated driver status: driverId={}, status={}", driverId, newStatus);
     }
 
-    @Transactional
+    // Served from ReadCaches; ride events naming the driver and status changes evict the entry
     public DriverHistoryResponse getDriverDetail(Long driverId) {
-        Driver driver = driverRepository.findByIdAndTenantIdWithLock(driverId)
-            .orElseThrow(() -> new RuntimeException("Driver not found: " + driverId));
-        List<Ride> history = rideRepository.findByDriverIdOrderByCreatedAtDesc(driverId); // order by createdAt desc
-
-        return DriverHistoryResponse.from(driver, history);
+        return readCaches.getDriverDetails().get(driverId, () -> readQueryService.getDriverDetail(driverId));
     }
 }
\ No newline at end of file
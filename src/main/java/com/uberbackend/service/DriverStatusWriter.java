@@ -0,0 +1,34 @@
+package com.uberbackend.service;
+
+import com.uberbackend.model.enums.DriverStatus;
+import com.uberbackend.repository.DriverRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Writes driver status changes decided in Redis back to the drivers table off the request
+ * thread, with a single UPDATE and no row lock held by the caller.
+ */
+@Component
+@RequiredArgsConstructor
+public class DriverStatusWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(DriverStatusWriter.class);
+
+    private final DriverRepository driverRepository;
+
+    @Async
+    @Transactional
+    public void writeStatus(Long driverId, DriverStatus status) {
+        int updated = driverRepository.updateStatus(driverId, status);
+        if (updated == 0) {
+            logger.warn("Driver status not written, driver not found: driverId={}", driverId);
+            return;
+        }
+        logger.debug("Wrote driver status: driverId={}, status={}", driverId, status);
+    }
+}
@@ -0,0 +1,25 @@
+package com.uberbackend.service;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Outcome of {@link IdempotencyService#reserve}: either this request owns the key and must do the
+ * work, or an earlier request already finished and its response can be replayed.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class IdempotencyResult<T> {
+
+    private final boolean replay;
+    private final T response;
+
+    static <T> IdempotencyResult<T> reserved() {
+        return new IdempotencyResult<>(false, null);
+    }
+
+    static <T> IdempotencyResult<T> replay(T response) {
+        return new IdempotencyResult<>(true, response);
+    }
+}
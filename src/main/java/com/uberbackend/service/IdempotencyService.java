@@ -1,41 +1,175 @@
 package com.uberbackend.service;
 
-import org.springframework.beans.factory.annotation.Autowired;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Idempotency keys backed by Redis with a local near-cache.
+ *
+ * {@link #reserve} is one round trip: a script returns the stored value if the key exists, or
+ * else claims it with a short-lived pending marker. A stored response is replayed as is, a pending
+ * marker means a concurrent retry is still running (409), and no value means this request owns
+ * the key. {@link #complete} replaces the marker with the serialized response once the
+ * transaction commits; a rollback releases the marker so the client can retry.
+ *
+ * Completed responses never change, so a bounded Caffeine cache keeps the hot ones locally and
+ * retry storms are answered without touching Redis.
+ */
 @Service
 public class IdempotencyService {
 
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
     private static final String IDEMPOTENCY_KEY_PREFIX = "idempotency:";
+    private static final String PENDING_PREFIX = "~pending:";
     private static final long IDEMPOTENCY_TTL_HOURS = 24;
+    private static final StringRedisSerializer STRING = StringRedisSerializer.UTF_8;
 
-    @Autowired
-    private RedisTemplate<String, Object> redisTemplate;
+    private static final RedisScript<String> RESERVE_SCRIPT = new DefaultRedisScript<>(
+        "local existing = redis.call('GET', KEYS[1]) " +
+        "if existing then return existing end " +
+        "redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2]) " +
+        "return false",
+        String.class);
 
-    public boolean isKeyProcessed(Long passengerId, String idempotencyKey) {
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end " +
+        "return 0",
+        Long.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final long pendingTtlMs;
+    private final Cache<String, String> nearCache;
+
+    public IdempotencyService(RedisTemplate<String, Object> redisTemplate,
+                              ObjectMapper objectMapper,
+                              @Value("${idempotency.pending-ttl-ms:30000}") long pendingTtlMs,
+                              @Value("${idempotency.near-cache.max-size:10000}") long nearCacheMaxSize,
+                              @Value("${idempotency.near-cache.ttl-seconds:300}") long nearCacheTtlSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.pendingTtlMs = pendingTtlMs;
+        this.nearCache = Caffeine.newBuilder()
+            .maximumSize(nearCacheMaxSize)
+            .expireAfterWrite(Duration.ofSeconds(nearCacheTtlSeconds))
+            .build();
+    }
+
+    /**
+     * Claims the key for this request, or returns the response of the request that already used it.
+     *
+     * @throws IllegalStateException when another request with the same key is still in progress
+     */
+    public <T> IdempotencyResult<T> reserve(String scope, Long ownerId, String idempotencyKey, Class<T> responseType) {
         if (idempotencyKey == null || idempotencyKey.isBlank()) {
-            return false;
+            return IdempotencyResult.reserved();
+        }
+        String key = key(scope, ownerId, idempotencyKey);
+        String cached = nearCache.getIfPresent(key);
+        if (cached != null) {
+            return IdempotencyResult.replay(deserialize(cached, responseType));
+        }
+
+        String marker = PENDING_PREFIX + UUID.randomUUID();
+        String existing = redisTemplate.execute(RESERVE_SCRIPT, STRING, STRING, List.of(key), marker, String.valueOf(pendingTtlMs));
+        if (existing == null) {
+            releaseOnRollback(key, marker);
+            return IdempotencyResult.reserved();
         }
-        String key = IDEMPOTENCY_KEY_PREFIX + passengerId + ":" + idempotencyKey;
-        return redisTemplate.hasKey(key);
+        if (existing.startsWith(PENDING_PREFIX)) {
+            throw new IllegalStateException("A request with idempotency key " + idempotencyKey + " is already in progress");
+        }
+        nearCache.put(key, existing);
+        return IdempotencyResult.replay(deserialize(existing, responseType));
     }
 
-    public void markKeyAsProcessed(Long passengerId, String idempotencyKey, Object result) {
+    /**
+     * Stores the response for replays once the surrounding transaction commits.
+     */
+    public void complete(String scope, Long ownerId, String idempotencyKey, Object response) {
         if (idempotencyKey == null || idempotencyKey.isBlank()) {
             return;
         }
-        String key = IDEMPOTENCY_KEY_PREFIX + passengerId + ":" + idempotencyKey;
-        redisTemplate.opsForValue().set(key, result, IDEMPOTENCY_TTL_HOURS, TimeUnit.HOURS);
+        String key = key(scope, ownerId, idempotencyKey);
+        String value = serialize(response);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            store(key, value);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                store(key, value);
+            }
+        });
     }
 
-    public Object getProcessedResult(Long tenantId, String idempotencyKey) {
-        if (idempotencyKey == null || idempotencyKey.isBlank()) {
-            return null;
+    private void store(String key, String value) {
+        try {
+            redisTemplate.opsForValue().set(key, value, IDEMPOTENCY_TTL_HOURS, TimeUnit.HOURS);
+            nearCache.put(key, value);
+        } catch (Exception e) {
+            // The pending marker expires on its own, after which a retry is processed again
+            logger.error("Failed to store idempotent response: key={}, error={}", key, e.getMessage());
+        }
+    }
+
+    private void releaseOnRollback(String key, String marker) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
         }
-        String key = IDEMPOTENCY_KEY_PREFIX + tenantId + ":" + idempotencyKey;
-        return redisTemplate.opsForValue().get(key);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    release(key, marker);
+                }
+            }
+        });
+    }
+
+    private void release(String key, String marker) {
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(key), marker);
+        } catch (Exception e) {
+            logger.warn("Failed to release idempotency key: key={}, error={}", key, e.getMessage());
+        }
+    }
+
+    private String serialize(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize idempotent response", e);
+        }
+    }
+
+    private <T> T deserialize(String value, Class<T> responseType) {
+        try {
+            return objectMapper.readValue(value, responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot read stored idempotent response", e);
+        }
+    }
+
+    private static String key(String scope, Long ownerId, String idempotencyKey) {
+        return IDEMPOTENCY_KEY_PREFIX + scope + ":" + ownerId + ":" + idempotencyKey;
     }
-}
\ No newline at end of file
+}
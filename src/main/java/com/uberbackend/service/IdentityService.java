@@ -1,40 +1,69 @@
 package com.uberbackend.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.uberbackend.dto.response.IdentityResponse;
 import com.uberbackend.model.entity.Driver;
 import com.uberbackend.model.entity.Tenant;
 import com.uberbackend.repository.DriverRepository;
 import com.uberbackend.repository.TenantRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.Optional;
 
+/**
+ * Resolves a login email to its tenant and a driver of that tenant with two indexed single-row
+ * queries. Found tenants are kept in a small per-node TTL cache keyed by email, so a newly
+ * registered driver can take up to {@code identity.cache.ttl-seconds} to show up here. Unknown
+ * emails are not cached: the cache is local to each node, and a cached miss would hide a newly
+ * registered tenant from every node that had looked it up before.
+ */
 @Service
-@RequiredArgsConstructor
 public class IdentityService {
 
     private final TenantRepository tenantRepository;
     private final DriverRepository driverRepository;
+    private final Cache<String, IdentityResponse> cache;
+
+    public IdentityService(TenantRepository tenantRepository,
+                           DriverRepository driverRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${identity.cache.max-size:10000}") long maxSize,
+                           @Value("${identity.cache.ttl-seconds:60}") long ttlSeconds) {
+        this.tenantRepository = tenantRepository;
+        this.driverRepository = driverRepository;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "identity");
+    }
 
     public Optional<IdentityResponse> lookupByEmail(String email) {
-        // Find tenant by contact email
+        // A null from the loader is returned without being cached
+        return Optional.ofNullable(cache.get(email, this::load));
+    }
+
+    private IdentityResponse load(String email) {
+        // Find tenant by contact email (idx_tenants_contact_email)
         Optional<Tenant> tenantOpt = tenantRepository.findByContactEmail(email);
         if (tenantOpt.isEmpty()) {
-            return Optional.empty();
+            return null;
         }
         Tenant tenant = tenantOpt.get();
 
-        // Attempt to find any driver under this tenant (fast-path; schema has no driver email)
-        Optional<Driver> driverOpt = driverRepository.findAll().stream()
-                .filter(d -> tenant.getId().equals(d.getTenantId()))
-                .findFirst();
+        // Any driver under this tenant (schema has no driver email); one row off idx_drivers_tenant_id
+        Optional<Driver> driverOpt = driverRepository.findFirstByTenantIdOrderByIdAsc(tenant.getId());
 
-        IdentityResponse resp = new IdentityResponse(
+        return new IdentityResponse(
                 tenant.getId(),
                 driverOpt.map(Driver::getId).orElse(null),
                 driverOpt.isPresent()
         );
-        return Optional.of(resp);
     }
 }
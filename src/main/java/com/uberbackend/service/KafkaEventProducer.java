@@ -1,14 +1,17 @@
 package com.uberbackend.service;
 
+import com.uberbackend.config.KafkaProducerTemplates;
 import com.uberbackend.event.RideEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class KafkaEventProducer {
@@ -17,19 +20,39 @@ public class KafkaEventProducer {
     private static final String RIDE_EVENTS_TOPIC = "ride-events";
 
     @Autowired
-    private KafkaTemplate<String, RideEvent> kafkaTemplate;
+    private KafkaProducerTemplates kafkaProducerTemplates;
 
-    public void sendRideEvent(RideEvent event) {
+    @Autowired
+    private SessionRoutingRegistry sessionRoutingRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    public CompletableFuture<SendResult<String, RideEvent>> sendRideEvent(RideEvent event) {
         String key = event.getPassengerId() + ":" + event.getRideId();
-        CompletableFuture<SendResult<String, RideEvent>> future = 
-            kafkaTemplate.send(RIDE_EVENTS_TOPIC, key, event);
-        
+        // The ride's pinned partition, first chosen to be one consumed by the node holding its session
+        Integer partition = sessionRoutingRegistry.partitionFor(event, key);
+        String profile = kafkaProducerTemplates.profileFor(RIDE_EVENTS_TOPIC);
+        long start = System.nanoTime();
+        CompletableFuture<SendResult<String, RideEvent>> future =
+            kafkaProducerTemplates.forTopic(RIDE_EVENTS_TOPIC).send(RIDE_EVENTS_TOPIC, partition, key, event);
+
         future.whenComplete((result, ex) -> {
-            if (ex == null) {
-                logger.info("Sent ride event with key=[{}] offset=[{}]", key, result.getRecordMetadata().offset());
-            } else {
+            sendTimer(RIDE_EVENTS_TOPIC, profile, ex == null).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (ex != null) {
                 logger.error("Unable to send ride event with key=[{}] due to: {}", key, ex.getMessage());
             }
         });
+        return future;
+    }
+
+    private Timer sendTimer(String topic, String profile, boolean success) {
+        return Timer.builder("kafka.producer.send.latency")
+            .description("Time from send() to broker ack")
+            .tag("topic", topic)
+            .tag("profile", profile)
+            .tag("outcome", success ? "success" : "failure")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
     }
-}
\ No newline at end of file
+}
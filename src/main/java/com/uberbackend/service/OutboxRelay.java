@@ -0,0 +1,166 @@
+package com.uberbackend.service;
+
+import com.uberbackend.event.RideEvent;
+import com.uberbackend.event.RideEventCodec;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Drains {@link RideEventOutbox} to Kafka.
+ *
+ * Every {@code outbox.relay.linger-ms} the relay locks up to {@code outbox.relay.batch-size}
+ * unpublished rows, hands them all to the producer at once and waits for the acks. Acked rows are
+ * stamped with their partition and offset in one batch update; the rest stay unpublished and go
+ * out in the next round. Delivery is at least once, and consumers already tolerate duplicates.
+ *
+ * Events of a ride keep their outbox order on the topic:
+ * <ul>
+ *   <li>Only one node relays at a time (a transaction-scoped advisory lock). Nodes relaying
+ *   disjoint SKIP LOCKED batches side by side could deliver a ride's later event first.</li>
+ *   <li>Once a row of a ride fails, the ride's later rows in the batch stay unpublished too, even
+ *   if they were acked, so the retry resends them after the failed one.</li>
+ *   <li>A run stops draining at the first batch that was not fully acked, so a broker outage
+ *   holds a scheduler thread for one send timeout rather than one per batch.</li>
+ * </ul>
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    // Arbitrary key shared by every node; released when the batch transaction ends
+    private static final long RELAY_LOCK_KEY = 0x6f7574626f78L;
+    private static final String TRY_LOCK_SQL = "SELECT pg_try_advisory_xact_lock(?)";
+    private static final String SELECT_BATCH_SQL =
+        "SELECT id, payload FROM ride_event_outbox WHERE published_at IS NULL ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+    private static final String MARK_PUBLISHED_SQL =
+        "UPDATE ride_event_outbox SET published_at = ?, kafka_partition = ?, kafka_offset = ? WHERE id = ?";
+    private static final String PURGE_SQL =
+        "DELETE FROM ride_event_outbox WHERE published_at < ?";
+
+    private final KafkaEventProducer kafkaEventProducer;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${outbox.relay.enabled:true}")
+    private boolean enabled;
+
+    @Value("${outbox.relay.batch-size:500}")
+    private int batchSize;
+
+    @Value("${outbox.relay.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${outbox.relay.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    @Value("${outbox.relay.retention-hours:24}")
+    private long retentionHours;
+
+    @Scheduled(fixedDelayString = "${outbox.relay.linger-ms:50}")
+    public void relay() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            // Keep draining while full batches are fully acked, bounded so a backlog cannot pin the thread
+            for (int i = 0; i < maxBatchesPerRun; i++) {
+                Integer relayed = transactionTemplate.execute(status -> relayBatch());
+                if (relayed == null || relayed < batchSize) {
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Outbox relay failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Relays one batch and returns the number of rows marked published; 0 also when another node
+     * holds the relay lock.
+     */
+    int relayBatch() {
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(TRY_LOCK_SQL, Boolean.class, RELAY_LOCK_KEY))) {
+            return 0;
+        }
+        List<OutboxRow> rows = jdbcTemplate.query(SELECT_BATCH_SQL,
+            (rs, rowNum) -> new OutboxRow(rs.getLong("id"), rs.getBytes("payload")), batchSize);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        List<RideEvent> events = new ArrayList<>(rows.size());
+        List<CompletableFuture<SendResult<String, RideEvent>>> futures = new ArrayList<>(rows.size());
+        for (OutboxRow row : rows) {
+            RideEvent event = RideEventCodec.decode(row.payload());
+            events.add(event);
+            futures.add(kafkaEventProducer.sendRideEvent(event));
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        List<Object[]> published = new ArrayList<>(rows.size());
+        Set<Long> failedRides = new HashSet<>();
+        for (int i = 0; i < rows.size(); i++) {
+            RecordMetadata metadata = await(futures.get(i), deadline);
+            Long rideId = events.get(i).getRideId();
+            if (metadata == null || failedRides.contains(rideId)) {
+                failedRides.add(rideId);
+                continue;
+            }
+            published.add(new Object[]{now, metadata.partition(), metadata.offset(), rows.get(i).id()});
+        }
+        if (!published.isEmpty()) {
+            jdbcTemplate.batchUpdate(MARK_PUBLISHED_SQL, published);
+        }
+        if (published.size() < rows.size()) {
+            logger.warn("Outbox relay left events for retry: locked={}, published={}", rows.size(), published.size());
+        } else {
+            logger.debug("Outbox relay published events: count={}", published.size());
+        }
+        return published.size();
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.purge-interval-ms:3600000}")
+    public void purgePublished() {
+        int deleted = jdbcTemplate.update(PURGE_SQL, Timestamp.valueOf(LocalDateTime.now().minusHours(retentionHours)));
+        if (deleted > 0) {
+            logger.info("Purged published outbox events: count={}", deleted);
+        }
+    }
+
+    private RecordMetadata await(CompletableFuture<SendResult<String, RideEvent>> future, long deadline) {
+        try {
+            long remaining = Math.max(0, deadline - System.nanoTime());
+            return future.get(remaining, TimeUnit.NANOSECONDS).getRecordMetadata();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException e) {
+            return null;
+        }
+    }
+
+    private record OutboxRow(long id, byte[] payload) {
+    }
+}
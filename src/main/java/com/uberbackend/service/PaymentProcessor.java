@@ -0,0 +1,337 @@
+package com.uberbackend.service;
+
+import com.uberbackend.event.RideEvent;
+import com.uberbackend.model.entity.Payment;
+import com.uberbackend.model.enums.PaymentStatus;
+import com.uberbackend.model.enums.RideEventType;
+import com.uberbackend.payment.ChargeRequest;
+import com.uberbackend.payment.PaymentDeclinedException;
+import com.uberbackend.payment.PaymentGateway;
+import com.uberbackend.repository.PaymentRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Charges accepted payments off the request path.
+ *
+ * Payments are queued on a bounded worker pool once their PENDING row commits. A worker claims the
+ * payment through {@link PaymentStateMachine} (PENDING -> PROCESSING, recorded in the payment event
+ * log only), takes a permit from the gateway's limiter ({@code payment.gateway.max-concurrency}
+ * calls in flight per gateway) and calls the configured {@link PaymentGateway} with a timeout. A
+ * worker that gets no permit puts the payment back on the queue without using up an attempt.
+ * Deferrals and retries both run on the original claim, so a task whose lease
+ * ({@code payment.worker.claim-lease-ms}) would run out before another gateway call could time out
+ * is given up and left to the recovery sweep rather than charged alongside the next claim.
+ * Declines fail the payment at once; other failures are retried with exponential backoff and jitter
+ * on a scheduler, so a waiting retry holds neither a worker nor a permit. The terminal state, the
+ * only update of the payments row, is written together with a PAYMENT_COMPLETED / PAYMENT_FAILED
+ * ride event in the outbox. No database connection is held while the gateway is called.
+ *
+ * When the queue is full the payment simply stays PENDING; a periodic sweep re-queues PENDING
+ * payments older than {@code payment.worker.recover-after-ms} that are unclaimed or whose claim
+ * lease ({@code payment.worker.claim-lease-ms}) has expired, which also covers a node that died
+ * while charging.
+ */
+@Service
+@RequiredArgsConstructor
+public class PaymentProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentProcessor.class);
+    private static final int RECOVERY_BATCH_SIZE = 500;
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentStateMachine paymentStateMachine;
+    private final RideEventOutbox rideEventOutbox;
+    private final TransactionTemplate transactionTemplate;
+    private final PaymentGateway paymentGateway;
+
+    @Value("${payment.worker.pool-size:16}")
+    private int poolSize;
+
+    @Value("${payment.worker.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${payment.worker.recover-after-ms:60000}")
+    private long recoverAfterMs;
+
+    @Value("${payment.worker.claim-lease-ms:120000}")
+    private long claimLeaseMs;
+
+    @Value("${payment.gateway.max-concurrency:32}")
+    private int gatewayMaxConcurrency;
+
+    @Value("${payment.gateway.permit-wait-ms:500}")
+    private long permitWaitMs;
+
+    @Value("${payment.gateway.timeout-ms:2000}")
+    private long gatewayTimeoutMs;
+
+    @Value("${payment.gateway.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${payment.gateway.initial-backoff-ms:200}")
+    private long initialBackoffMs;
+
+    @Value("${payment.gateway.max-backoff-ms:5000}")
+    private long maxBackoffMs;
+
+    private final Map<String, Semaphore> gatewayPermits = new ConcurrentHashMap<>();
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    private ThreadPoolExecutor workers;
+    private ScheduledExecutorService retryScheduler;
+    private ExecutorService gatewayCalls;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadIds = new AtomicInteger();
+        workers = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            r -> new Thread(r, "payment-worker-" + threadIds.incrementAndGet()));
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "payment-retry"));
+        // Calls run on their own virtual threads so a timed-out call can be abandoned without losing a worker
+        gatewayCalls = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @PreDestroy
+    void stop() {
+        retryScheduler.shutdownNow();
+        workers.shutdown();
+        gatewayCalls.shutdown();
+    }
+
+    /**
+     * Queues the payment once the surrounding transaction commits, or right away without one.
+     */
+    public void submitAfterCommit(Long paymentId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit(paymentId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(paymentId);
+            }
+        });
+    }
+
+    public void submit(Long paymentId) {
+        if (inFlight.add(paymentId)) {
+            enqueue(new PaymentTask(paymentId, null, 1));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${payment.worker.recovery-interval-ms:30000}")
+    public void recoverPending() {
+        LocalDateTime before = LocalDateTime.now().minusNanos(TimeUnit.MILLISECONDS.toNanos(recoverAfterMs));
+        List<Long> stale = paymentStateMachine.findRecoverable(before, RECOVERY_BATCH_SIZE);
+        int requeued = 0;
+        for (Long paymentId : stale) {
+            if (inFlight.add(paymentId)) {
+                enqueue(new PaymentTask(paymentId, null, 1));
+                requeued++;
+            }
+        }
+        if (requeued > 0) {
+            logger.warn("Re-queued stale or abandoned pending payments: count={}", requeued);
+        }
+    }
+
+    private void enqueue(PaymentTask task) {
+        try {
+            workers.execute(() -> process(task));
+        } catch (RejectedExecutionException e) {
+            // Stays PENDING in the database; the recovery sweep picks it up later
+            inFlight.remove(task.paymentId());
+            logger.warn("Payment queue full, deferring: paymentId={}", task.paymentId());
+        }
+    }
+
+    void process(PaymentTask task) {
+        try {
+            if (task.request() == null) {
+                PaymentTask claimed = claim(task.paymentId());
+                if (claimed == null) {
+                    inFlight.remove(task.paymentId());
+                    return;
+                }
+                task = claimed;
+            }
+            if (!leaseCoversCall(task)) {
+                abandonClaim(task);
+                return;
+            }
+            String transactionId = charge(task);
+            finish(task.paymentId(), PaymentStatus.COMPLETED, transactionId, null);
+        } catch (GatewaySaturatedException e) {
+            deferForPermit(task);
+        } catch (Exception e) {
+            retryOrFail(task, e);
+        }
+    }
+
+    private PaymentTask claim(Long paymentId) {
+        return transactionTemplate.execute(status -> {
+            if (!paymentStateMachine.claim(paymentId)) {
+                // Held by another worker or node, or no longer pending
+                return null;
+            }
+            Payment payment = paymentRepository.findById(paymentId).orElse(null);
+            if (payment == null) {
+                return null;
+            }
+            String idempotencyKey = payment.getIdempotencyKey() != null
+                ? payment.getIdempotencyKey() : "payment-" + paymentId;
+            ChargeRequest request = new ChargeRequest(
+                paymentId, payment.getAmount(), payment.getPaymentMethod(), idempotencyKey);
+            return new PaymentTask(paymentId, request, 1);
+        });
+    }
+
+    // The call must be over, permit wait and timeout included, before the claim can be taken over
+    private boolean leaseCoversCall(PaymentTask task) {
+        long budgetMs = claimLeaseMs - permitWaitMs - gatewayTimeoutMs;
+        return System.nanoTime() - task.claimedAt() < TimeUnit.MILLISECONDS.toNanos(budgetMs);
+    }
+
+    /**
+     * Stops working on a claim that is about to expire. The payment stays PENDING; once the lease
+     * is over the recovery sweep claims it again as a new attempt, with the same idempotency key.
+     */
+    private void abandonClaim(PaymentTask task) {
+        inFlight.remove(task.paymentId());
+        logger.warn("Payment claim lease running out, leaving it to recovery: paymentId={}, attempt={}",
+            task.paymentId(), task.attempt());
+    }
+
+    private String charge(PaymentTask task) throws Exception {
+        String gateway = paymentGateway.name();
+        Semaphore permits = gatewayPermits.computeIfAbsent(gateway, g -> new Semaphore(gatewayMaxConcurrency));
+        if (!permits.tryAcquire(permitWaitMs, TimeUnit.MILLISECONDS)) {
+            throw new GatewaySaturatedException();
+        }
+        Future<String> call = gatewayCalls.submit(() -> paymentGateway.charge(task.request()));
+        try {
+            return call.get(gatewayTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            call.cancel(true);
+            throw new TimeoutException("Gateway " + gateway + " timed out after " + gatewayTimeoutMs + "ms");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * The gateway was never called, so the attempt is not used up: the task goes back on the queue
+     * after a short jittered pause. The claim stays with this node meanwhile, and its lease keeps
+     * running: {@link #process} gives the task up once too little of it is left for a call.
+     */
+    private void deferForPermit(PaymentTask task) {
+        long delay = initialBackoffMs / 2 + ThreadLocalRandom.current().nextLong(initialBackoffMs / 2 + 1);
+        logger.debug("Gateway at its concurrency limit, deferring: paymentId={}, delayMs={}", task.paymentId(), delay);
+        try {
+            retryScheduler.schedule(() -> enqueue(task), delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Shutting down: the claim lease runs out and the recovery sweep picks the payment up
+            inFlight.remove(task.paymentId());
+        }
+    }
+
+    private void retryOrFail(PaymentTask task, Exception error) {
+        boolean retryable = !(error instanceof PaymentDeclinedException);
+        if (retryable && task.request() != null && task.attempt() < maxAttempts) {
+            long backoff = Math.min(maxBackoffMs, initialBackoffMs << (task.attempt() - 1));
+            long delay = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+            logger.warn("Payment attempt failed, retrying: paymentId={}, attempt={}, delayMs={}, error={}",
+                task.paymentId(), task.attempt(), delay, error.getMessage());
+            PaymentTask next = new PaymentTask(task.paymentId(), task.request(), task.attempt() + 1, task.claimedAt());
+            try {
+                retryScheduler.schedule(() -> enqueue(next), delay, TimeUnit.MILLISECONDS);
+                return;
+            } catch (RejectedExecutionException e) {
+                logger.warn("Payment retry scheduler stopped: paymentId={}", task.paymentId());
+            }
+        }
+        try {
+            finish(task.paymentId(), PaymentStatus.FAILED, null, error.getMessage());
+        } catch (Exception e) {
+            inFlight.remove(task.paymentId());
+            logger.error("Failed to record payment failure: paymentId={}, error={}", task.paymentId(), e.getMessage());
+        }
+    }
+
+    private void finish(Long paymentId, PaymentStatus outcome, String transactionId, String failureReason) {
+        try {
+            transactionTemplate.execute(status -> {
+                Payment payment = paymentRepository.findById(paymentId).orElse(null);
+                if (payment == null
+                        || !paymentStateMachine.finish(paymentId, outcome, transactionId, failureReason)) {
+                    return null;
+                }
+                rideEventOutbox.append(paymentEvent(payment, outcome));
+                return null;
+            });
+        } finally {
+            inFlight.remove(paymentId);
+        }
+        if (outcome == PaymentStatus.COMPLETED) {
+            logger.info("Payment processed successfully: paymentId={}, transactionId={}", paymentId, transactionId);
+        } else {
+            logger.error("Payment processing failed: paymentId={}, error={}", paymentId, failureReason);
+        }
+    }
+
+    private static RideEvent paymentEvent(Payment payment, PaymentStatus outcome) {
+        return RideEvent.builder()
+            .rideId(payment.getRide().getId())
+            .passengerId(payment.getPassengerId())
+            .fare(payment.getAmount())
+            .timestamp(LocalDateTime.now())
+            .eventType(outcome == PaymentStatus.COMPLETED
+                ? RideEventType.PAYMENT_COMPLETED : RideEventType.PAYMENT_FAILED)
+            .build();
+    }
+
+    // claimedAt is the System.nanoTime() of the claim this task runs on
+    record PaymentTask(Long paymentId, ChargeRequest request, int attempt, long claimedAt) {
+
+        PaymentTask(Long paymentId, ChargeRequest request, int attempt) {
+            this(paymentId, request, attempt, System.nanoTime());
+        }
+    }
+
+    // No permit within payment.gateway.permit-wait-ms: load on our side, not a gateway failure
+    static class GatewaySaturatedException extends Exception {
+    }
+}
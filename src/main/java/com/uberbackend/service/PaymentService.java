@@ -2,42 +2,50 @@ package com.uberbackend.service;
 
 import com.uberbackend.dto.request.CreatePaymentRequest;
 import com.uberbackend.model.entity.Payment;
+import com.uberbackend.model.entity.PaymentEvent;
 import com.uberbackend.model.entity.Ride;
-import com.uberbackend.model.enums.PaymentStatus;
 import com.uberbackend.repository.PaymentRepository;
 import com.uberbackend.repository.RideRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.stereotype.Repository;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
-import java.util.UUID;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 public class PaymentService {
 
     private static final Logger logger = LoggerFactory.getLogger(PaymentService.class);
+    private static final String IDEMPOTENCY_SCOPE = "payment";
 
     private final PaymentRepository paymentRepository;
     private final RideRepository rideRepository;
     private final IdempotencyService idempotencyService;
+    private final PaymentProcessor paymentProcessor;
+    private final PaymentStateMachine paymentStateMachine;
 
+    /**
+     * Accepts the payment as PENDING and hands it to {@link PaymentProcessor} after commit. The
+     * gateway call happens off the request thread, without a ride lock or an open transaction.
+     */
     @Transactional
     public Payment createPayment(CreatePaymentRequest request) {
 
-        Ride ride = rideRepository.findByIdAndTenantIdWithLock(request.getRideId()).orElseThrow(() -> new RuntimeException("Ride not found: " + request.getRideId()));
-
         if (request.getIdempotencyKey() != null && !request.getIdempotencyKey().isBlank()) {
-            if (idempotencyService.isKeyProcessed(request.getRideId(), request.getIdempotencyKey())) {
-                return paymentRepository.findByIdempotencyKey(request.getIdempotencyKey())
-                    .orElseThrow(() -> new RuntimeException("Idempotency key processed but payment not found"));
+            // Only the id is stored: a replay reads the row, which has moved on from PENDING
+            IdempotencyResult<Long> idempotency = idempotencyService.reserve(
+                IDEMPOTENCY_SCOPE, request.getRideId(), request.getIdempotencyKey(), Long.class);
+            if (idempotency.isReplay()) {
+                return paymentRepository.findById(idempotency.getResponse())
+                    .orElseThrow(() -> new RuntimeException("Payment not found: " + idempotency.getResponse()));
             }
         }
+
+        Ride ride = rideRepository.findById(request.getRideId()).orElseThrow(() -> new RuntimeException("Ride not found: " + request.getRideId()));
+
         Payment payment = Payment.builder()
             .ride(ride)
             .passengerId(ride.getPassengerId())
@@ -47,31 +55,21 @@ public class PaymentService {
             .build();
 
         payment = paymentRepository.save(payment);
+        paymentStateMachine.accepted(payment);
 
-        try {
-            payment.setStatus(PaymentStatus.PROCESSING);
-            payment = paymentRepository.save(payment);
-
-            Thread.sleep(100); // Simulate API call
-
-            payment.setStatus(PaymentStatus.COMPLETED);
-            payment.setTransactionId(UUID.randomUUID().toString());
-            payment.setProcessedAt(LocalDateTime.now());
-            payment = paymentRepository.save(payment);
+        idempotencyService.complete(IDEMPOTENCY_SCOPE, ride.getId(), request.getIdempotencyKey(), payment.getId());
+        paymentProcessor.submitAfterCommit(payment.getId());
 
-            idempotencyService.markKeyAsProcessed(ride.getId(), request.getIdempotencyKey(), payment.getId());
+        logger.info("Payment accepted: paymentId={}, rideId={}, amount={}",
+            payment.getId(), ride.getId(), payment.getAmount());
 
-            logger.info("Payment processed successfully: paymentId={}, rideId={}, amount={}", 
-                payment.getId(), request.getRideId(), ride.getActualFare());
+        return payment;
+    }
 
-        } catch (Exception e) {
-            payment.setStatus(PaymentStatus.FAILED);
-            payment.setFailureReason(e.getMessage());
-            payment = paymentRepository.save(payment);
-            logger.error("Payment processing failed: paymentId={}, error={}", payment.getId(), e.getMessage());
-            throw new RuntimeException("Payment processing failed: " + e.getMessage());
+    public List<PaymentEvent> getPaymentHistory(Long paymentId) {
+        if (!paymentRepository.existsById(paymentId)) {
+            throw new RuntimeException("Payment not found: " + paymentId);
         }
-
-        return payment;
+        return paymentStateMachine.history(paymentId);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,146 @@
+package com.uberbackend.service;
+
+import com.uberbackend.model.entity.Payment;
+import com.uberbackend.model.entity.PaymentEvent;
+import com.uberbackend.model.enums.PaymentStatus;
+import com.uberbackend.repository.PaymentEventRepository;
+import com.uberbackend.repository.PaymentRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Payment lifecycle: PENDING -> PROCESSING -> COMPLETED | FAILED (-> REFUNDED).
+ *
+ * Every state a payment enters is appended to the payment event log ({@code payment_events}). The
+ * {@code payments} row is written twice in a payment's life: inserted as PENDING by the caller and
+ * updated once, straight to the outcome. The claim (PROCESSING) exists only in the log, where the
+ * unique (payment, state, attempt) constraint keeps two workers from claiming the same attempt.
+ *
+ * A claim is a lease of {@code payment.worker.claim-lease-ms}. If the worker holding it dies (crash,
+ * restart, deploy) the payment stays PENDING, and once the lease has run out the recovery sweep
+ * finds it again and the next claim starts a new attempt. Every attempt charges with the same
+ * gateway idempotency key, and only the first outcome is written to the row.
+ */
+@Service
+@RequiredArgsConstructor
+public class PaymentStateMachine {
+
+    private static final Map<PaymentStatus, Set<PaymentStatus>> TRANSITIONS = new EnumMap<>(PaymentStatus.class);
+
+    static {
+        TRANSITIONS.put(PaymentStatus.PENDING, EnumSet.of(PaymentStatus.PROCESSING));
+        TRANSITIONS.put(PaymentStatus.PROCESSING, EnumSet.of(PaymentStatus.COMPLETED, PaymentStatus.FAILED));
+        TRANSITIONS.put(PaymentStatus.COMPLETED, EnumSet.of(PaymentStatus.REFUNDED));
+        TRANSITIONS.put(PaymentStatus.FAILED, EnumSet.noneOf(PaymentStatus.class));
+        TRANSITIONS.put(PaymentStatus.REFUNDED, EnumSet.noneOf(PaymentStatus.class));
+    }
+
+    private static final String APPEND_SQL =
+        "INSERT INTO payment_events (payment_id, status, transaction_id, failure_reason, created_at) " +
+        "VALUES (?, ?, ?, ?, ?)";
+    // Only a PENDING payment whose last claim (if any) has expired; concurrent claimers compute
+    // the same next attempt and all but one hit the unique constraint
+    private static final String CLAIM_SQL =
+        "INSERT INTO payment_events (payment_id, status, attempt, created_at) " +
+        "SELECT p.id, 'PROCESSING', COALESCE(MAX(e.attempt), 0) + 1, ? FROM payments p " +
+        "LEFT JOIN payment_events e ON e.payment_id = p.id AND e.status = 'PROCESSING' " +
+        "WHERE p.id = ? AND p.status = 'PENDING' GROUP BY p.id " +
+        "HAVING MAX(e.created_at) IS NULL OR MAX(e.created_at) < ? " +
+        "ON CONFLICT (payment_id, status, attempt) DO NOTHING";
+    // PENDING payments that are unclaimed or whose claim has expired
+    private static final String RECOVERABLE_SQL =
+        "SELECT p.id FROM payments p WHERE p.status = 'PENDING' AND p.created_at < ? " +
+        "AND NOT EXISTS (SELECT 1 FROM payment_events e WHERE e.payment_id = p.id " +
+        "AND e.status = 'PROCESSING' AND e.created_at >= ?) " +
+        "ORDER BY p.id LIMIT ?";
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentEventRepository paymentEventRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${payment.worker.claim-lease-ms:120000}")
+    private long claimLeaseMs;
+
+    public static boolean canTransition(PaymentStatus from, PaymentStatus to) {
+        return TRANSITIONS.get(from).contains(to);
+    }
+
+    /**
+     * Records the initial state of a payment the caller has just inserted.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void accepted(Payment payment) {
+        if (payment.getStatus() != PaymentStatus.PENDING) {
+            throw new IllegalStateException("Payment " + payment.getId() + " accepted as " + payment.getStatus());
+        }
+        jdbcTemplate.update(APPEND_SQL, payment.getId(), PaymentStatus.PENDING.name(), null, null, now());
+    }
+
+    /**
+     * PENDING -> PROCESSING, in the log only. False if the payment is not pending, another worker
+     * claimed it first, or an earlier claim is still within its lease.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean claim(Long paymentId) {
+        LocalDateTime now = LocalDateTime.now();
+        return jdbcTemplate.update(CLAIM_SQL, Timestamp.valueOf(now), paymentId, leaseCutoff(now)) == 1;
+    }
+
+    /**
+     * PENDING payments created before {@code createdBefore} that nobody holds a live claim on: never
+     * claimed (queue was full, node restarted before picking them up) or claimed by a worker that
+     * did not finish within the lease.
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findRecoverable(LocalDateTime createdBefore, int limit) {
+        return jdbcTemplate.queryForList(RECOVERABLE_SQL, Long.class,
+            Timestamp.valueOf(createdBefore), leaseCutoff(LocalDateTime.now()), limit);
+    }
+
+    /**
+     * PROCESSING -> outcome: the single update of the payments row, plus the terminal event. False if
+     * the payment was never claimed or already has an outcome.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean finish(Long paymentId, PaymentStatus outcome, String transactionId, String failureReason) {
+        if (!canTransition(PaymentStatus.PROCESSING, outcome)) {
+            throw new IllegalArgumentException("Not a payment outcome: " + outcome);
+        }
+        Timestamp now = now();
+        if (paymentRepository.finishIfClaimed(paymentId, outcome, transactionId, failureReason,
+                now.toLocalDateTime()) == 0) {
+            return false;
+        }
+        jdbcTemplate.update(APPEND_SQL, paymentId, outcome.name(), transactionId, failureReason, now);
+        return true;
+    }
+
+    /**
+     * Every state the payment has entered, oldest first. The last one is its current state.
+     */
+    @Transactional(readOnly = true)
+    public List<PaymentEvent> history(Long paymentId) {
+        return paymentEventRepository.findByPaymentIdOrderByIdAsc(paymentId);
+    }
+
+    private Timestamp leaseCutoff(LocalDateTime now) {
+        return Timestamp.valueOf(now.minusNanos(TimeUnit.MILLISECONDS.toNanos(claimLeaseMs)));
+    }
+
+    private static Timestamp now() {
+        return Timestamp.valueOf(LocalDateTime.now());
+    }
+}
@@ -0,0 +1,110 @@
+package com.uberbackend.service;
+
+import com.uberbackend.dto.response.DriverHistoryResponse;
+import com.uberbackend.dto.response.DriverSummaryResponse;
+import com.uberbackend.dto.response.RidePage;
+import com.uberbackend.dto.response.RideResponse;
+import com.uberbackend.repository.DriverRepository;
+import com.uberbackend.repository.RideRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Database side of the polled read endpoints. Everything here runs in a read-only transaction
+ * (no row locks, no dirty checking, routed to the replica when one is configured) and selects
+ * straight into response DTOs instead of loading managed entities. Ride listings are keyset
+ * paginated on (createdAt, id), so a deep page costs the same as the first.
+ *
+ * The exceptions are {@link #getRide} and {@link #getDriverDetail}, which fill the shared
+ * {@code ReadCaches} tier and therefore read from the primary: a replica still behind the change
+ * that evicted the entry would put the pre-change row back for every node until it expires.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ReadQueryService {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final RideRepository rideRepository;
+    private final DriverRepository driverRepository;
+
+    // Cache fill: a read-write transaction keeps it on the primary
+    @Transactional
+    public RideResponse getRide(Long rideId) {
+        return rideRepository.findResponseById(rideId)
+            .orElseThrow(() -> new RuntimeException("Ride not found: " + rideId));
+    }
+
+    // Cache fill: a read-write transaction keeps it on the primary
+    @Transactional
+    public DriverHistoryResponse getDriverDetail(Long driverId) {
+        DriverSummaryResponse driver = driverRepository.findSummaryById(driverId)
+            .orElseThrow(() -> new RuntimeException("Driver not found: " + driverId));
+        RidePage recent = getDriverRideHistory(driverId, null, DEFAULT_PAGE_SIZE);
+        return DriverHistoryResponse.builder()
+            .driver(driver)
+            .rides(recent.getItems())
+            .nextCursor(recent.getNextCursor())
+            .build();
+    }
+
+    public RidePage getDriverRideHistory(Long driverId, String cursor, int size) {
+        // One extra row tells us whether another page exists without a count query
+        PageRequest limit = PageRequest.of(0, clamp(size) + 1);
+        if (cursor == null) {
+            return toPage(rideRepository.findResponsesByDriverId(driverId, limit), clamp(size));
+        }
+        RideCursor after = RideCursor.decode(cursor);
+        return toPage(rideRepository.findResponsesByDriverIdBefore(driverId, after.createdAt(), after.id(), limit),
+            clamp(size));
+    }
+
+    public RidePage getTenantRideHistory(Long tenantId, String cursor, int size) {
+        PageRequest limit = PageRequest.of(0, clamp(size) + 1);
+        if (cursor == null) {
+            return toPage(rideRepository.findResponsesByTenantId(tenantId, limit), clamp(size));
+        }
+        RideCursor after = RideCursor.decode(cursor);
+        return toPage(rideRepository.findResponsesByTenantIdBefore(tenantId, after.createdAt(), after.id(), limit),
+            clamp(size));
+    }
+
+    /**
+     * Feeds the tenant's whole history to {@code sink} row by row from a database cursor, so memory
+     * stays flat however many rides there are. Returns the number of rides written.
+     */
+    public long exportTenantRideHistory(Long tenantId, Consumer<RideResponse> sink) {
+        long count = 0;
+        try (Stream<RideResponse> rides = rideRepository.streamResponsesByTenantId(tenantId)) {
+            for (RideResponse ride : (Iterable<RideResponse>) rides::iterator) {
+                sink.accept(ride);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int clamp(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    private static RidePage toPage(List<RideResponse> rows, int size) {
+        if (rows.size() <= size) {
+            return RidePage.builder().items(rows).build();
+        }
+        List<RideResponse> items = rows.subList(0, size);
+        RideResponse last = items.get(size - 1);
+        return RidePage.builder()
+            .items(List.copyOf(items))
+            .nextCursor(new RideCursor(last.getCreatedAt(), last.getId()).encode())
+            .build();
+    }
+}
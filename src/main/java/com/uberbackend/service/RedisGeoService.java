@@ -1,41 +1,110 @@
 package com.uberbackend.service;
 
+import com.uberbackend.geo.DriverGeoIndex;
+import com.uberbackend.geo.NearbyDriver;
 import lombok.RequiredArgsConstructor;
-import org.redisson.api.GeoUnit;
+import org.redisson.api.GeoPosition;
 import org.redisson.api.RGeo;
 import org.redisson.api.RedissonClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.util.Collection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
+/**
+ * Driver locations live in two places: the in-process {@link DriverGeoIndex}, which answers
+ * every nearby-driver query, and the Redis geo sets, which are the durable copy shared by all
+ * nodes. Writes go to both; the local index is warm-started from Redis and periodically
+ * resynced so updates received by other nodes show up here too.
+ */
 @Service
 @RequiredArgsConstructor
 public class RedisGeoService {
 
+    private static final Logger logger = LoggerFactory.getLogger(RedisGeoService.class);
     private static final String GEO_KEY_PREFIX = "drivers:geo:";
+    private static final int RELOAD_BATCH_SIZE = 500;
 
     private final RedissonClient redissonClient;
+    private final DriverGeoIndex driverGeoIndex;
 
+    // Redis first, then the index: see DriverGeoIndex#replaceCity
     public void updateDriverLocation(Long driverId, String city, double lat, double lon) {
-        String key = GEO_KEY_PREFIX + city;
+        String key = geoKey(city);
         RGeo<String> geo = redissonClient.getGeo(key);
 
         geo.add(lon, lat, driverId.toString());
+        driverGeoIndex.update(driverId, city, lat, lon);
     }
 
-    public Collection<String> findNearbyDrivers(
-            String city, double lat, double lon, double radiusKm) {
+    /**
+     * Up to {@code limit} drivers closest to the point, closest first, with their distance.
+     * The ring grows from {@code radiusKm} towards {@code maxRadiusKm} while the area is sparse.
+     */
+    public List<NearbyDriver> findNearestDrivers(
+            String city, double lat, double lon, double radiusKm, double maxRadiusKm, int limit) {
 
-        String key = GEO_KEY_PREFIX + city;
-        RGeo<String> geo = redissonClient.getGeo(key);
-
-        return geo.radius(lon, lat, radiusKm, GeoUnit.KILOMETERS);
+        return driverGeoIndex.findNearest(city, lat, lon, limit, radiusKm, maxRadiusKm);
     }
 
     public void removeDriver(Long driverId, String city) {
-        String key = GEO_KEY_PREFIX + city;
+        String key = geoKey(city);
         RGeo<String> geo = redissonClient.getGeo(key);
 
         geo.remove(driverId.toString());
+        driverGeoIndex.remove(driverId, city);
+    }
+
+    static String geoKey(String city) {
+        return GEO_KEY_PREFIX + city;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmStart() {
+        reloadFromRedis();
+    }
+
+    @Scheduled(initialDelayString = "${geo.index.resync-interval-ms:30000}",
+               fixedDelayString = "${geo.index.resync-interval-ms:30000}")
+    public void resync() {
+        reloadFromRedis();
+    }
+
+    void reloadFromRedis() {
+        try {
+            for (String key : redissonClient.getKeys().getKeysByPattern(GEO_KEY_PREFIX + "*")) {
+                String city = key.substring(GEO_KEY_PREFIX.length());
+                long readStartedAt = System.nanoTime();
+                Map<Long, double[]> positions = readPositions(redissonClient.getGeo(key));
+                driverGeoIndex.replaceCity(city, positions, readStartedAt);
+                logger.debug("Reloaded driver geo index: city={}, drivers={}", city, positions.size());
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to reload driver geo index from Redis: {}", e.getMessage());
+        }
+    }
+
+    private Map<Long, double[]> readPositions(RGeo<String> geo) {
+        List<String> members = new ArrayList<>(geo.readAll());
+        Map<Long, double[]> positions = new HashMap<>(members.size() * 2);
+        for (int from = 0; from < members.size(); from += RELOAD_BATCH_SIZE) {
+            List<String> chunk = members.subList(from, Math.min(from + RELOAD_BATCH_SIZE, members.size()));
+            Map<String, GeoPosition> found = geo.pos(chunk.toArray(new String[0]));
+            found.forEach((member, pos) -> {
+                try {
+                    positions.put(Long.parseLong(member), new double[]{pos.getLatitude(), pos.getLongitude()});
+                } catch (NumberFormatException nfe) {
+                    // skip invalid member
+                }
+            });
+        }
+        return positions;
     }
-}
\ No newline at end of file
+}
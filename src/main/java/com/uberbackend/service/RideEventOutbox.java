@@ -0,0 +1,56 @@
+package com.uberbackend.service;
+
+import com.uberbackend.event.RideEvent;
+import com.uberbackend.event.RideEventCodec;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records ride events in the outbox table as part of the caller's transaction. The event becomes
+ * visible to {@link OutboxRelay} only if the transaction commits, and the request never waits on
+ * the broker.
+ */
+@Service
+@RequiredArgsConstructor
+public class RideEventOutbox {
+
+    private static final String INSERT_SQL =
+        "INSERT INTO ride_event_outbox (ride_id, event_type, payload, created_at) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(RideEvent event) {
+        jdbcTemplate.update(INSERT_SQL, toArgs(event, Timestamp.valueOf(LocalDateTime.now())));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendAll(List<RideEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = new ArrayList<>(events.size());
+        for (RideEvent event : events) {
+            args.add(toArgs(event, now));
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, args);
+    }
+
+    private static Object[] toArgs(RideEvent event, Timestamp now) {
+        return new Object[]{
+            event.getRideId(),
+            event.getEventType().name(),
+            RideEventCodec.encode(event),
+            now
+        };
+    }
+}
@@ -1,24 +1,25 @@
 package com.uberbackend.service;
 
+import com.uberbackend.cache.ReadCaches;
 import com.uberbackend.dto.request.CreateRideRequest;
 import com.uberbackend.dto.response.RideResponse;
 import com.uberbackend.event.RideEvent;
-import com.uberbackend.model.entity.Driver;
+import com.uberbackend.geo.NearbyDriver;
 import com.uberbackend.model.entity.Ride;
-import com.uberbackend.model.enums.DriverStatus;
+import com.uberbackend.model.enums.RideEventType;
 import com.uberbackend.model.enums.RideStatus;
-import com.uberbackend.repository.DriverRepository;
 import com.uberbackend.repository.RideRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.Collection;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
@@ -26,49 +27,36 @@ public class RideService {
 
     private static final Logger logger = LoggerFactory.getLogger(RideService.class);
     private static final double SEARCH_RADIUS_KM = 5.0;
+    private static final double MAX_SEARCH_RADIUS_KM = 20.0;
+    private static final int MAX_CANDIDATES = 5;
+    private static final String IDEMPOTENCY_SCOPE = "ride";
     private static final BigDecimal BASE_FARE = new BigDecimal("2.50");
     private static final BigDecimal PER_KM_FARE = new BigDecimal("1.20");
 
     private final RideRepository rideRepository;
-    private final DriverRepository driverRepository;
     private final RedisGeoService redisGeoService;
+    private final DriverAvailabilityService driverAvailabilityService;
     private final IdempotencyService idempotencyService;
-    private final KafkaEventProducer kafkaEventProducer;
+    private final RideEventOutbox rideEventOutbox;
+    private final ReadCaches readCaches;
+    private final ReadQueryService readQueryService;
+
+    @Value("${dispatch.batch.enabled:true}")
+    private boolean batchDispatchEnabled;
 
     @Transactional
     public RideResponse createRide(CreateRideRequest request) {
 
         if (request.getIdempotencyKey() != null && !request.getIdempotencyKey().isBlank()) {
-            if (idempotencyService.isKeyProcessed(request.getPassengerId(), request.getIdempotencyKey())) {
-                Ride existingRide = rideRepository.findByIdempotencyKeyAndPassengerId(request.getIdempotencyKey(), request.getPassengerId()).orElseThrow(() -> new RuntimeException("Idempotency key processed but ride not found"));
-                return mapToResponse(existingRide);
+            IdempotencyResult<RideResponse> idempotency = idempotencyService.reserve(
+                IDEMPOTENCY_SCOPE, request.getPassengerId(), request.getIdempotencyKey(), RideResponse.class);
+            if (idempotency.isReplay()) {
+                return idempotency.getResponse();
             }
         }
 
-        Collection<String> nearbyDriverIds = redisGeoService.findNearbyDrivers(
-            request.getCity(),
-            request.getPickupLatitude().doubleValue(),
-            request.getPickupLongitude().doubleValue(),
-            SEARCH_RADIUS_KM
-        );
-
-        Long assignedDriverId = null;
-        if (!nearbyDriverIds.isEmpty()) {
-            // Find first available driver
-            for (String driverIdStr : nearbyDriverIds) {
-                try {
-                    Long driverId = Long.parseLong(driverIdStr);
-                    Driver driver = driverRepository.findByIdAndTenantIdWithLock(driverId)
-                        .orElse(null);
-                    if (driver != null && driver.getStatus() == DriverStatus.ONLINE) {
-                        assignedDriverId = driverId;
-                        break;
-                    }
-                } catch (NumberFormatException nfe) {
-                    // skip invalid member
-                }
-            }
-        }
+        // With batch dispatch on, the ride stays PENDING and DispatchScheduler matches it
+        Long assignedDriverId = batchDispatchEnabled ? null : claimNearestDriver(request);
 
         // Calculate estimated fare
         BigDecimal estimatedFare = calculateEstimatedFare(
@@ -96,37 +84,22 @@ public class RideService {
 
         ride = rideRepository.save(ride);
 
-        // Mark idempotency key as processed
-        if (request.getIdempotencyKey() != null && !request.getIdempotencyKey().isBlank()) {
-            idempotencyService.markKeyAsProcessed(request.getPassengerId(), request.getIdempotencyKey(), ride.getId());
-        }
-
-        // Publish event
-        RideEvent event = RideEvent.builder()
-            .rideId(ride.getId())
-            .passengerId(ride.getPassengerId())
-            .driverId(ride.getDriverId())
-            .status(ride.getStatus())
-            .pickupLatitude(ride.getPickupLatitude())
-            .pickupLongitude(ride.getPickupLongitude())
-            .dropoffLatitude(ride.getDropoffLatitude())
-            .dropoffLongitude(ride.getDropoffLongitude())
-            .fare(ride.getEstimatedFare())
-            .timestamp(LocalDateTime.now())
-            .eventType("CREATED")
-            .build();
-        kafkaEventProducer.sendRideEvent(event);
+        // Publish through the outbox so the event commits or rolls back with the ride
+        RideEvent event = toEvent(ride, RideEventType.CREATED);
+        rideEventOutbox.append(event);
 
         logger.info("Created ride: id={}, passengerId={}, driverId={}", 
             ride.getId(), ride.getPassengerId(), ride.getDriverId());
 
-        return mapToResponse(ride);
+        RideResponse response = mapToResponse(ride);
+        // Replays of this key get the same response once the ride commits
+        idempotencyService.complete(IDEMPOTENCY_SCOPE, request.getPassengerId(), request.getIdempotencyKey(), response);
+        return response;
     }
 
-    @Transactional
+    // Served from ReadCaches; entries are dropped by the ride events every status change publishes
     public RideResponse getRide(Long rideId) {
-        Ride ride = rideRepository.findById(rideId).orElseThrow(() -> new RuntimeException("Ride not found: " + rideId));
-        return mapToResponse(ride);
+        return readCaches.getRides().get(rideId, () -> readQueryService.getRide(rideId));
     }
 
     @Transactional
@@ -136,11 +109,32 @@ public class RideService {
 
         ride.setStatus(RideStatus.COMPLETED);
         ride = rideRepository.save(ride);
+        rideEventOutbox.append(toEvent(ride, RideEventType.COMPLETED));
 
         logger.info("Ended ride: id={}", ride.getId());
         return mapToResponse(ride);
     }
 
+    private Long claimNearestDriver(CreateRideRequest request) {
+        List<NearbyDriver> candidates = redisGeoService.findNearestDrivers(
+            request.getCity(),
+            request.getPickupLatitude().doubleValue(),
+            request.getPickupLongitude().doubleValue(),
+            SEARCH_RADIUS_KM,
+            MAX_SEARCH_RADIUS_KM,
+            MAX_CANDIDATES
+        );
+
+        // Claim the closest available driver among a bounded candidate list
+        for (NearbyDriver candidate : candidates) {
+            if (driverAvailabilityService.tryClaim(candidate.getDriverId(), request.getCity())) {
+                driverAvailabilityService.confirmClaim(candidate.getDriverId(), request.getCity());
+                return candidate.getDriverId();
+            }
+        }
+        return null;
+    }
+
     private BigDecimal calculateEstimatedFare(BigDecimal pickupLat, BigDecimal pickupLon, 
                                              BigDecimal dropoffLat, BigDecimal dropoffLon) {
         if (dropoffLat == null || dropoffLon == null) {
@@ -152,6 +146,25 @@ public class RideService {
         return BASE_FARE.add(PER_KM_FARE.multiply(new BigDecimal(distanceKm)));
     }
 
+    /**
+     * The outbox event for the ride's current state; shared by every service that changes a ride.
+     */
+    public static RideEvent toEvent(Ride ride, RideEventType eventType) {
+        return RideEvent.builder()
+            .rideId(ride.getId())
+            .passengerId(ride.getPassengerId())
+            .driverId(ride.getDriverId())
+            .status(ride.getStatus())
+            .pickupLatitude(ride.getPickupLatitude())
+            .pickupLongitude(ride.getPickupLongitude())
+            .dropoffLatitude(ride.getDropoffLatitude())
+            .dropoffLongitude(ride.getDropoffLongitude())
+            .fare(ride.getEstimatedFare())
+            .timestamp(LocalDateTime.now())
+            .eventType(eventType)
+            .build();
+    }
+
     private RideResponse mapToResponse(Ride ride) {
         return RideResponse.builder()
             .id(ride.getId())
@@ -166,6 +179,7 @@ public class RideService {
             .dropoffAddress(ride.getDropoffAddress())
             .estimatedFare(ride.getEstimatedFare())
             .actualFare(ride.getActualFare())
+            .createdAt(ride.getCreatedAt())
             .build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,246 @@
+package com.uberbackend.service;
+
+import com.uberbackend.event.RideEvent;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.utils.Utils;
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionConnectEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Knows which node holds the WebSocket session of a passenger or driver, and which
+ * {@code ride-events} partitions each node consumes, so a ride event can be produced straight
+ * to a partition of the node that will deliver it.
+ *
+ * Passengers and drivers announce themselves with {@code passenger-id} / {@code driver-id}
+ * headers on STOMP CONNECT; subscribing to {@code /topic/drivers.{id}.rides} also registers the
+ * driver. Routes are kept in Redis ({@code ws:route:<kind>:<id>} -> node id) and each node
+ * publishes its assigned partitions under {@code ws:node-partitions:<nodeId>} on every rebalance,
+ * refreshing both before their TTL runs out.
+ *
+ * A ride is routed once: the partition chosen for its first event is pinned under
+ * {@code ws:ride-partition:<rideId>} and every later event of the ride goes to the same partition,
+ * so they stay in order even when the passenger reconnects to another node. Without a session the
+ * pin is the partition the default partitioner would pick for the record key.
+ */
+@Service
+public class SessionRoutingRegistry implements ConsumerRebalanceListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionRoutingRegistry.class);
+    private static final String ROUTE_KEY_PREFIX = "ws:route:";
+    private static final String NODE_PARTITIONS_PREFIX = "ws:node-partitions:";
+    private static final String RIDE_PARTITION_PREFIX = "ws:ride-partition:";
+    private static final Duration ROUTE_TTL = Duration.ofHours(12);
+    private static final Pattern DRIVER_TOPIC = Pattern.compile("^/topic/drivers\\.(\\d+)\\.rides$");
+
+    private final RedissonClient redissonClient;
+    private final String nodeId;
+    private final boolean enabled;
+    private final int rideEventPartitions;
+
+    private final Map<String, List<String>> sessionRoutes = new ConcurrentHashMap<>();
+    private final Set<Integer> ownedPartitions = ConcurrentHashMap.newKeySet();
+
+    public SessionRoutingRegistry(RedissonClient redissonClient,
+                                  @Value("${cluster.node-id:}") String nodeId,
+                                  @Value("${cluster.routing.enabled:true}") boolean enabled,
+                                  @Value("${kafka.topics.ride-events.partitions:12}") int rideEventPartitions) {
+        // Also the Kafka group.instance.id: a random id would make every restart a new static member
+        this.redissonClient = redissonClient;
+        this.nodeId = nodeId == null || nodeId.isBlank() ? localHostName() : nodeId;
+        this.enabled = enabled;
+        this.rideEventPartitions = rideEventPartitions;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    // HOSTNAME is a shell variable rather than an exported one under bash, so a local run often has none
+    static String localHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException(
+                "cluster.node-id is not set and the host name is unknown; set NODE_ID to a stable id unique to this node", e);
+        }
+    }
+
+    /**
+     * Partition for this ride's events, or null to fall back to key partitioning when routing is
+     * off or Redis is unreachable. The first event of a ride picks a partition of the node holding
+     * its passenger's (or else driver's) session, or the key's default partition when nobody is
+     * connected; later events reuse it.
+     */
+    public Integer partitionFor(RideEvent event, String key) {
+        if (!enabled || event.getRideId() == null) {
+            return null;
+        }
+        try {
+            RBucket<String> pin = bucket(RIDE_PARTITION_PREFIX + event.getRideId());
+            String pinned = pin.get();
+            if (pinned == null) {
+                Integer partition = sessionPartition(event);
+                String chosen = String.valueOf(partition != null ? partition : keyPartition(key));
+                // Two nodes routing the ride's first events at once agree on whichever pin lands first
+                pinned = pin.setIfAbsent(chosen, ROUTE_TTL) ? chosen : pin.get();
+            }
+            return pinned == null ? null : Integer.valueOf(pinned);
+        } catch (Exception e) {
+            logger.warn("Session route lookup failed, using key partitioning: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private Integer sessionPartition(RideEvent event) {
+        String owner = null;
+        if (event.getPassengerId() != null) {
+            owner = bucket(routeKey("passenger", event.getPassengerId().toString())).get();
+        }
+        if (owner == null && event.getDriverId() != null) {
+            owner = bucket(routeKey("driver", event.getDriverId().toString())).get();
+        }
+        if (owner == null) {
+            return null;
+        }
+        String partitions = bucket(NODE_PARTITIONS_PREFIX + owner).get();
+        if (partitions == null || partitions.isBlank()) {
+            return null;
+        }
+        String[] ids = partitions.split(",");
+        // Spread one node's traffic over its partitions
+        return Integer.parseInt(ids[Math.floorMod(event.getRideId().hashCode(), ids.length)]);
+    }
+
+    // What the producer's default partitioner does for a keyed record
+    private int keyPartition(String key) {
+        return Utils.toPositive(Utils.murmur2(key.getBytes(StandardCharsets.UTF_8))) % rideEventPartitions;
+    }
+
+    /**
+     * Re-publishes the owned partitions and extends the routes of this node's live sessions, so
+     * neither expires while the node and its sessions are up.
+     */
+    @Scheduled(fixedDelayString = "${cluster.routing.refresh-interval-ms:3600000}",
+               initialDelayString = "${cluster.routing.refresh-interval-ms:3600000}")
+    public void refreshRoutes() {
+        if (!enabled) {
+            return;
+        }
+        publishPartitions();
+        try {
+            for (List<String> routes : sessionRoutes.values()) {
+                for (String routeKey : routes) {
+                    RBucket<String> route = bucket(routeKey);
+                    // Leave routes another node has taken over to that node
+                    if (nodeId.equals(route.get())) {
+                        route.expire(ROUTE_TTL);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to refresh session routes: {}", e.getMessage());
+        }
+    }
+
+    @EventListener
+    public void onConnect(SessionConnectEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        register(accessor.getSessionId(), "passenger", accessor.getFirstNativeHeader("passenger-id"));
+        register(accessor.getSessionId(), "driver", accessor.getFirstNativeHeader("driver-id"));
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        if (accessor.getDestination() == null) {
+            return;
+        }
+        Matcher matcher = DRIVER_TOPIC.matcher(accessor.getDestination());
+        if (matcher.matches()) {
+            register(accessor.getSessionId(), "driver", matcher.group(1));
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        List<String> routes = sessionRoutes.remove(event.getSessionId());
+        if (routes == null || !enabled) {
+            return;
+        }
+        for (String routeKey : routes) {
+            // Only drop the route if a newer session on another node has not taken it over
+            bucket(routeKey).compareAndSet(nodeId, null);
+        }
+    }
+
+    @Override
+    public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+        partitions.forEach(tp -> ownedPartitions.add(tp.partition()));
+        publishPartitions();
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        partitions.forEach(tp -> ownedPartitions.remove(tp.partition()));
+        publishPartitions();
+    }
+
+    private void publishPartitions() {
+        if (!enabled) {
+            return;
+        }
+        String value = new TreeSet<>(ownedPartitions).stream()
+            .map(String::valueOf)
+            .collect(Collectors.joining(","));
+        try {
+            bucket(NODE_PARTITIONS_PREFIX + nodeId).set(value, ROUTE_TTL);
+            logger.info("Published owned ride-events partitions: nodeId={}, partitions=[{}]", nodeId, value);
+        } catch (Exception e) {
+            logger.warn("Failed to publish owned partitions: {}", e.getMessage());
+        }
+    }
+
+    private void register(String sessionId, String kind, String id) {
+        if (!enabled || sessionId == null || id == null || id.isBlank()) {
+            return;
+        }
+        String routeKey = routeKey(kind, id);
+        bucket(routeKey).set(nodeId, ROUTE_TTL);
+        sessionRoutes.computeIfAbsent(sessionId, s -> new ArrayList<>()).add(routeKey);
+    }
+
+    private RBucket<String> bucket(String key) {
+        return redissonClient.getBucket(key, StringCodec.INSTANCE);
+    }
+
+    private static String routeKey(String kind, String id) {
+        return ROUTE_KEY_PREFIX + kind + ":" + id;
+    }
+}
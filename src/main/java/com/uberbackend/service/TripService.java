@@ -5,6 +5,7 @@ import com.uberbackend.model.entity.Driver;
 import com.uberbackend.model.entity.Ride;
 import com.uberbackend.model.entity.Trip;
 import com.uberbackend.model.enums.DriverStatus;
+import com.uberbackend.model.enums.RideEventType;
 import com.uberbackend.model.enums.RideStatus;
 import com.uberbackend.model.enums.TripStatus;
 import com.uberbackend.repository.DriverRepository;
@@ -25,7 +26,8 @@ public class TripService {
     private final TripRepository tripRepository;
     private final RideRepository rideRepository;
     private final DriverRepository driverRepository;
-    private final KafkaEventProducer kafkaEventProducer;
+    private final RideEventOutbox rideEventOutbox;
+    private final DriverAvailabilityService driverAvailabilityService;
 
     private static final Logger logger = LoggerFactory.getLogger(TripService.class);
 
@@ -50,6 +52,7 @@ public class TripService {
                 Driver driver = driverOpt.get();
                 driver.setStatus(DriverStatus.ONLINE);
                 driverRepository.save(driver);
+                driverAvailabilityService.releaseAfterCommit(driver.getId(), driver.getCity());
                 logger.info("Driver status set back to ONLINE: driverId={}", trip.getDriverId());
             }
         }
@@ -61,9 +64,9 @@ public class TripService {
             .status(ride.getStatus())
             .fare(ride.getActualFare() != null ? ride.getActualFare() : ride.getEstimatedFare())
             .timestamp(LocalDateTime.now())
-            .eventType("COMPLETED")
+            .eventType(RideEventType.COMPLETED)
             .build();
-        kafkaEventProducer.sendRideEvent(event);
+        rideEventOutbox.append(event);
 
         logger.info("Trip completed: tripId={}, rideId={}", tripId, ride.getId());
     }
@@ -0,0 +1,85 @@
+-- Schema as generated by ddl-auto: update before Flyway took over. Existing databases are
+-- baselined at this version (spring.flyway.baseline-on-migrate), so this script only runs on empty
+-- ones; everything added since lives in V2 onwards.
+
+CREATE TABLE tenants (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    created_at    TIMESTAMP(6) NOT NULL,
+    updated_at    TIMESTAMP(6) NOT NULL,
+    version       BIGINT,
+    name          VARCHAR(255) NOT NULL,
+    contact_email VARCHAR(200)
+);
+
+CREATE TABLE drivers (
+    id                   BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    created_at           TIMESTAMP(6) NOT NULL,
+    updated_at           TIMESTAMP(6) NOT NULL,
+    version              BIGINT,
+    tenant_id            BIGINT       NOT NULL,
+    name                 VARCHAR(255),
+    phone_number         VARCHAR(255) NOT NULL,
+    license_number       VARCHAR(255) NOT NULL,
+    vehicle_model        VARCHAR(255) NOT NULL,
+    vehicle_plate_number VARCHAR(255) NOT NULL,
+    status               VARCHAR(255) NOT NULL,
+    current_latitude     NUMERIC(10, 7),
+    current_longitude    NUMERIC(10, 7),
+    city                 VARCHAR(255),
+    location_updated_at  TIMESTAMP(6)
+);
+
+CREATE TABLE rides (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    created_at        TIMESTAMP(6)   NOT NULL,
+    updated_at        TIMESTAMP(6)   NOT NULL,
+    version           BIGINT,
+    passenger_id      BIGINT         NOT NULL,
+    driver_id         BIGINT,
+    status            VARCHAR(255)   NOT NULL,
+    pickup_latitude   NUMERIC(10, 7) NOT NULL,
+    pickup_longitude  NUMERIC(10, 7) NOT NULL,
+    dropoff_latitude  NUMERIC(10, 7),
+    dropoff_longitude NUMERIC(10, 7),
+    pickup_address    VARCHAR(500),
+    dropoff_address   VARCHAR(500),
+    estimated_fare    NUMERIC(10, 2),
+    actual_fare       NUMERIC(10, 2),
+    idempotency_key   VARCHAR(50),
+    city              VARCHAR(255)
+);
+
+CREATE TABLE trips (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    created_at   TIMESTAMP(6) NOT NULL,
+    updated_at   TIMESTAMP(6) NOT NULL,
+    version      BIGINT,
+    ride_id      BIGINT       NOT NULL REFERENCES rides (id),
+    driver_id    BIGINT       NOT NULL,
+    status       VARCHAR(255) NOT NULL,
+    started_at   TIMESTAMP(6),
+    completed_at TIMESTAMP(6),
+    distance     NUMERIC(10, 2),
+    duration     NUMERIC(10, 2)
+);
+
+CREATE TABLE payments (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    created_at      TIMESTAMP(6)   NOT NULL,
+    updated_at      TIMESTAMP(6)   NOT NULL,
+    version         BIGINT,
+    ride_id         BIGINT         NOT NULL REFERENCES rides (id),
+    passenger_id    BIGINT         NOT NULL,
+    amount          NUMERIC(10, 2) NOT NULL,
+    status          VARCHAR(255)   NOT NULL,
+    payment_method  VARCHAR(50),
+    transaction_id  VARCHAR(100),
+    idempotency_key VARCHAR(50) UNIQUE,
+    processed_at    TIMESTAMP(6),
+    failure_reason  VARCHAR(500)
+);
+
+-- Indexes declared on the entities at this version
+CREATE INDEX idx_payment_passenger_status ON payments (passenger_id, status);
+CREATE INDEX idx_payment_ride ON payments (passenger_id, ride_id);
+CREATE UNIQUE INDEX idx_payment_idempotency ON payments (idempotency_key);
@@ -0,0 +1,68 @@
+-- Tables, constraints and indexes added after the baseline schema. IF NOT EXISTS throughout
+-- because databases baselined from ddl-auto may already carry some of them.
+
+-- Transactional outbox written with each ride change and drained by OutboxRelay
+CREATE TABLE IF NOT EXISTS ride_event_outbox (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    ride_id         BIGINT       NOT NULL,
+    event_type      VARCHAR(20)  NOT NULL,
+    payload         BYTEA        NOT NULL,
+    created_at      TIMESTAMP(6) NOT NULL,
+    published_at    TIMESTAMP(6),
+    kafka_partition INTEGER,
+    kafka_offset    BIGINT
+);
+
+CREATE INDEX IF NOT EXISTS idx_outbox_unpublished ON ride_event_outbox (published_at, id);
+
+-- Driver identity columns are unique; DriverOnboardingService inserts with ON CONFLICT DO NOTHING.
+-- Fails on a database that already holds duplicates, which have to be merged by hand first.
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_drivers_phone_number') THEN
+        ALTER TABLE drivers ADD CONSTRAINT uk_drivers_phone_number UNIQUE (phone_number);
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_drivers_license_number') THEN
+        ALTER TABLE drivers ADD CONSTRAINT uk_drivers_license_number UNIQUE (license_number);
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_drivers_vehicle_plate_number') THEN
+        ALTER TABLE drivers ADD CONSTRAINT uk_drivers_vehicle_plate_number UNIQUE (vehicle_plate_number);
+    END IF;
+END
+$$;
+
+-- Drivers of a tenant (TenantService, DriverRepository.findFirstByTenantIdOrderByIdAsc)
+CREATE INDEX IF NOT EXISTS idx_drivers_tenant_id ON drivers (tenant_id, id);
+
+-- Ride history of a driver, newest first, keyset paged
+CREATE INDEX IF NOT EXISTS idx_rides_driver_created ON rides (driver_id, created_at, id);
+
+-- TenantRepository.findByContactEmail (IdentityService)
+CREATE INDEX IF NOT EXISTS idx_tenants_contact_email ON tenants (contact_email);
+
+-- RideRepository.findByIdempotencyKeyAndPassengerId; most rides carry no key
+CREATE INDEX IF NOT EXISTS idx_rides_idempotency_passenger
+    ON rides (idempotency_key, passenger_id) WHERE idempotency_key IS NOT NULL;
+
+-- RideRepository.findPendingRidesCreatedBefore (DispatchScheduler expiry); only the PENDING rows are indexed
+CREATE INDEX IF NOT EXISTS idx_rides_pending_created
+    ON rides (created_at, id) WHERE status = 'PENDING';
+
+-- Pending rides of one city, oldest first (DispatchScheduler)
+CREATE INDEX IF NOT EXISTS idx_rides_status_city
+    ON rides (status, city, created_at, id);
+
+-- Trips of a ride; also backs the rides foreign key
+CREATE INDEX IF NOT EXISTS idx_trips_ride_id ON trips (ride_id);
+
+-- DriverRepository.findByStatusIn (DriverAvailabilityService resync)
+CREATE INDEX IF NOT EXISTS idx_drivers_status ON drivers (status);
+
+-- TenantRepository.findByName
+CREATE INDEX IF NOT EXISTS idx_tenants_name ON tenants (name);
+
+-- Payments of one status, oldest first (PaymentStateMachine.findRecoverable)
+CREATE INDEX IF NOT EXISTS idx_payment_status_created ON payments (status, created_at, id);
+
+-- OutboxRelay batch select: unpublished rows in id order, without walking the published ones
+CREATE INDEX IF NOT EXISTS idx_outbox_pending ON ride_event_outbox (id) WHERE published_at IS NULL;
@@ -0,0 +1,38 @@
+-- Sequence-generated ids for the BaseEntity tables, replacing IDENTITY so Hibernate can batch
+-- inserts. Each sequence increments by 50 (the allocation size): one nextval hands Hibernate's
+-- pooled optimizer the block (value - 49 .. value). Sequences start past the current max id so
+-- the first block does not overlap existing rows.
+--
+-- The column default stays on the same sequence for plain JDBC inserts (bulk driver onboarding):
+-- such a row takes the top of a block nobody else holds, so it cannot collide with Hibernate's
+-- ids; it only leaves the rest of that block unused.
+
+CREATE SEQUENCE IF NOT EXISTS tenant_seq INCREMENT BY 50;
+SELECT setval('tenant_seq', COALESCE(MAX(id), 0) + 50, false) FROM tenants;
+ALTER TABLE tenants ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE tenants ALTER COLUMN id SET DEFAULT nextval('tenant_seq');
+ALTER SEQUENCE tenant_seq OWNED BY tenants.id;
+
+CREATE SEQUENCE IF NOT EXISTS driver_seq INCREMENT BY 50;
+SELECT setval('driver_seq', COALESCE(MAX(id), 0) + 50, false) FROM drivers;
+ALTER TABLE drivers ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE drivers ALTER COLUMN id SET DEFAULT nextval('driver_seq');
+ALTER SEQUENCE driver_seq OWNED BY drivers.id;
+
+CREATE SEQUENCE IF NOT EXISTS ride_seq INCREMENT BY 50;
+SELECT setval('ride_seq', COALESCE(MAX(id), 0) + 50, false) FROM rides;
+ALTER TABLE rides ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE rides ALTER COLUMN id SET DEFAULT nextval('ride_seq');
+ALTER SEQUENCE ride_seq OWNED BY rides.id;
+
+CREATE SEQUENCE IF NOT EXISTS trip_seq INCREMENT BY 50;
+SELECT setval('trip_seq', COALESCE(MAX(id), 0) + 50, false) FROM trips;
+ALTER TABLE trips ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE trips ALTER COLUMN id SET DEFAULT nextval('trip_seq');
+ALTER SEQUENCE trip_seq OWNED BY trips.id;
+
+CREATE SEQUENCE IF NOT EXISTS payment_seq INCREMENT BY 50;
+SELECT setval('payment_seq', COALESCE(MAX(id), 0) + 50, false) FROM payments;
+ALTER TABLE payments ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE payments ALTER COLUMN id SET DEFAULT nextval('payment_seq');
+ALTER SEQUENCE payment_seq OWNED BY payments.id;
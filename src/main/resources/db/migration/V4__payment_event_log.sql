@@ -0,0 +1,31 @@
+-- Append-only log of payment state transitions. The payments row keeps only the initial (PENDING)
+-- and terminal states; PROCESSING is recorded here only. A claim is a lease: once its PROCESSING
+-- event is older than payment.worker.claim-lease-ms the payment can be claimed again, as the next
+-- attempt.
+
+CREATE TABLE payment_events (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    payment_id     BIGINT       NOT NULL REFERENCES payments (id),
+    status         VARCHAR(20)  NOT NULL,
+    attempt        INTEGER      NOT NULL DEFAULT 1,
+    transaction_id VARCHAR(100),
+    failure_reason VARCHAR(500),
+    created_at     TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_payment_events_payment_status UNIQUE (payment_id, status, attempt)
+);
+
+-- Backfill the history of existing payments from what their rows still show
+INSERT INTO payment_events (payment_id, status, created_at)
+SELECT id, 'PENDING', created_at FROM payments;
+
+INSERT INTO payment_events (payment_id, status, created_at)
+SELECT id, 'PROCESSING', updated_at FROM payments WHERE status <> 'PENDING';
+
+INSERT INTO payment_events (payment_id, status, transaction_id, failure_reason, created_at)
+SELECT id, status, transaction_id, failure_reason, COALESCE(processed_at, updated_at)
+FROM payments WHERE status NOT IN ('PENDING', 'PROCESSING');
+
+-- Claimed payments now show PENDING on the row. Their PROCESSING event above is as old as the
+-- row's last update, so a payment that was in flight at deploy time is re-claimed by the recovery
+-- sweep once that lease has run out.
+UPDATE payments SET status = 'PENDING' WHERE status = 'PROCESSING';
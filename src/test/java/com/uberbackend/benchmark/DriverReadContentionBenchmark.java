@@ -0,0 +1,129 @@
+package com.uberbackend.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Dashboard-style polling of {@code GET /drivers/{id}/detail} while the same drivers toggle their
+ * status, against a running instance. The number to watch is the p99 of the status writes: when
+ * the detail read took {@code SELECT ... FOR UPDATE} every poll queued the writer behind it; with
+ * read-only reads the writes should stay flat as the reader count grows. Run it against builds
+ * before and after the change with the same settings.
+ *
+ * <pre>
+ * mvn test -Pbenchmark -Dbenchmark.baseUrl=http://localhost:8080 \
+ *     -Dbenchmark.driverIds=1,2,3 -Dbenchmark.readers=200 -Dbenchmark.writes=500
+ * </pre>
+ */
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmark.baseUrl", matches = ".+")
+class DriverReadContentionBenchmark {
+
+    @Test
+    void statusWritesUnderDetailPolling() throws Exception {
+        String baseUrl = System.getProperty("benchmark.baseUrl");
+        long[] driverIds = parseIds(System.getProperty("benchmark.driverIds", "1"));
+        int readers = Integer.getInteger("benchmark.readers", 200);
+        int writes = Integer.getInteger("benchmark.writes", 500);
+
+        HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+        LatencyRecorder reads = new LatencyRecorder(1 << 20);
+        LatencyRecorder writeLatency = new LatencyRecorder(writes * driverIds.length);
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch readersDone = new CountDownLatch(readers);
+        long elapsed;
+
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int r = 0; r < readers; r++) {
+                long driverId = driverIds[r % driverIds.length];
+                pool.submit(() -> {
+                    try {
+                        while (running.get()) {
+                            send(client, get(baseUrl + "/drivers/" + driverId + "/detail"), reads);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        readersDone.countDown();
+                    }
+                });
+            }
+
+            long begin = System.nanoTime();
+            CountDownLatch writersDone = new CountDownLatch(driverIds.length);
+            for (long driverId : driverIds) {
+                pool.submit(() -> {
+                    try {
+                        for (int i = 0; i < writes; i++) {
+                            String status = i % 2 == 0 ? "OFFLINE" : "ONLINE";
+                            send(client, post(baseUrl + "/drivers/" + driverId + "/setStatus?status=" + status),
+                                writeLatency);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        writersDone.countDown();
+                    }
+                });
+            }
+            writersDone.await();
+            elapsed = System.nanoTime() - begin;
+            running.set(false);
+            readersDone.await(30, TimeUnit.SECONDS);
+        }
+
+        System.out.println(writeLatency.summary("POST /drivers/{id}/setStatus readers=" + readers, elapsed));
+        System.out.println(reads.summary("GET /drivers/{id}/detail readers=" + readers, elapsed));
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    private static HttpRequest post(String url) {
+        return HttpRequest.newBuilder(URI.create(url))
+            .timeout(Duration.ofSeconds(30))
+            .POST(HttpRequest.BodyPublishers.noBody())
+            .build();
+    }
+
+    private static void send(HttpClient client, HttpRequest request, LatencyRecorder recorder)
+            throws InterruptedException {
+        long begin = System.nanoTime();
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() >= 400) {
+                recorder.error();
+            } else {
+                recorder.record(System.nanoTime() - begin);
+            }
+        } catch (java.io.IOException e) {
+            recorder.error();
+        }
+    }
+
+    private static long[] parseIds(String ids) {
+        String[] parts = ids.split(",");
+        long[] parsed = new long[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            parsed[i] = Long.parseLong(parts[i].trim());
+        }
+        return parsed;
+    }
+}
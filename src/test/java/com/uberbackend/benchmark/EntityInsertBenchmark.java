@@ -0,0 +1,205 @@
+package com.uberbackend.benchmark;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Bulk insert throughput of rides and payments with IDENTITY ids (schema at V2) against pooled
+ * sequence ids (latest schema), on an in-process Postgres. Each side issues the statements
+ * Hibernate does for its id strategy with {@code hibernate.jdbc.batch_size: 20}:
+ *
+ * <ul>
+ *   <li>IDENTITY: one {@code INSERT ... RETURNING id} round trip per entity, no batching</li>
+ *   <li>SEQUENCE (pooled, allocation 50): one {@code nextval} per 50 entities, ids assigned in
+ *   memory, inserts flushed as JDBC batches of 20</li>
+ * </ul>
+ *
+ * <pre>
+ * mvn test -Pbenchmark -Dtest=EntityInsertBenchmark -Dbenchmark.rides=20000
+ * </pre>
+ */
+@Tag("benchmark")
+class EntityInsertBenchmark {
+
+    private static final int BATCH_SIZE = 20;
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final String RIDE_COLUMNS =
+        "created_at, updated_at, version, passenger_id, status, pickup_latitude, pickup_longitude, city";
+    private static final String PAYMENT_COLUMNS =
+        "created_at, updated_at, version, ride_id, passenger_id, amount, status, idempotency_key";
+
+    @Test
+    void rideAndPaymentBulkInsert() throws Exception {
+        int rides = Integer.getInteger("benchmark.rides", 20000);
+
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.start()) {
+            DataSource dataSource = postgres.getPostgresDatabase();
+
+            migrate(dataSource, "2");
+            run("IDENTITY", dataSource, rides, false);
+
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("TRUNCATE payments, trips, rides");
+            }
+            migrate(dataSource, null);
+            run("SEQUENCE pooled", dataSource, rides, true);
+        }
+    }
+
+    private void run(String label, DataSource dataSource, int rides, boolean batched) throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+
+            long begin = System.nanoTime();
+            long[] rideIds = batched ? insertRidesBatched(connection, rides) : insertRidesOneByOne(connection, rides);
+            connection.commit();
+            long ridesElapsed = System.nanoTime() - begin;
+
+            begin = System.nanoTime();
+            if (batched) {
+                insertPaymentsBatched(connection, rideIds);
+            } else {
+                insertPaymentsOneByOne(connection, rideIds);
+            }
+            connection.commit();
+            long paymentsElapsed = System.nanoTime() - begin;
+
+            System.out.println(summary(label + " rides", rides, ridesElapsed));
+            System.out.println(summary(label + " payments", rides, paymentsElapsed));
+        }
+    }
+
+    private long[] insertRidesOneByOne(Connection connection, int count) throws Exception {
+        long[] ids = new long[count];
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO rides (" + RIDE_COLUMNS + ") VALUES (?, ?, 0, ?, 'PENDING', ?, ?, 'BANGALORE') RETURNING id")) {
+            for (int i = 0; i < count; i++) {
+                bindRide(insert, i, 1);
+                try (ResultSet rs = insert.executeQuery()) {
+                    rs.next();
+                    ids[i] = rs.getLong(1);
+                }
+            }
+        }
+        return ids;
+    }
+
+    private long[] insertRidesBatched(Connection connection, int count) throws Exception {
+        long[] ids = new long[count];
+        try (PreparedStatement nextval = connection.prepareStatement("SELECT nextval('ride_seq')");
+             PreparedStatement insert = connection.prepareStatement(
+                 "INSERT INTO rides (id, " + RIDE_COLUMNS + ") VALUES (?, ?, ?, 0, ?, 'PENDING', ?, ?, 'BANGALORE')")) {
+            IdBlock block = new IdBlock(nextval);
+            for (int i = 0; i < count; i++) {
+                ids[i] = block.next();
+                insert.setLong(1, ids[i]);
+                bindRide(insert, i, 2);
+                addToBatch(insert, i, count);
+            }
+        }
+        return ids;
+    }
+
+    private void insertPaymentsOneByOne(Connection connection, long[] rideIds) throws Exception {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO payments (" + PAYMENT_COLUMNS + ") VALUES (?, ?, 0, ?, ?, ?, 'COMPLETED', ?) RETURNING id")) {
+            for (int i = 0; i < rideIds.length; i++) {
+                bindPayment(insert, rideIds[i], i, 1);
+                try (ResultSet rs = insert.executeQuery()) {
+                    rs.next();
+                }
+            }
+        }
+    }
+
+    private void insertPaymentsBatched(Connection connection, long[] rideIds) throws Exception {
+        try (PreparedStatement nextval = connection.prepareStatement("SELECT nextval('payment_seq')");
+             PreparedStatement insert = connection.prepareStatement(
+                 "INSERT INTO payments (id, " + PAYMENT_COLUMNS + ") VALUES (?, ?, ?, 0, ?, ?, ?, 'COMPLETED', ?)")) {
+            IdBlock block = new IdBlock(nextval);
+            for (int i = 0; i < rideIds.length; i++) {
+                insert.setLong(1, block.next());
+                bindPayment(insert, rideIds[i], i, 2);
+                addToBatch(insert, i, rideIds.length);
+            }
+        }
+    }
+
+    private static void bindRide(PreparedStatement insert, int i, int first) throws Exception {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        insert.setTimestamp(first, now);
+        insert.setTimestamp(first + 1, now);
+        insert.setLong(first + 2, 1000L + i);
+        insert.setBigDecimal(first + 3, new BigDecimal("12.9715987"));
+        insert.setBigDecimal(first + 4, new BigDecimal("77.5945627"));
+    }
+
+    private static void bindPayment(PreparedStatement insert, long rideId, int i, int first) throws Exception {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        insert.setTimestamp(first, now);
+        insert.setTimestamp(first + 1, now);
+        insert.setLong(first + 2, rideId);
+        insert.setLong(first + 3, 1000L + i);
+        insert.setBigDecimal(first + 4, new BigDecimal("250.00"));
+        insert.setString(first + 5, "bench-" + rideId);
+    }
+
+    private static void addToBatch(PreparedStatement insert, int i, int count) throws Exception {
+        insert.addBatch();
+        if ((i + 1) % BATCH_SIZE == 0 || i == count - 1) {
+            insert.executeBatch();
+        }
+    }
+
+    private static void migrate(DataSource dataSource, String target) {
+        var configuration = Flyway.configure().dataSource(dataSource).locations("classpath:db/migration");
+        if (target != null) {
+            configuration.target(target);
+        }
+        configuration.load().migrate();
+    }
+
+    private static String summary(String label, int rows, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        return String.format("%s: rows=%d elapsed=%.0fms throughput=%.0f/s", label, rows, seconds * 1000, rows / seconds);
+    }
+
+    /**
+     * What Hibernate's pooled optimizer does: each nextval is the top of a block of
+     * {@link #ALLOCATION_SIZE} ids that are then handed out from memory.
+     */
+    private static final class IdBlock {
+
+        private final PreparedStatement nextval;
+        private long next;
+        private long hi = -1;
+
+        IdBlock(PreparedStatement nextval) {
+            this.nextval = nextval;
+        }
+
+        long next() throws Exception {
+            if (next > hi) {
+                try (ResultSet rs = nextval.executeQuery()) {
+                    rs.next();
+                    hi = rs.getLong(1);
+                }
+                next = hi - ALLOCATION_SIZE + 1;
+            }
+            return next++;
+        }
+    }
+}
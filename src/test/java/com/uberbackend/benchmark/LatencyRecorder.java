@@ -0,0 +1,51 @@
+package com.uberbackend.benchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency sink for load benchmarks: a fixed array of samples, summarised once at the end.
+ */
+public class LatencyRecorder {
+
+    private final AtomicLongArray samples;
+    private final AtomicInteger count = new AtomicInteger();
+    private final AtomicInteger errors = new AtomicInteger();
+
+    public LatencyRecorder(int capacity) {
+        this.samples = new AtomicLongArray(capacity);
+    }
+
+    public void record(long nanos) {
+        int i = count.getAndIncrement();
+        if (i < samples.length()) {
+            samples.set(i, nanos);
+        }
+    }
+
+    public void error() {
+        errors.incrementAndGet();
+    }
+
+    public String summary(String label, long elapsedNanos) {
+        int n = Math.min(count.get(), samples.length());
+        long[] sorted = new long[n];
+        for (int i = 0; i < n; i++) {
+            sorted[i] = samples.get(i);
+        }
+        Arrays.sort(sorted);
+        double seconds = elapsedNanos / 1e9;
+        return String.format("%s: requests=%d errors=%d throughput=%.0f/s p50=%.1fms p99=%.1fms max=%.1fms",
+            label, n, errors.get(), n / seconds,
+            percentileMs(sorted, 0.50), percentileMs(sorted, 0.99), percentileMs(sorted, 1.0));
+    }
+
+    private static double percentileMs(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
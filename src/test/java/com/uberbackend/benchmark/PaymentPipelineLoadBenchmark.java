@@ -0,0 +1,119 @@
+package com.uberbackend.benchmark;
+
+import com.uberbackend.model.entity.Payment;
+import com.uberbackend.model.entity.Ride;
+import com.uberbackend.model.enums.PaymentStatus;
+import com.uberbackend.payment.SimulatedGatewayProperties;
+import com.uberbackend.payment.SimulatedGatewayProperties.LatencyModel;
+import com.uberbackend.payment.SimulatedPaymentGateway;
+import com.uberbackend.repository.PaymentRepository;
+import com.uberbackend.service.PaymentProcessor;
+import com.uberbackend.service.PaymentStateMachine;
+import com.uberbackend.service.RideEventOutbox;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Drives {@link PaymentProcessor} against {@link SimulatedPaymentGateway} with an in-memory payment
+ * store, so worker pool, gateway limiter, timeout and retry settings can be compared under each
+ * latency model on one machine. Reports time from submit to terminal state.
+ *
+ * <pre>
+ * mvn test -Pbenchmark -Dtest=PaymentPipelineLoadBenchmark -Dbenchmark.payments=20000 \
+ *     -Dbenchmark.failureRate=0.02 -Dbenchmark.hangRate=0.001
+ * </pre>
+ */
+@Tag("benchmark")
+class PaymentPipelineLoadBenchmark {
+
+    @Test
+    void paymentThroughputPerLatencyModel() throws Exception {
+        for (LatencyModel model : LatencyModel.values()) {
+            run(model);
+        }
+    }
+
+    private void run(LatencyModel model) throws Exception {
+        int payments = Integer.getInteger("benchmark.payments", 20_000);
+        SimulatedGatewayProperties gatewayProperties = new SimulatedGatewayProperties();
+        gatewayProperties.setLatency(model);
+        gatewayProperties.setFailureRate(Double.parseDouble(System.getProperty("benchmark.failureRate", "0.01")));
+        gatewayProperties.setDeclineRate(Double.parseDouble(System.getProperty("benchmark.declineRate", "0.01")));
+        gatewayProperties.setHangRate(Double.parseDouble(System.getProperty("benchmark.hangRate", "0.001")));
+        gatewayProperties.setSeed(42);
+
+        Map<Long, Payment> store = new ConcurrentHashMap<>();
+        Map<Long, Long> submittedAt = new ConcurrentHashMap<>();
+        LatencyRecorder recorder = new LatencyRecorder(payments);
+        CountDownLatch finished = new CountDownLatch(payments);
+
+        PaymentRepository repository = mock(PaymentRepository.class, withSettings().stubOnly());
+        when(repository.findById(anyLong())).thenAnswer(invocation -> Optional.ofNullable(store.get(invocation.<Long>getArgument(0))));
+        PaymentStateMachine stateMachine = mock(PaymentStateMachine.class, withSettings().stubOnly());
+        Set<Long> claimed = ConcurrentHashMap.newKeySet();
+        when(stateMachine.claim(anyLong())).thenAnswer(invocation -> claimed.add(invocation.<Long>getArgument(0)));
+        when(stateMachine.finish(anyLong(), any(PaymentStatus.class), any(), any())).thenAnswer(invocation -> {
+            Long paymentId = invocation.getArgument(0);
+            if (invocation.getArgument(1) == PaymentStatus.COMPLETED) {
+                recorder.record(System.nanoTime() - submittedAt.get(paymentId));
+            } else {
+                recorder.error();
+            }
+            finished.countDown();
+            return true;
+        });
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class, withSettings().stubOnly());
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        PaymentProcessor processor = new PaymentProcessor(repository,
+            stateMachine,
+            mock(RideEventOutbox.class, withSettings().stubOnly()),
+            transactionTemplate,
+            new SimulatedPaymentGateway(gatewayProperties));
+        ReflectionTestUtils.setField(processor, "poolSize", Integer.getInteger("benchmark.workers", 64));
+        ReflectionTestUtils.setField(processor, "queueCapacity", payments);
+        ReflectionTestUtils.setField(processor, "gatewayMaxConcurrency", Integer.getInteger("benchmark.gatewayConcurrency", 256));
+        ReflectionTestUtils.setField(processor, "claimLeaseMs", 120000L);
+        ReflectionTestUtils.setField(processor, "permitWaitMs", 5000L);
+        ReflectionTestUtils.setField(processor, "gatewayTimeoutMs", Long.getLong("benchmark.timeoutMs", 2000L));
+        ReflectionTestUtils.setField(processor, "maxAttempts", 3);
+        ReflectionTestUtils.setField(processor, "initialBackoffMs", 50L);
+        ReflectionTestUtils.setField(processor, "maxBackoffMs", 1000L);
+        // Lifecycle callbacks are package-private; the container calls them in the application
+        ReflectionTestUtils.invokeMethod(processor, "start");
+
+        Ride ride = new Ride();
+        ride.setId(1L);
+        for (long id = 1; id <= payments; id++) {
+            Payment payment = Payment.builder().ride(ride).passengerId(id).amount(new BigDecimal("20.00")).build();
+            payment.setId(id);
+            store.put(id, payment);
+        }
+
+        long begin = System.nanoTime();
+        for (long id = 1; id <= payments; id++) {
+            submittedAt.put(id, System.nanoTime());
+            processor.submit(id);
+        }
+        finished.await(10, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - begin;
+        ReflectionTestUtils.invokeMethod(processor, "stop");
+
+        System.out.println(recorder.summary("payments latency=" + model, elapsed));
+    }
+}
@@ -0,0 +1,114 @@
+package com.uberbackend.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Closed-loop load on {@code POST /rides} against a running instance. Run it once with
+ * {@code VIRTUAL_THREADS_ENABLED=false} and once with {@code true} on the server and compare the
+ * printed throughput and p99. The client itself always uses virtual threads so it can hold
+ * thousands of requests open without becoming the bottleneck.
+ *
+ * <pre>
+ * mvn test -Pbenchmark -Dbenchmark.baseUrl=http://localhost:8080 \
+ *     -Dbenchmark.concurrency=2000 -Dbenchmark.requestsPerClient=20
+ * </pre>
+ */
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmark.baseUrl", matches = ".+")
+class RideCreationLoadBenchmark {
+
+    private static final String BODY = """
+        {"passengerId": %d, "city": "%s",
+         "pickupLatitude": %.6f, "pickupLongitude": %.6f,
+         "dropoffLatitude": %.6f, "dropoffLongitude": %.6f,
+         "idempotencyKey": "%s"}""";
+
+    @Test
+    void createRidesUnderConcurrentLoad() throws Exception {
+        String baseUrl = System.getProperty("benchmark.baseUrl");
+        int concurrency = Integer.getInteger("benchmark.concurrency", 2000);
+        int requestsPerClient = Integer.getInteger("benchmark.requestsPerClient", 20);
+        int warmupPerClient = Integer.getInteger("benchmark.warmupPerClient", 2);
+        String city = System.getProperty("benchmark.city", "nyc");
+        String tenantId = System.getProperty("benchmark.tenantId", "tenant-1");
+
+        HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+        run(client, baseUrl, city, tenantId, concurrency, warmupPerClient, null);
+        LatencyRecorder recorder = new LatencyRecorder(concurrency * requestsPerClient);
+        long elapsed = run(client, baseUrl, city, tenantId, concurrency, requestsPerClient, recorder);
+        System.out.println(recorder.summary("POST /rides concurrency=" + concurrency, elapsed));
+    }
+
+    private long run(HttpClient client, String baseUrl, String city, String tenantId,
+                     int concurrency, int requestsPerClient, LatencyRecorder recorder) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(concurrency);
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < concurrency; c++) {
+                long passengerId = 1_000_000L + c;
+                clients.submit(() -> {
+                    try {
+                        start.await();
+                        for (int i = 0; i < requestsPerClient; i++) {
+                            send(client, baseUrl, city, tenantId, passengerId, recorder);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            done.await();
+            return System.nanoTime() - begin;
+        }
+    }
+
+    private void send(HttpClient client, String baseUrl, String city, String tenantId,
+                      long passengerId, LatencyRecorder recorder) throws InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double lat = 40.70 + random.nextDouble(0.1);
+        double lon = -74.01 + random.nextDouble(0.1);
+        String body = String.format(BODY, passengerId, city, lat, lon, lat + 0.02, lon + 0.02, UUID.randomUUID());
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/rides"))
+            .header("Content-Type", "application/json")
+            .header("X-Tenant-Id", tenantId)
+            .timeout(Duration.ofSeconds(30))
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+        long begin = System.nanoTime();
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            if (recorder != null) {
+                if (response.statusCode() >= 400) {
+                    recorder.error();
+                } else {
+                    recorder.record(System.nanoTime() - begin);
+                }
+            }
+        } catch (java.io.IOException e) {
+            if (recorder != null) {
+                recorder.error();
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.uberbackend.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uberbackend.dto.response.RideResponse;
+import com.uberbackend.model.enums.RideStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TwoLevelCacheTest {
+
+    private static final String SHARED_KEY = "cache:ride:7";
+    private static final String GENERATION_KEY = "cache:ride:7:gen";
+    private static final List<String> KEYS = List.of(SHARED_KEY, GENERATION_KEY);
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private TwoLevelCache<RideResponse> cache;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().when(valueOperations.multiGet(KEYS)).thenReturn(Arrays.asList(null, null));
+        lenient().when(redisTemplate.execute(any(RedisScript.class), eq(KEYS), any(), any(), any())).thenReturn(1L);
+        cache = new TwoLevelCache<>("ride", objectMapper.constructType(RideResponse.class), 100,
+            Duration.ofMinutes(1), Duration.ofMinutes(5), redisTemplate, objectMapper, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testGet_MissLoadsOnceAndFillsBothTiers() {
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        RideResponse first = cache.get(7L, () -> { loads.incrementAndGet(); return ride(); });
+        RideResponse second = cache.get(7L, () -> { loads.incrementAndGet(); return ride(); });
+
+        // Assert
+        assertEquals(7L, first.getId());
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        verify(valueOperations, times(1)).multiGet(KEYS);
+        verify(redisTemplate).execute(any(RedisScript.class), eq(KEYS), contains("\"id\":7"), eq("300000"), eq(""));
+    }
+
+    @Test
+    void testGet_SharedHitSkipsLoader() throws Exception {
+        // Arrange
+        when(valueOperations.multiGet(KEYS)).thenReturn(Arrays.asList(objectMapper.writeValueAsString(ride()), "3"));
+
+        // Act
+        RideResponse response = cache.get(7L, () -> fail("loader must not run on a shared hit"));
+
+        // Assert
+        assertEquals(RideStatus.ASSIGNED, response.getStatus());
+        verify(redisTemplate, never()).execute(any(RedisScript.class), eq(KEYS), any(), any(), any());
+    }
+
+    @Test
+    void testEvictAll_DeletesSharedKeysAndReloads() {
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(7L, () -> { loads.incrementAndGet(); return ride(); });
+
+        // Act
+        cache.evictAll(List.of(7L));
+        cache.get(7L, () -> { loads.incrementAndGet(); return ride(); });
+
+        // Assert
+        verify(redisTemplate).execute(any(RedisScript.class), eq(KEYS), eq("300000"));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testGet_FillRacedByEvictionIsNotCached() {
+        // Arrange: the row is read at generation 3, then a committed change evicts the key
+        when(valueOperations.multiGet(KEYS)).thenReturn(Arrays.asList(null, "3"));
+        when(redisTemplate.execute(any(RedisScript.class), eq(KEYS), anyString(), anyString(), eq("3"))).thenReturn(0L);
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        RideResponse stale = cache.get(7L, () -> { loads.incrementAndGet(); return ride(); });
+        cache.get(7L, () -> { loads.incrementAndGet(); return ride(); });
+
+        // Assert: the stale row is returned to its caller but kept out of both tiers
+        assertEquals(7L, stale.getId());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testGet_RedisDownFallsBackToLoader() {
+        // Arrange
+        when(valueOperations.multiGet(KEYS)).thenThrow(new RedisConnectionFailureException("down"));
+
+        // Act
+        RideResponse response = cache.get(7L, TwoLevelCacheTest::ride);
+
+        // Assert
+        assertEquals(7L, response.getId());
+    }
+
+    private static RideResponse ride() {
+        return RideResponse.builder().id(7L).passengerId(1L).driverId(2L).status(RideStatus.ASSIGNED).build();
+    }
+}
@@ -0,0 +1,54 @@
+package com.uberbackend.config;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KafkaProducerPropertiesTest {
+
+    @Test
+    void testProfileFor_MappedTopicAndDefault() {
+        // Arrange
+        KafkaProducerProperties properties = new KafkaProducerProperties();
+        properties.setDefaultProfile("low-latency");
+        properties.getTopics().put("ride-events", "high-throughput");
+
+        // Act & Assert
+        assertEquals("high-throughput", properties.profileFor("ride-events"));
+        assertEquals("low-latency", properties.profileFor("payments"));
+    }
+
+    @Test
+    void testToProducerConfig_IdempotenceCapsInFlightRequests() {
+        KafkaProducerProperties.Profile profile = new KafkaProducerProperties.Profile();
+        profile.setCompressionType("lz4");
+        profile.setLingerMs(10);
+        profile.setBatchSize(262144);
+        profile.setMaxInFlightRequestsPerConnection(10);
+
+        Map<String, Object> config = profile.toProducerConfig();
+
+        assertEquals("all", config.get(ProducerConfig.ACKS_CONFIG));
+        assertEquals(true, config.get(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG));
+        assertEquals("lz4", config.get(ProducerConfig.COMPRESSION_TYPE_CONFIG));
+        assertEquals(10, config.get(ProducerConfig.LINGER_MS_CONFIG));
+        assertEquals(262144, config.get(ProducerConfig.BATCH_SIZE_CONFIG));
+        assertEquals(5, config.get(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION));
+    }
+
+    @Test
+    void testToProducerConfig_NonIdempotentKeepsInFlightSetting() {
+        KafkaProducerProperties.Profile profile = new KafkaProducerProperties.Profile();
+        profile.setIdempotence(false);
+        profile.setAcks("1");
+        profile.setMaxInFlightRequestsPerConnection(10);
+
+        Map<String, Object> config = profile.toProducerConfig();
+
+        assertEquals("1", config.get(ProducerConfig.ACKS_CONFIG));
+        assertEquals(10, config.get(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION));
+    }
+}
@@ -0,0 +1,32 @@
+package com.uberbackend.config;
+
+import com.uberbackend.event.RideEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.mockito.Mockito.*;
+
+class KafkaProducerTemplatesTest {
+
+    @Test
+    void testDestroy_ClosesEveryProfileProducer() {
+        // Arrange
+        DefaultKafkaProducerFactory<String, RideEvent> lowLatency = spy(new DefaultKafkaProducerFactory<>(Map.of()));
+        DefaultKafkaProducerFactory<String, RideEvent> highThroughput = spy(new DefaultKafkaProducerFactory<>(Map.of()));
+        doThrow(new IllegalStateException("broker gone")).when(lowLatency).destroy();
+        Map<String, KafkaTemplate<String, RideEvent>> templates = new LinkedHashMap<>();
+        templates.put("low-latency", new KafkaTemplate<>(lowLatency));
+        templates.put("high-throughput", new KafkaTemplate<>(highThroughput));
+
+        // Act
+        new KafkaProducerTemplates(new KafkaProducerProperties(), templates).destroy();
+
+        // Assert: a failing profile does not keep the others open
+        verify(lowLatency).destroy();
+        verify(highThroughput).destroy();
+    }
+}
@@ -0,0 +1,27 @@
+package com.uberbackend.config;
+
+import com.uberbackend.payment.SimulatedGatewayProperties;
+import com.uberbackend.payment.SimulatedPaymentGateway;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentGatewayConfigTest {
+
+    private final PaymentGatewayConfig config = new PaymentGatewayConfig();
+
+    @Test
+    void testPaymentGateway_SimulatorByName() {
+        assertInstanceOf(SimulatedPaymentGateway.class,
+            config.paymentGateway(SimulatedPaymentGateway.NAME, new SimulatedGatewayProperties()));
+    }
+
+    @Test
+    void testPaymentGateway_UnknownProviderFailsWithSupportedNames() {
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+            () -> config.paymentGateway("stripe", new SimulatedGatewayProperties()));
+
+        assertTrue(e.getMessage().contains("'stripe'"));
+        assertTrue(e.getMessage().contains(SimulatedPaymentGateway.NAME));
+    }
+}
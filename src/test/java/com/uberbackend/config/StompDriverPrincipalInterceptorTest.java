@@ -0,0 +1,49 @@
+package com.uberbackend.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StompDriverPrincipalInterceptorTest {
+
+    private final StompDriverPrincipalInterceptor interceptor = new StompDriverPrincipalInterceptor();
+    private final ExecutorSubscribableChannel channel = new ExecutorSubscribableChannel();
+
+    @Test
+    void testPreSend_ConnectBindsDriverPrincipal() {
+        // Act
+        Message<?> result = interceptor.preSend(message(StompCommand.CONNECT, "7"), channel);
+
+        // Assert
+        assertEquals(new DriverPrincipal(7L), SimpMessageHeaderAccessor.getUser(result.getHeaders()));
+    }
+
+    @Test
+    void testPreSend_SendCannotChooseItsDriver() {
+        // Act
+        Message<?> result = interceptor.preSend(message(StompCommand.SEND, "7"), channel);
+
+        // Assert
+        assertNull(SimpMessageHeaderAccessor.getUser(result.getHeaders()));
+    }
+
+    @Test
+    void testPreSend_RejectsNonNumericDriverId() {
+        assertThrows(MessagingException.class, () -> interceptor.preSend(message(StompCommand.CONNECT, "abc"), channel));
+    }
+
+    private static Message<byte[]> message(StompCommand command, String driverId) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setSessionId("session-1");
+        accessor.setNativeHeader(StompDriverPrincipalInterceptor.DRIVER_ID_HEADER, driverId);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,55 @@
+package com.uberbackend.config;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebSocketMetricsInterceptorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final WebSocketMetricsInterceptor interceptor = new WebSocketMetricsInterceptor(registry);
+
+    @Test
+    void testPreSend_RecordsLatencyPerTopic() {
+        // Arrange
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination("/topic/drivers.42.rides");
+        accessor.setNativeHeader(WebSocketMetricsInterceptor.PUBLISHED_AT_HEADER,
+            String.valueOf(System.currentTimeMillis() - 25));
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+
+        // Act
+        interceptor.preSend(message, null);
+
+        // Assert
+        Timer timer = registry.find("websocket.fanout.latency")
+            .tag("destination", "/topic/drivers.{id}.rides")
+            .timer();
+        assertNotNull(timer);
+        assertEquals(1, timer.count());
+    }
+
+    @Test
+    void testPreSend_IgnoresUnstampedMessages() {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination("/topic/rides.7");
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+
+        interceptor.preSend(message, null);
+
+        assertNull(registry.find("websocket.fanout.latency").timer());
+    }
+
+    @Test
+    void testNormalize() {
+        assertEquals("/topic/rides.{id}", WebSocketMetricsInterceptor.normalize("/topic/rides.123"));
+        assertEquals("/topic/drivers.{id}.rides", WebSocketMetricsInterceptor.normalize("/topic/drivers.42.rides"));
+        assertEquals("unknown", WebSocketMetricsInterceptor.normalize(null));
+    }
+}
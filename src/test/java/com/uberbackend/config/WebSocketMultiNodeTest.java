@@ -0,0 +1,139 @@
+package com.uberbackend.config;
+
+import com.uberbackend.consumer.RideEventConsumer;
+import com.uberbackend.event.RideEvent;
+import com.uberbackend.model.enums.RideEventType;
+import com.uberbackend.model.enums.RideStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two nodes behind one shared broker, as in {@code websocket.broker.mode: relay}. An in-JVM
+ * {@link SimpleBrokerMessageHandler} with the application's destination matcher stands in for
+ * RabbitMQ: every node publishes to it, and it hands each message to the node that holds the
+ * subscribing session, the way each node's relay connection forwards broker frames to its own
+ * clients.
+ */
+class WebSocketMultiNodeTest {
+
+    private final ExecutorSubscribableChannel clientInbound = new ExecutorSubscribableChannel();
+    private final ExecutorSubscribableChannel clientOutbound = new ExecutorSubscribableChannel();
+    private final ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+
+    private final Map<String, Node> sessionOwners = new HashMap<>();
+    private SimpleBrokerMessageHandler broker;
+
+    @BeforeEach
+    void setUp() {
+        broker = new SimpleBrokerMessageHandler(clientInbound, clientOutbound, brokerChannel, List.of("/topic", "/queue"));
+        broker.setPathMatcher(WebSocketConfig.destinationPathMatcher());
+        broker.start();
+        clientOutbound.subscribe(message -> {
+            if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) {
+                return;
+            }
+            String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+            sessionOwners.get(sessionId).received.add(message);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        broker.stop();
+    }
+
+    @Test
+    void testRideEvent_ReachesSubscribersOnEveryNode() {
+        // Arrange
+        Node nodeA = new Node("node-a");
+        Node nodeB = new Node("node-b");
+        nodeA.subscribe("passenger-session", "/topic/rides.42");
+        nodeB.subscribe("driver-session", "/topic/drivers.7.rides");
+
+        // Act: node A consumes the event, the subscribers are spread over both nodes
+        nodeA.consume(event(42L, 7L));
+
+        // Assert
+        assertEquals(List.of("/topic/rides.42"), nodeA.destinations());
+        assertEquals(List.of("/topic/drivers.7.rides"), nodeB.destinations());
+    }
+
+    @Test
+    void testWildcardSubscription_MatchesDottedSegmentsOnly() {
+        // Arrange
+        Node nodeA = new Node("node-a");
+        Node nodeB = new Node("node-b");
+        nodeB.subscribe("dashboard-session", "/topic/drivers.*.rides");
+        nodeB.subscribe("other-ride-session", "/topic/rides.43");
+
+        // Act
+        nodeA.consume(event(42L, 7L));
+
+        // Assert
+        assertEquals(List.of("/topic/drivers.7.rides"), nodeB.destinations());
+        assertTrue(nodeA.received.isEmpty());
+    }
+
+    private final class Node {
+
+        private final String nodeId;
+        private final RideEventConsumer consumer;
+        private final List<Message<?>> received = new ArrayList<>();
+
+        Node(String nodeId) {
+            this.nodeId = nodeId;
+            this.consumer = new RideEventConsumer(new SimpMessagingTemplate(brokerChannel), new SimpleMeterRegistry());
+        }
+
+        void subscribe(String sessionId, String destination) {
+            sessionOwners.put(sessionId, this);
+            SimpMessageHeaderAccessor connect = SimpMessageHeaderAccessor.create(SimpMessageType.CONNECT);
+            connect.setSessionId(sessionId);
+            clientInbound.send(MessageBuilder.createMessage(new byte[0], connect.getMessageHeaders()));
+            SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+            accessor.setSessionId(sessionId);
+            accessor.setSubscriptionId(nodeId + "-sub-" + sessionOwners.size());
+            accessor.setDestination(destination);
+            clientInbound.send(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()));
+        }
+
+        void consume(RideEvent event) {
+            consumer.consumeRideEvents(List.of(new ConsumerRecord<>("ride-events", 0, 0L, "key", event)));
+        }
+
+        List<String> destinations() {
+            return received.stream()
+                .map(message -> SimpMessageHeaderAccessor.getDestination(message.getHeaders()))
+                .toList();
+        }
+    }
+
+    private static RideEvent event(Long rideId, Long driverId) {
+        return RideEvent.builder()
+            .rideId(rideId)
+            .passengerId(101L)
+            .driverId(driverId)
+            .status(RideStatus.ASSIGNED)
+            .eventType(RideEventType.UPDATED)
+            .timestamp(LocalDateTime.now())
+            .build();
+    }
+}
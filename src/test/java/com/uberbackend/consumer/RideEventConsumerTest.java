@@ -0,0 +1,102 @@
+package com.uberbackend.consumer;
+
+import com.uberbackend.event.RideEvent;
+import com.uberbackend.model.enums.RideEventType;
+import com.uberbackend.model.enums.RideStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RideEventConsumerTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 3, 1, 8, 0);
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RideEventConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        consumer = new RideEventConsumer(messagingTemplate, meterRegistry);
+    }
+
+    @Test
+    void testConsumeRideEvents_PushesOnlyNewestStatusPerRide() {
+        // Arrange
+        List<ConsumerRecord<String, RideEvent>> batch = List.of(
+            record(0, event(1L, null, RideStatus.PENDING, T0)),
+            record(1, event(2L, null, RideStatus.PENDING, T0)),
+            record(2, event(1L, 200L, RideStatus.ASSIGNED, T0.plusSeconds(2))),
+            record(3, event(1L, 200L, RideStatus.IN_PROGRESS, T0.plusSeconds(5)))
+        );
+
+        // Act
+        consumer.consumeRideEvents(batch);
+
+        // Assert
+        verify(messagingTemplate).convertAndSend(eq("/topic/rides.1"),
+            argThat((Object e) -> ((RideEvent) e).getStatus() == RideStatus.IN_PROGRESS), anyMap());
+        verify(messagingTemplate).convertAndSend(eq("/topic/drivers.200.rides"), any(Object.class), anyMap());
+        verify(messagingTemplate).convertAndSend(eq("/topic/rides.2"), any(Object.class), anyMap());
+        verifyNoMoreInteractions(messagingTemplate);
+        assertEquals(2.0, meterRegistry.counter("ride.events.consumer.coalesced").count());
+    }
+
+    @Test
+    void testCoalesce_OlderTimestampDoesNotOverrideNewer() {
+        List<ConsumerRecord<String, RideEvent>> batch = List.of(
+            record(0, event(1L, 200L, RideStatus.COMPLETED, T0.plusSeconds(10))),
+            record(1, event(1L, 200L, RideStatus.ASSIGNED, T0))
+        );
+
+        List<RideEvent> latest = List.copyOf(RideEventConsumer.coalesce(batch));
+
+        assertEquals(1, latest.size());
+        assertEquals(RideStatus.COMPLETED, latest.get(0).getStatus());
+    }
+
+    @Test
+    void testConsumeRideEvents_FailedPushDoesNotStopBatch() {
+        doThrow(new RuntimeException("session closed"))
+            .when(messagingTemplate).convertAndSend(eq("/topic/rides.1"), any(Object.class), anyMap());
+
+        consumer.consumeRideEvents(List.of(
+            record(0, event(1L, null, RideStatus.PENDING, T0)),
+            record(1, event(2L, null, RideStatus.PENDING, T0))
+        ));
+
+        verify(messagingTemplate).convertAndSend(eq("/topic/rides.2"), any(Object.class), anyMap());
+    }
+
+    private static ConsumerRecord<String, RideEvent> record(long offset, RideEvent event) {
+        return new ConsumerRecord<>("ride-events", 0, offset, "key", event);
+    }
+
+    private static RideEvent event(Long rideId, Long driverId, RideStatus status, LocalDateTime timestamp) {
+        return RideEvent.builder()
+            .rideId(rideId)
+            .passengerId(101L)
+            .driverId(driverId)
+            .status(status)
+            .timestamp(timestamp)
+            .eventType(RideEventType.UPDATED)
+            .build();
+    }
+}
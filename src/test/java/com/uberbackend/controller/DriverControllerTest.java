@@ -0,0 +1,108 @@
+package com.uberbackend.controller;
+
+import com.uberbackend.dto.request.DriverLocationUpdateRequest;
+import com.uberbackend.service.DriverOnboardingService;
+import com.uberbackend.service.DriverService;
+import com.uberbackend.service.HistoryService;
+import com.uberbackend.service.TenantService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(DriverController.class)
+class DriverControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private DriverService driverService;
+
+    @MockBean
+    private DriverOnboardingService driverOnboardingService;
+
+    @MockBean
+    private HistoryService historyService;
+
+    @MockBean
+    private TenantService tenantService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testUpdateLocationsNdjson_ReportsBadLinesAndAppliesTheRest() throws Exception {
+        // Arrange
+        String body = String.join("\n",
+            "{\"driverId\": 1, \"latitude\": 18.50, \"longitude\": 73.80, \"city\": \"Pune\"}",
+            "{\"driverId\": 2, \"latitude\": 18.5",
+            "",
+            "{\"driverId\": 3, \"latitude\": 95.0, \"longitude\": 73.80, \"city\": \"Pune\"}",
+            "{\"driverId\": 4, \"latitude\": 18.52, \"longitude\": 73.82, \"city\": \"Pune\"}");
+
+        // Act & Assert
+        mockMvc.perform(post("/drivers/locations")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(body))
+            .andExpect(status().isAccepted())
+            .andExpect(jsonPath("$.accepted").value(2))
+            .andExpect(jsonPath("$.rejected").value(2))
+            .andExpect(jsonPath("$.errors[0].index").value(1))
+            .andExpect(jsonPath("$.errors[0].message").value(startsWith("Malformed JSON")))
+            .andExpect(jsonPath("$.errors[1].index").value(3))
+            .andExpect(jsonPath("$.errors[1].field").value("latitude"));
+
+        ArgumentCaptor<List<DriverLocationUpdateRequest>> applied = ArgumentCaptor.forClass(List.class);
+        verify(driverService).updateDriverLocations(applied.capture());
+        assertEquals(List.of(1L, 4L), applied.getValue().stream().map(DriverLocationUpdateRequest::getDriverId).toList());
+    }
+
+    @Test
+    void testUpdateLocationsNdjson_OnlyBadLinesAppliesNothing() throws Exception {
+        mockMvc.perform(post("/drivers/locations")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content("not json\n{\"latitude\": 18.50, \"longitude\": 73.80}\n"))
+            .andExpect(status().isAccepted())
+            .andExpect(jsonPath("$.accepted").value(0))
+            .andExpect(jsonPath("$.rejected").value(2))
+            .andExpect(jsonPath("$.errors[1].field").value("driverId"));
+
+        verify(driverService, never()).updateDriverLocations(anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testUpdateLocations_ReportsInvalidRowsByIndex() throws Exception {
+        // Arrange
+        String body = "[" +
+            "{\"driverId\": 1, \"latitude\": 18.50, \"longitude\": 73.80, \"city\": \"Pune\"}," +
+            "{\"driverId\": 2, \"longitude\": 73.80, \"city\": \"Pune\"}" +
+            "]";
+
+        // Act & Assert
+        mockMvc.perform(post("/drivers/locations")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+            .andExpect(status().isAccepted())
+            .andExpect(jsonPath("$.accepted").value(1))
+            .andExpect(jsonPath("$.rejected").value(1))
+            .andExpect(jsonPath("$.errors[0].index").value(1))
+            .andExpect(jsonPath("$.errors[0].field").value("latitude"));
+
+        ArgumentCaptor<List<DriverLocationUpdateRequest>> applied = ArgumentCaptor.forClass(List.class);
+        verify(driverService).updateDriverLocations(applied.capture());
+        assertEquals(new BigDecimal("18.50"), applied.getValue().get(0).getLatitude());
+    }
+}
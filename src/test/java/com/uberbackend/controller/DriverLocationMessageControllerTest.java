@@ -0,0 +1,128 @@
+package com.uberbackend.controller;
+
+import com.uberbackend.config.DriverPrincipal;
+import com.uberbackend.config.WebSocketConfig;
+import com.uberbackend.service.DriverLocationIngestionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.annotation.support.SimpAnnotationMethodMessageHandler;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Drives {@link DriverLocationMessageController} through the annotation handler the broker config
+ * sets up, so destination mapping, payload conversion, validation and the {@code @SendToUser}
+ * error reply all run as they do for a live session.
+ */
+@ExtendWith(MockitoExtension.class)
+class DriverLocationMessageControllerTest {
+
+    private static final String LOCATION = "{\"latitude\": 18.50, \"longitude\": 73.80, \"city\": \"Pune\"}";
+
+    @Mock
+    private DriverLocationIngestionService driverLocationIngestionService;
+
+    private final ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+    private final List<Message<?>> replies = new ArrayList<>();
+
+    private GenericApplicationContext context;
+    private SimpAnnotationMethodMessageHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        context = new GenericApplicationContext();
+        context.registerBean(DriverLocationMessageController.class,
+            () -> new DriverLocationMessageController(driverLocationIngestionService));
+        context.refresh();
+
+        LocalValidatorFactoryBean validator = new LocalValidatorFactoryBean();
+        validator.afterPropertiesSet();
+
+        brokerChannel.subscribe(replies::add);
+        handler = new SimpAnnotationMethodMessageHandler(
+            new ExecutorSubscribableChannel(), new ExecutorSubscribableChannel(), new SimpMessagingTemplate(brokerChannel));
+        handler.setDestinationPrefixes(List.of("/app"));
+        handler.setPathMatcher(WebSocketConfig.destinationPathMatcher());
+        handler.setMessageConverter(new MappingJackson2MessageConverter());
+        handler.setValidator(validator);
+        handler.setApplicationContext(context);
+        handler.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void testUpdateLocation_UsesDriverOfSessionPrincipal() {
+        // Act: the payload claims driver 99, the session belongs to driver 7
+        handler.handleMessage(send("{\"driverId\": 99, \"latitude\": 18.50, \"longitude\": 73.80, \"city\": \"Pune\"}",
+            new DriverPrincipal(7L)));
+
+        // Assert
+        verify(driverLocationIngestionService).submit(7L, "Pune", 18.50, 73.80);
+        assertTrue(replies.isEmpty());
+    }
+
+    @Test
+    void testUpdateLocation_SessionWithoutDriverGetsErrorReply() {
+        // Act
+        handler.handleMessage(send(LOCATION, null));
+
+        // Assert
+        verifyNoInteractions(driverLocationIngestionService);
+        assertEquals("/user/session-1/queue/errors", destinationOf(replies.get(0)));
+        assertTrue(((Map<?, ?>) replies.get(0).getPayload()).get("error").toString().contains("driver-id"));
+    }
+
+    @Test
+    void testUpdateLocation_InvalidPayloadGetsErrorReplyToSessionUser() {
+        // Act
+        handler.handleMessage(send("{\"latitude\": 95.0, \"longitude\": 73.80, \"city\": \"Pune\"}",
+            new DriverPrincipal(7L)));
+
+        // Assert
+        verifyNoInteractions(driverLocationIngestionService);
+        assertEquals(1, replies.size());
+        assertEquals("/user/driver-7/queue/errors", destinationOf(replies.get(0)));
+        assertNotNull(((Map<?, ?>) replies.get(0).getPayload()).get("error"));
+    }
+
+    private static Message<byte[]> send(String payload, Principal user) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination("/app/location");
+        accessor.setSessionId("session-1");
+        accessor.setSessionAttributes(new HashMap<>());
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setUser(user);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(payload.getBytes(StandardCharsets.UTF_8), accessor.getMessageHeaders());
+    }
+
+    private static String destinationOf(Message<?> message) {
+        return SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+    }
+}
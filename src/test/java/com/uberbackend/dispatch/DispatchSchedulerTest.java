@@ -0,0 +1,197 @@
+package com.uberbackend.dispatch;
+
+import com.uberbackend.event.RideEvent;
+import com.uberbackend.geo.NearbyDriver;
+import com.uberbackend.model.entity.Ride;
+import com.uberbackend.model.enums.RideEventType;
+import com.uberbackend.model.enums.RideStatus;
+import com.uberbackend.repository.RideRepository;
+import com.uberbackend.service.DriverAvailabilityService;
+import com.uberbackend.service.RedisGeoService;
+import com.uberbackend.service.RideEventOutbox;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DispatchSchedulerTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    @Mock
+    private RideRepository rideRepository;
+
+    @Mock
+    private RedisGeoService redisGeoService;
+
+    @Mock
+    private DriverAvailabilityService driverAvailabilityService;
+
+    @Mock
+    private RideEventOutbox rideEventOutbox;
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private RLock lock;
+
+    @InjectMocks
+    private DispatchScheduler dispatchScheduler;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(dispatchScheduler, "enabled", true);
+        ReflectionTestUtils.setField(dispatchScheduler, "maxRidesPerWindow", 2);
+        ReflectionTestUtils.setField(dispatchScheduler, "candidatesPerRide", 8);
+        ReflectionTestUtils.setField(dispatchScheduler, "windowMs", 1500L);
+        ReflectionTestUtils.setField(dispatchScheduler, "pendingTimeoutMs", 300000L);
+
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().when(redissonClient.getLock(anyString())).thenReturn(lock);
+        lenient().when(rideRepository.findPendingRidesCreatedBefore(any(), any())).thenReturn(List.of());
+    }
+
+    @Test
+    void testDispatchPendingRides_LoadsEachCityOnItsOwn() throws Exception {
+        // Arrange
+        Ride bangalore = ride(1L, "BANGALORE", 0);
+        Ride mumbai = ride(2L, "MUMBAI", 0);
+        when(lock.tryLock(anyLong(), anyLong(), any())).thenReturn(true);
+        when(rideRepository.findPendingRideCities()).thenReturn(List.of("BANGALORE", "MUMBAI"));
+        when(rideRepository.findPendingRidesByCity("BANGALORE", PageRequest.of(0, 2))).thenReturn(List.of(bangalore));
+        when(rideRepository.findPendingRidesByCity("MUMBAI", PageRequest.of(0, 2))).thenReturn(List.of(mumbai));
+        when(redisGeoService.findNearestDrivers(eq("BANGALORE"), anyDouble(), anyDouble(), anyDouble(), anyDouble(), anyInt()))
+            .thenReturn(List.of(new NearbyDriver(10L, 1.0)));
+        when(redisGeoService.findNearestDrivers(eq("MUMBAI"), anyDouble(), anyDouble(), anyDouble(), anyDouble(), anyInt()))
+            .thenReturn(List.of(new NearbyDriver(20L, 1.0)));
+        when(driverAvailabilityService.tryClaim(anyLong(), anyString())).thenReturn(true);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1});
+
+        // Act
+        dispatchScheduler.dispatchPendingRides();
+
+        // Assert
+        verify(redissonClient).getLock("dispatch:lock:BANGALORE");
+        verify(redissonClient).getLock("dispatch:lock:MUMBAI");
+        verify(driverAvailabilityService).tryClaim(10L, "BANGALORE");
+        verify(driverAvailabilityService).tryClaim(20L, "MUMBAI");
+        assertEquals(RideStatus.ASSIGNED, bangalore.getStatus());
+        assertEquals(RideStatus.ASSIGNED, mumbai.getStatus());
+    }
+
+    @Test
+    void testDispatchPendingRides_SkipsCityLockedByAnotherNode() throws Exception {
+        // Arrange
+        when(lock.tryLock(anyLong(), anyLong(), any())).thenReturn(false);
+        when(rideRepository.findPendingRideCities()).thenReturn(List.of("BANGALORE"));
+
+        // Act
+        dispatchScheduler.dispatchPendingRides();
+
+        // Assert
+        verify(rideRepository, never()).findPendingRidesByCity(anyString(), any());
+        verifyNoInteractions(redisGeoService);
+    }
+
+    @Test
+    void testNextPendingRides_ContinuesAfterFullWindow() {
+        // Arrange
+        Ride first = ride(1L, "BANGALORE", 0);
+        Ride second = ride(2L, "BANGALORE", 1);
+        Ride third = ride(3L, "BANGALORE", 2);
+        when(rideRepository.findPendingRidesByCity("BANGALORE", PageRequest.of(0, 2))).thenReturn(List.of(first, second));
+        when(rideRepository.findPendingRidesByCityAfter("BANGALORE", second.getCreatedAt(), 2L, PageRequest.of(0, 2)))
+            .thenReturn(List.of(third));
+
+        // Act
+        List<Ride> firstWindow = dispatchScheduler.nextPendingRides("BANGALORE");
+        List<Ride> secondWindow = dispatchScheduler.nextPendingRides("BANGALORE");
+
+        // Assert
+        assertEquals(List.of(first, second), firstWindow);
+        assertEquals(List.of(third), secondWindow);
+    }
+
+    @Test
+    void testNextPendingRides_WrapsToOldestAfterShortWindow() {
+        // Arrange
+        Ride first = ride(1L, "BANGALORE", 0);
+        Ride second = ride(2L, "BANGALORE", 1);
+        Ride third = ride(3L, "BANGALORE", 2);
+        when(rideRepository.findPendingRidesByCity("BANGALORE", PageRequest.of(0, 2))).thenReturn(List.of(first, second));
+        when(rideRepository.findPendingRidesByCityAfter("BANGALORE", second.getCreatedAt(), 2L, PageRequest.of(0, 2)))
+            .thenReturn(List.of(third));
+
+        // Act
+        dispatchScheduler.nextPendingRides("BANGALORE");
+        dispatchScheduler.nextPendingRides("BANGALORE");
+        List<Ride> thirdWindow = dispatchScheduler.nextPendingRides("BANGALORE");
+
+        // Assert
+        assertEquals(List.of(first, second), thirdWindow);
+        verify(rideRepository, times(2)).findPendingRidesByCity("BANGALORE", PageRequest.of(0, 2));
+    }
+
+    @Test
+    void testExpireStaleRides_CancelsAndPublishesOnlyRidesStillPending() {
+        // Arrange
+        Ride stale = ride(1L, "BANGALORE", 0);
+        Ride assignedMeanwhile = ride(2L, "BANGALORE", 1);
+        when(rideRepository.findPendingRidesCreatedBefore(any(), eq(PageRequest.of(0, 2))))
+            .thenReturn(List.of(stale, assignedMeanwhile));
+        when(jdbcTemplate.batchUpdate(contains("CANCELLED"), anyList())).thenReturn(new int[]{1, 0});
+
+        // Act
+        dispatchScheduler.expireStaleRides();
+
+        // Assert
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<RideEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(rideEventOutbox).appendAll(events.capture());
+        assertEquals(1, events.getValue().size());
+        assertEquals(1L, events.getValue().get(0).getRideId());
+        assertEquals(RideEventType.CANCELLED, events.getValue().get(0).getEventType());
+        assertEquals(RideStatus.CANCELLED, stale.getStatus());
+        assertEquals(RideStatus.PENDING, assignedMeanwhile.getStatus());
+    }
+
+    private static Ride ride(Long id, String city, int minutes) {
+        Ride ride = Ride.builder()
+            .passengerId(100L + id)
+            .status(RideStatus.PENDING)
+            .pickupLatitude(new BigDecimal("12.9715987"))
+            .pickupLongitude(new BigDecimal("77.5945627"))
+            .city(city)
+            .build();
+        ride.setId(id);
+        ride.setCreatedAt(CREATED.plusMinutes(minutes));
+        return ride;
+    }
+}
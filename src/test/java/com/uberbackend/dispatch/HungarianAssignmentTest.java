@@ -0,0 +1,64 @@
+package com.uberbackend.dispatch;
+
+import org.junit.jupiter.api.Test;
+
+import static com.uberbackend.dispatch.HungarianAssignment.FORBIDDEN;
+import static org.junit.jupiter.api.Assertions.*;
+
+class HungarianAssignmentTest {
+
+    @Test
+    void testSolve_MinimisesTotalCost() {
+        // Greedy would give row 0 column 0 (1.0) and force row 1 onto column 1 (10.0)
+        double[][] cost = {
+            {1.0, 2.0},
+            {1.5, 10.0}
+        };
+
+        int[] result = HungarianAssignment.solve(cost);
+
+        assertArrayEquals(new int[]{1, 0}, result);
+    }
+
+    @Test
+    void testSolve_MoreColumnsThanRows() {
+        double[][] cost = {
+            {4.0, 1.0, 3.0},
+            {2.0, 0.5, 5.0}
+        };
+
+        int[] result = HungarianAssignment.solve(cost);
+
+        assertArrayEquals(new int[]{1, 0}, result);
+    }
+
+    @Test
+    void testSolve_MoreRowsThanColumns() {
+        double[][] cost = {
+            {3.0},
+            {1.0},
+            {2.0}
+        };
+
+        int[] result = HungarianAssignment.solve(cost);
+
+        assertArrayEquals(new int[]{-1, 0, -1}, result);
+    }
+
+    @Test
+    void testSolve_ForbiddenPairsStayUnassigned() {
+        double[][] cost = {
+            {FORBIDDEN, FORBIDDEN},
+            {2.0, FORBIDDEN}
+        };
+
+        int[] result = HungarianAssignment.solve(cost);
+
+        assertArrayEquals(new int[]{-1, 0}, result);
+    }
+
+    @Test
+    void testSolve_Empty() {
+        assertEquals(0, HungarianAssignment.solve(new double[0][0]).length);
+    }
+}
@@ -0,0 +1,101 @@
+package com.uberbackend.event;
+
+import com.uberbackend.model.enums.RideEventType;
+import com.uberbackend.model.enums.RideStatus;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RideEventCodecTest {
+
+    @Test
+    void testRoundTrip_AllFields() {
+        // Arrange
+        RideEvent event = RideEvent.builder()
+            .rideId(1L)
+            .passengerId(101L)
+            .driverId(200L)
+            .status(RideStatus.ASSIGNED)
+            .pickupLatitude(new BigDecimal("12.9715987"))
+            .pickupLongitude(new BigDecimal("77.5945627"))
+            .dropoffLatitude(new BigDecimal("-33.8688197"))
+            .dropoffLongitude(new BigDecimal("-179.9999999"))
+            .fare(new BigDecimal("142.37"))
+            .timestamp(LocalDateTime.of(2024, 3, 1, 8, 30, 15, 123_000_000))
+            .eventType(RideEventType.UPDATED)
+            .build();
+
+        // Act
+        byte[] bytes = RideEventCodec.encode(event);
+        RideEvent decoded = RideEventCodec.decode(bytes);
+
+        // Assert
+        assertEquals(event, decoded);
+        assertEquals(RideEventCodec.CURRENT_VERSION, bytes[0]);
+        assertTrue(bytes.length <= 64, "payload should stay compact: " + bytes.length);
+    }
+
+    @Test
+    void testRoundTrip_AbsentFieldsTakeNoSpace() {
+        RideEvent event = RideEvent.builder()
+            .rideId(5L)
+            .passengerId(6L)
+            .eventType(RideEventType.COMPLETED)
+            .build();
+
+        byte[] bytes = RideEventCodec.encode(event);
+
+        assertEquals(1 + 2 + 8 + 8 + 1, bytes.length);
+        assertEquals(event, RideEventCodec.decode(bytes));
+    }
+
+    @Test
+    void testRoundTrip_FareBeyondDoublePrecisionAndHalfCentRounding() {
+        RideEvent large = RideEvent.builder().fare(new BigDecimal("90071992547409.93")).build();
+        RideEvent halfCent = RideEvent.builder().fare(new BigDecimal("10.005")).build();
+
+        assertEquals(new BigDecimal("90071992547409.93"), RideEventCodec.decode(RideEventCodec.encode(large)).getFare());
+        assertEquals(new BigDecimal("10.01"), RideEventCodec.decode(RideEventCodec.encode(halfCent)).getFare());
+    }
+
+    @Test
+    void testDecode_FutureVersionWithTrailingFields() {
+        byte[] v1 = RideEventCodec.encode(RideEvent.builder().rideId(9L).build());
+        byte[] v2 = new byte[v1.length + 4];
+        System.arraycopy(v1, 0, v2, 0, v1.length);
+        v2[0] = 2;
+
+        RideEvent decoded = RideEventCodec.decode(v2);
+
+        assertEquals(9L, decoded.getRideId());
+    }
+
+    @Test
+    void testEnumOrdinals_AreStable() {
+        // The codec writes ordinals; events already on the topic depend on these positions
+        assertArrayEquals(new RideStatus[]{
+            RideStatus.PENDING, RideStatus.ASSIGNED, RideStatus.IN_PROGRESS, RideStatus.COMPLETED, RideStatus.CANCELLED
+        }, Arrays.copyOf(RideStatus.values(), 5));
+        assertArrayEquals(new RideEventType[]{
+            RideEventType.CREATED, RideEventType.UPDATED, RideEventType.COMPLETED, RideEventType.CANCELLED,
+            RideEventType.PAYMENT_COMPLETED, RideEventType.PAYMENT_FAILED
+        }, Arrays.copyOf(RideEventType.values(), 6));
+    }
+
+    @Test
+    void testDecode_LegacyJson() {
+        String json = "{\"rideId\":3,\"passengerId\":4,\"status\":\"PENDING\",\"fare\":2.50," +
+            "\"timestamp\":\"2024-03-01T08:30:15\",\"eventType\":\"CREATED\"}";
+
+        RideEvent decoded = RideEventCodec.decode(json.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(3L, decoded.getRideId());
+        assertEquals(RideStatus.PENDING, decoded.getStatus());
+        assertEquals(RideEventType.CREATED, decoded.getEventType());
+    }
+}
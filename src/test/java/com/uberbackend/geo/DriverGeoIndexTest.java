@@ -0,0 +1,147 @@
+package com.uberbackend.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DriverGeoIndexTest {
+
+    private static final String CITY = "Bangalore";
+    private static final double LAT = 12.9716;
+    private static final double LON = 77.5946;
+
+    private final DriverGeoIndex index = new DriverGeoIndex();
+
+    @Test
+    void testFindWithin_ReturnsClosestFirst() {
+        // Arrange
+        index.update(1L, CITY, LAT + 0.02, LON);   // ~2.2 km
+        index.update(2L, CITY, LAT + 0.001, LON);  // ~0.1 km
+        index.update(3L, CITY, LAT + 0.2, LON);    // ~22 km
+
+        // Act
+        List<NearbyDriver> result = index.findWithin(CITY, LAT, LON, 5.0);
+
+        // Assert
+        assertEquals(List.of(2L, 1L), result.stream().map(NearbyDriver::getDriverId).toList());
+        assertTrue(result.get(0).getDistanceKm() < result.get(1).getDistanceKm());
+    }
+
+    @Test
+    void testUpdate_MovesDriverBetweenCellsAndCities() {
+        // Arrange
+        index.update(1L, CITY, LAT, LON);
+
+        // Act
+        index.update(1L, CITY, LAT + 0.5, LON);
+
+        // Assert
+        assertTrue(index.findWithin(CITY, LAT, LON, 5.0).isEmpty());
+        assertEquals(1, index.findWithin(CITY, LAT + 0.5, LON, 1.0).size());
+
+        index.update(1L, "Chennai", 13.0827, 80.2707);
+        assertEquals(0, index.size(CITY));
+        assertEquals(1, index.size("Chennai"));
+    }
+
+    @Test
+    void testRemove() {
+        // Arrange
+        index.update(1L, CITY, LAT, LON);
+        index.update(2L, CITY, LAT, LON);
+
+        // Act
+        index.remove(1L, CITY);
+
+        // Assert
+        assertEquals(List.of(2L), index.findWithin(CITY, LAT, LON, 1.0).stream()
+            .map(NearbyDriver::getDriverId).toList());
+    }
+
+    @Test
+    void testReplaceCity() {
+        // Arrange
+        index.update(1L, CITY, LAT, LON);
+        long readStartedAt = System.nanoTime();
+
+        // Act
+        index.replaceCity(CITY, Map.of(7L, new double[]{LAT, LON}), readStartedAt);
+
+        // Assert
+        assertEquals(List.of(7L), index.findWithin(CITY, LAT, LON, 1.0).stream()
+            .map(NearbyDriver::getDriverId).toList());
+    }
+
+    @Test
+    void testReplaceCity_KeepsWritesNewerThanSnapshot() {
+        // Arrange: the snapshot is read, then driver 1 moves and driver 2 goes offline locally
+        index.update(1L, CITY, LAT, LON);
+        index.update(2L, CITY, LAT, LON);
+        long readStartedAt = System.nanoTime();
+        Map<Long, double[]> snapshot = Map.of(1L, new double[]{LAT, LON}, 2L, new double[]{LAT, LON});
+        index.update(1L, CITY, LAT + 0.5, LON);
+        index.remove(2L, CITY);
+        index.update(3L, CITY, LAT, LON);
+
+        // Act
+        index.replaceCity(CITY, snapshot, readStartedAt);
+
+        // Assert
+        assertEquals(List.of(3L), index.findWithin(CITY, LAT, LON, 1.0).stream()
+            .map(NearbyDriver::getDriverId).toList());
+        assertEquals(1, index.findWithin(CITY, LAT + 0.5, LON, 1.0).size());
+    }
+
+    @Test
+    void testReplaceCity_DriverMovedToAnotherCityLeavesOldShard() {
+        // Arrange
+        index.update(1L, "Chennai", 13.0827, 80.2707);
+        long readStartedAt = System.nanoTime();
+
+        // Act: another node moved the driver; the Chennai reload no longer lists them
+        index.replaceCity(CITY, Map.of(1L, new double[]{LAT, LON}), readStartedAt);
+        index.replaceCity("Chennai", Map.of(), readStartedAt);
+
+        // Assert
+        assertEquals(0, index.size("Chennai"));
+        assertEquals(1, index.size(CITY));
+        index.remove(1L, "Chennai");
+        assertEquals(0, index.size(CITY));
+    }
+
+    @Test
+    void testFindNearest_LimitsToClosestK() {
+        // Arrange
+        for (long id = 1; id <= 50; id++) {
+            index.update(id, CITY, LAT + id * 0.0005, LON);
+        }
+
+        // Act
+        List<NearbyDriver> result = index.findNearest(CITY, LAT, LON, 3, 5.0, 20.0);
+
+        // Assert
+        assertEquals(List.of(1L, 2L, 3L), result.stream().map(NearbyDriver::getDriverId).toList());
+    }
+
+    @Test
+    void testFindNearest_ExpandsRingWhenSparse() {
+        // Arrange
+        index.update(1L, CITY, LAT + 0.1, LON);   // ~11 km
+        index.update(2L, CITY, LAT + 0.3, LON);   // ~33 km
+
+        // Act
+        List<NearbyDriver> result = index.findNearest(CITY, LAT, LON, 5, 5.0, 20.0);
+
+        // Assert
+        assertEquals(List.of(1L), result.stream().map(NearbyDriver::getDriverId).toList());
+        assertEquals(11.1, result.get(0).getDistanceKm(), 0.2);
+    }
+
+    @Test
+    void testFindWithin_UnknownCity() {
+        assertTrue(index.findWithin("Pune", LAT, LON, 5.0).isEmpty());
+    }
+}
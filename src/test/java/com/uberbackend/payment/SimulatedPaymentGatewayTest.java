@@ -0,0 +1,81 @@
+package com.uberbackend.payment;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulatedPaymentGatewayTest {
+
+    private static final ChargeRequest REQUEST = new ChargeRequest(1L, new BigDecimal("10.00"), "card", "payment-1");
+
+    @Test
+    void testCharge_FixedLatencySucceeds() throws Exception {
+        // Arrange
+        SimulatedGatewayProperties properties = new SimulatedGatewayProperties();
+        properties.setFixedMs(5);
+        SimulatedPaymentGateway gateway = new SimulatedPaymentGateway(properties);
+
+        // Act
+        long start = System.nanoTime();
+        String transactionId = gateway.charge(REQUEST);
+
+        // Assert
+        assertTrue(transactionId.startsWith("sim_"));
+        assertTrue(System.nanoTime() - start >= 5_000_000L);
+    }
+
+    @Test
+    void testCharge_FailureAndDeclineRates() {
+        SimulatedGatewayProperties failing = new SimulatedGatewayProperties();
+        failing.setFixedMs(0);
+        failing.setFailureRate(1.0);
+        SimulatedGatewayProperties declining = new SimulatedGatewayProperties();
+        declining.setFixedMs(0);
+        declining.setDeclineRate(1.0);
+
+        assertThrows(PaymentGatewayException.class, () -> new SimulatedPaymentGateway(failing).charge(REQUEST));
+        assertThrows(PaymentDeclinedException.class, () -> new SimulatedPaymentGateway(declining).charge(REQUEST));
+    }
+
+    @Test
+    void testCharge_HangEndsOnlyByInterrupt() throws Exception {
+        SimulatedGatewayProperties properties = new SimulatedGatewayProperties();
+        properties.setHangRate(1.0);
+        SimulatedPaymentGateway gateway = new SimulatedPaymentGateway(properties);
+        Thread caller = Thread.ofVirtual().start(() -> assertThrows(InterruptedException.class, () -> gateway.charge(REQUEST)));
+
+        caller.join(100);
+        assertTrue(caller.isAlive());
+        caller.interrupt();
+        caller.join(1000);
+
+        assertFalse(caller.isAlive());
+    }
+
+    @Test
+    void testSampleLatency_LogNormalMedianAndLongTail() {
+        SimulatedGatewayProperties properties = new SimulatedGatewayProperties();
+        properties.setLatency(SimulatedGatewayProperties.LatencyModel.LONG_TAIL);
+        properties.setMedianMs(80);
+        properties.setSigma(0.5);
+        properties.setTailRate(0.02);
+        properties.setTailMinMs(2000);
+        properties.setTailMaxMs(3000);
+        SplittableRandom random = new SplittableRandom(42);
+
+        long[] samples = new long[20_000];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = SimulatedPaymentGateway.sampleLatencyMs(properties, random);
+        }
+        Arrays.sort(samples);
+
+        long median = samples[samples.length / 2];
+        long tail = Arrays.stream(samples).filter(ms -> ms >= 2000).count();
+        assertTrue(median >= 75 && median <= 85, "median " + median);
+        assertTrue(tail >= 300 && tail <= 500, "tail " + tail);
+    }
+}
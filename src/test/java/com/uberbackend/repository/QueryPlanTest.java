@@ -0,0 +1,174 @@
+package com.uberbackend.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Plans every query the repositories and JDBC writers issue against a schema built only from
+ * db/migration, and fails if any of them needs a sequential scan. Sequential scans are priced out
+ * ({@code enable_seqscan = off}), so an empty table still shows whether a usable index exists.
+ * The SQL is what Hibernate renders for each repository method, with literals for the parameters.
+ */
+class QueryPlanTest {
+
+    private static EmbeddedPostgres postgres;
+
+    @BeforeAll
+    static void migrate() throws Exception {
+        postgres = EmbeddedPostgres.start();
+        Flyway.configure()
+            .dataSource(postgres.getPostgresDatabase())
+            .locations("classpath:db/migration")
+            .load()
+            .migrate();
+    }
+
+    @AfterAll
+    static void stop() throws Exception {
+        postgres.close();
+    }
+
+    static Stream<Arguments> queries() {
+        return Stream.of(
+            // RideRepository
+            Arguments.of("RideRepository.findByIdAndTenantIdWithLock",
+                "SELECT * FROM rides WHERE id = 1 FOR UPDATE"),
+            Arguments.of("RideRepository.findByIdempotencyKeyAndPassengerId",
+                "SELECT * FROM rides WHERE idempotency_key = 'key-1' AND passenger_id = 1"),
+            Arguments.of("RideRepository.findResponseById",
+                "SELECT id, status, created_at FROM rides WHERE id = 1"),
+            Arguments.of("RideRepository.findResponsesByDriverId",
+                "SELECT id, status, created_at FROM rides WHERE driver_id = 1 " +
+                "ORDER BY created_at DESC, id DESC LIMIT 20"),
+            Arguments.of("RideRepository.findResponsesByDriverIdBefore",
+                "SELECT id, status, created_at FROM rides WHERE driver_id = 1 " +
+                "AND created_at <= '2024-03-01 12:00' " +
+                "AND (created_at < '2024-03-01 12:00' OR (created_at = '2024-03-01 12:00' AND id < 100)) " +
+                "ORDER BY created_at DESC, id DESC LIMIT 20"),
+            Arguments.of("RideRepository.findResponsesByTenantId",
+                "SELECT r.id, r.status, r.created_at FROM rides r, drivers d " +
+                "WHERE r.driver_id = d.id AND d.tenant_id = 1 ORDER BY r.created_at DESC, r.id DESC LIMIT 20"),
+            Arguments.of("RideRepository.findResponsesByTenantIdBefore",
+                "SELECT r.id, r.status, r.created_at FROM rides r, drivers d " +
+                "WHERE r.driver_id = d.id AND d.tenant_id = 1 " +
+                "AND r.created_at <= '2024-03-01 12:00' " +
+                "AND (r.created_at < '2024-03-01 12:00' OR (r.created_at = '2024-03-01 12:00' AND r.id < 100)) " +
+                "ORDER BY r.created_at DESC, r.id DESC LIMIT 20"),
+            Arguments.of("RideRepository.findPendingRideCities",
+                "SELECT DISTINCT city FROM rides WHERE status = 'PENDING' AND city IS NOT NULL"),
+            Arguments.of("RideRepository.findPendingRidesByCity",
+                "SELECT * FROM rides WHERE status = 'PENDING' AND city = 'BANGALORE' ORDER BY created_at, id LIMIT 200"),
+            Arguments.of("RideRepository.findPendingRidesByCityAfter",
+                "SELECT * FROM rides WHERE status = 'PENDING' AND city = 'BANGALORE' " +
+                "AND created_at >= '2024-03-01 12:00' " +
+                "AND (created_at > '2024-03-01 12:00' OR (created_at = '2024-03-01 12:00' AND id > 100)) " +
+                "ORDER BY created_at, id LIMIT 200"),
+            Arguments.of("RideRepository.findPendingRidesCreatedBefore",
+                "SELECT * FROM rides WHERE status = 'PENDING' AND created_at < '2024-03-01 12:00' " +
+                "ORDER BY created_at, id LIMIT 200"),
+            Arguments.of("DispatchScheduler cancel",
+                "UPDATE rides SET status = 'CANCELLED', version = version + 1 WHERE id = 1 AND status = 'PENDING'"),
+            Arguments.of("RideRepository.assignDriverIfPending",
+                "UPDATE rides SET driver_id = 2, status = 'ASSIGNED', version = version + 1 " +
+                "WHERE id = 1 AND status = 'PENDING'"),
+
+            // DriverRepository
+            Arguments.of("DriverRepository.findByIdAndTenantIdWithLock",
+                "SELECT * FROM drivers WHERE id = 1 FOR UPDATE"),
+            Arguments.of("DriverRepository.findSummaryById",
+                "SELECT id, tenant_id, name, phone_number, vehicle_model, status, city FROM drivers WHERE id = 1"),
+            Arguments.of("DriverRepository.findFirstByTenantIdOrderByIdAsc",
+                "SELECT * FROM drivers WHERE tenant_id = 1 ORDER BY id LIMIT 1"),
+            Arguments.of("DriverRepository.existsByPhoneNumberOrLicenseNumberOrVehiclePlateNumber",
+                "SELECT id FROM drivers WHERE phone_number = 'p' OR license_number = 'l' " +
+                "OR vehicle_plate_number = 'v' LIMIT 1"),
+            Arguments.of("DriverRepository.findByStatusIn",
+                "SELECT * FROM drivers WHERE status IN ('ONLINE', 'IN_RIDE')"),
+            Arguments.of("DriverRepository.updateStatus",
+                "UPDATE drivers SET status = 'ONLINE', version = version + 1 WHERE id = 1"),
+            Arguments.of("DriverOnboardingService existing-driver check",
+                "SELECT phone_number, license_number, vehicle_plate_number FROM drivers " +
+                "WHERE phone_number IN ('p1', 'p2') OR license_number IN ('l1', 'l2') " +
+                "OR vehicle_plate_number IN ('v1', 'v2')"),
+
+            // TenantRepository
+            Arguments.of("TenantRepository.findByName",
+                "SELECT * FROM tenants WHERE name = 'acme'"),
+            Arguments.of("TenantRepository.findByContactEmail",
+                "SELECT * FROM tenants WHERE contact_email = 'ops@acme.test'"),
+
+            // TripRepository
+            Arguments.of("TripRepository.findByIdAndTenantIdWithLock",
+                "SELECT * FROM trips WHERE id = 1 FOR UPDATE"),
+            Arguments.of("Trips of a ride",
+                "SELECT * FROM trips WHERE ride_id = 1"),
+
+            // PaymentRepository
+            Arguments.of("PaymentRepository.findByIdempotencyKey",
+                "SELECT * FROM payments WHERE idempotency_key = 'key-1'"),
+            Arguments.of("PaymentRepository.finishIfClaimed",
+                "UPDATE payments p SET status = 'COMPLETED', version = version + 1 " +
+                "WHERE p.id = 1 AND p.status = 'PENDING' " +
+                "AND EXISTS (SELECT 1 FROM payment_events e WHERE e.payment_id = p.id AND e.status = 'PROCESSING')"),
+
+            // PaymentStateMachine / PaymentEventRepository
+            Arguments.of("PaymentStateMachine claim",
+                "INSERT INTO payment_events (payment_id, status, attempt, created_at) " +
+                "SELECT p.id, 'PROCESSING', COALESCE(MAX(e.attempt), 0) + 1, now() FROM payments p " +
+                "LEFT JOIN payment_events e ON e.payment_id = p.id AND e.status = 'PROCESSING' " +
+                "WHERE p.id = 1 AND p.status = 'PENDING' GROUP BY p.id " +
+                "HAVING MAX(e.created_at) IS NULL OR MAX(e.created_at) < '2024-03-01 12:00' " +
+                "ON CONFLICT (payment_id, status, attempt) DO NOTHING"),
+            Arguments.of("PaymentStateMachine findRecoverable",
+                "SELECT p.id FROM payments p WHERE p.status = 'PENDING' AND p.created_at < '2024-03-01 12:00' " +
+                "AND NOT EXISTS (SELECT 1 FROM payment_events e WHERE e.payment_id = p.id " +
+                "AND e.status = 'PROCESSING' AND e.created_at >= '2024-03-01 11:58') " +
+                "ORDER BY p.id LIMIT 500"),
+            Arguments.of("PaymentEventRepository.findByPaymentIdOrderByIdAsc",
+                "SELECT * FROM payment_events WHERE payment_id = 1 ORDER BY id"),
+
+            // OutboxRelay
+            Arguments.of("OutboxRelay batch select",
+                "SELECT id, payload FROM ride_event_outbox WHERE published_at IS NULL " +
+                "ORDER BY id LIMIT 500 FOR UPDATE SKIP LOCKED"),
+            Arguments.of("OutboxRelay purge",
+                "DELETE FROM ride_event_outbox WHERE published_at < '2024-03-01 12:00'")
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("queries")
+    void testQuery_UsesAnIndex(String name, String sql) throws Exception {
+        // Act
+        String plan = explain(sql);
+
+        // Assert
+        assertFalse(plan.contains("Seq Scan"), name + " needs a sequential scan:\n" + plan);
+    }
+
+    private static String explain(String sql) throws Exception {
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("SET enable_seqscan = off");
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rows = statement.executeQuery("EXPLAIN " + sql)) {
+                while (rows.next()) {
+                    plan.append(rows.getString(1)).append('\n');
+                }
+            }
+            return plan.toString();
+        }
+    }
+}
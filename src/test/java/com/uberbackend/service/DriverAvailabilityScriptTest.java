@@ -0,0 +1,237 @@
+package com.uberbackend.service;
+
+import com.uberbackend.geo.DriverGeoIndex;
+import com.uberbackend.geo.DriverLocation;
+import com.uberbackend.repository.DriverRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.redisson.Redisson;
+import org.redisson.api.RGeo;
+import org.redisson.api.RMap;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.config.Config;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.GenericContainer;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * The claim, release and location Lua scripts of {@link DriverAvailabilityService} against a real
+ * Redis, since their compare-and-set behaviour lives in the scripts rather than in Java. Skipped
+ * when no Docker daemon is available.
+ */
+class DriverAvailabilityScriptTest {
+
+    private static final String CITY = "BANGALORE";
+
+    private static GenericContainer<?> redis;
+    private static RedissonClient redissonClient;
+
+    private DriverGeoIndex driverGeoIndex;
+    private DriverAvailabilityService driverAvailabilityService;
+
+    @BeforeAll
+    static void startRedis() {
+        assumeTrue(DockerClientFactory.instance().isDockerAvailable(), "Docker is not available");
+        redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+        redis.start();
+        Config config = new Config();
+        config.setCodec(StringCodec.INSTANCE);
+        config.useSingleServer().setAddress("redis://" + redis.getHost() + ":" + redis.getMappedPort(6379));
+        redissonClient = Redisson.create(config);
+    }
+
+    @AfterAll
+    static void stopRedis() {
+        if (redissonClient != null) {
+            redissonClient.shutdown();
+        }
+        if (redis != null) {
+            redis.stop();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        redissonClient.getKeys().flushall();
+        driverGeoIndex = mock(DriverGeoIndex.class);
+        driverAvailabilityService = new DriverAvailabilityService(
+            redissonClient, driverGeoIndex, mock(DriverRepository.class), mock(DriverStatusWriter.class));
+    }
+
+    @Test
+    void testTryClaim_ReservesOnlineDriverAndKeepsPosition() {
+        // Arrange
+        online(1L, 12.97, 77.59);
+
+        // Act
+        boolean claimed = driverAvailabilityService.tryClaim(1L, CITY);
+
+        // Assert
+        assertTrue(claimed);
+        assertEquals("RESERVED", state(1L).get("status"));
+        assertNotNull(state(1L).get("lat"));
+        assertNotNull(state(1L).get("lon"));
+        assertFalse(geo().contains("1"));
+        verify(driverGeoIndex).remove(1L, CITY);
+    }
+
+    @Test
+    void testTryClaim_SecondClaimLoses() {
+        // Arrange
+        online(1L, 12.97, 77.59);
+
+        // Act
+        boolean first = driverAvailabilityService.tryClaim(1L, CITY);
+        boolean second = driverAvailabilityService.tryClaim(1L, CITY);
+
+        // Assert
+        assertTrue(first);
+        assertFalse(second);
+        verify(driverGeoIndex, times(1)).remove(1L, CITY);
+    }
+
+    @Test
+    void testTryClaim_OfflineDriverIsNotClaimed() {
+        // Arrange
+        state(1L).fastPut("status", "OFFLINE");
+
+        // Act & Assert
+        assertFalse(driverAvailabilityService.tryClaim(1L, CITY));
+        assertEquals("OFFLINE", state(1L).get("status"));
+        verifyNoInteractions(driverGeoIndex);
+    }
+
+    @Test
+    void testRelease_PutsReservedDriverBackAtLastPosition() {
+        // Arrange
+        online(1L, 12.97, 77.59);
+        driverAvailabilityService.tryClaim(1L, CITY);
+
+        // Act
+        driverAvailabilityService.release(1L, CITY);
+
+        // Assert
+        assertEquals("ONLINE", state(1L).get("status"));
+        assertTrue(geo().contains("1"));
+        verify(driverGeoIndex).update(eq(1L), eq(CITY), doubleThat(lat -> Math.abs(lat - 12.97) < 1e-4),
+            doubleThat(lon -> Math.abs(lon - 77.59) < 1e-4));
+    }
+
+    @Test
+    void testRelease_LeavesDriverThatIsNotReservedAlone() {
+        // Arrange
+        state(1L).fastPut("status", "OFFLINE");
+
+        // Act
+        driverAvailabilityService.release(1L, CITY);
+
+        // Assert
+        assertEquals("OFFLINE", state(1L).get("status"));
+        assertFalse(geo().contains("1"));
+        verifyNoInteractions(driverGeoIndex);
+    }
+
+    @Test
+    void testTryClaimAndRelease_UseCityOfLastLocationOverStaleDriverRow() {
+        // Arrange: the driver moved to MUMBAI but the drivers row still says BANGALORE
+        online(1L, 12.97, 77.59);
+        driverAvailabilityService.updateLocationIfAvailable(1L, "MUMBAI", 19.07, 72.87);
+        RGeo<String> mumbai = redissonClient.getGeo(RedisGeoService.geoKey("MUMBAI"), StringCodec.INSTANCE);
+        assertFalse(geo().contains("1"));
+        assertTrue(mumbai.contains("1"));
+
+        // Act
+        boolean claimed = driverAvailabilityService.tryClaim(1L, CITY);
+
+        // Assert
+        assertTrue(claimed);
+        assertFalse(mumbai.contains("1"));
+        verify(driverGeoIndex).remove(1L, "MUMBAI");
+
+        // Act
+        driverAvailabilityService.release(1L, CITY);
+
+        // Assert
+        assertTrue(mumbai.contains("1"));
+        assertFalse(geo().contains("1"));
+        verify(driverGeoIndex).update(eq(1L), eq("MUMBAI"), doubleThat(lat -> Math.abs(lat - 19.07) < 1e-4),
+            doubleThat(lon -> Math.abs(lon - 72.87) < 1e-4));
+    }
+
+    @Test
+    void testUpdateLocationIfAvailable_ReservedDriverIsNotPutBackIntoMatching() {
+        // Arrange
+        online(1L, 12.97, 77.59);
+        driverAvailabilityService.tryClaim(1L, CITY);
+
+        // Act
+        boolean added = driverAvailabilityService.updateLocationIfAvailable(1L, CITY, 12.98, 77.60);
+
+        // Assert
+        assertFalse(added);
+        assertFalse(geo().contains("1"));
+        assertEquals("12.98", state(1L).get("lat"));
+        assertEquals("77.6", state(1L).get("lon"));
+    }
+
+    @Test
+    void testUpdateLocationsIfAvailable_AddsOnlyOnlineDrivers() {
+        // Arrange
+        state(1L).fastPut("status", "ONLINE");
+        state(2L).fastPut("status", "RESERVED");
+        LocalDateTime now = LocalDateTime.now();
+
+        // Act
+        int added = driverAvailabilityService.updateLocationsIfAvailable(Map.of(CITY, List.of(
+            new DriverLocation(1L, CITY, 12.97, 77.59, now),
+            new DriverLocation(2L, CITY, 12.98, 77.60, now))));
+
+        // Assert
+        assertEquals(1, added);
+        assertTrue(geo().contains("1"));
+        assertFalse(geo().contains("2"));
+        assertEquals("12.98", state(2L).get("lat"));
+        verify(driverGeoIndex).update(1L, CITY, 12.97, 77.59);
+        verify(driverGeoIndex, never()).update(eq(2L), anyString(), anyDouble(), anyDouble());
+    }
+
+    @Test
+    void testUpdateLocations_UnknownDriverLeavesNoState() {
+        // Act
+        boolean added = driverAvailabilityService.updateLocationIfAvailable(7L, CITY, 12.97, 77.59);
+        int batchAdded = driverAvailabilityService.updateLocationsIfAvailable(Map.of(CITY, List.of(
+            new DriverLocation(8L, CITY, 12.98, 77.60, LocalDateTime.now()))));
+
+        // Assert
+        assertFalse(added);
+        assertEquals(0, batchAdded);
+        assertFalse(state(7L).isExists());
+        assertFalse(state(8L).isExists());
+        assertFalse(geo().isExists());
+    }
+
+    private void online(Long driverId, double lat, double lon) {
+        state(driverId).fastPut("status", "ONLINE");
+        state(driverId).fastPut("city", CITY);
+        geo().add(lon, lat, driverId.toString());
+    }
+
+    private RMap<String, String> state(Long driverId) {
+        return redissonClient.getMap(DriverAvailabilityService.stateKey(driverId), StringCodec.INSTANCE);
+    }
+
+    private RGeo<String> geo() {
+        return redissonClient.getGeo(RedisGeoService.geoKey(CITY), StringCodec.INSTANCE);
+    }
+}
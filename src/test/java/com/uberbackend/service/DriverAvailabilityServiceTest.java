@@ -0,0 +1,115 @@
+package com.uberbackend.service;
+
+import com.uberbackend.geo.DriverGeoIndex;
+import com.uberbackend.model.enums.DriverStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RGeo;
+import org.redisson.api.RMap;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DriverAvailabilityServiceTest {
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private DriverGeoIndex driverGeoIndex;
+
+    @Mock
+    private RMap<Object, Object> stateMap;
+
+    @Mock
+    private RGeo<Object> geo;
+
+    @Mock
+    private RScript script;
+
+    @InjectMocks
+    private DriverAvailabilityService driverAvailabilityService;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testSetStatus_WaitsForCommit() {
+        // Arrange
+        when(redissonClient.getMap(anyString(), eq(StringCodec.INSTANCE))).thenReturn(stateMap);
+        when(redissonClient.getGeo(anyString())).thenReturn(geo);
+        when(stateMap.getOrDefault("city", "BANGALORE")).thenReturn("BANGALORE");
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        driverAvailabilityService.setStatus(1L, "BANGALORE", DriverStatus.OFFLINE, null, null);
+
+        // Assert: nothing reaches Redis until the transaction commits
+        verifyNoInteractions(redissonClient, driverGeoIndex);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(stateMap).fastPut("status", "OFFLINE");
+        verify(geo).remove("1");
+        verify(driverGeoIndex).remove(1L, "BANGALORE");
+    }
+
+    @Test
+    void testSetStatus_RolledBackChangeNeverReachesRedis() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        driverAvailabilityService.setStatus(1L, "BANGALORE", DriverStatus.OFFLINE, null, null);
+        TransactionSynchronizationManager.getSynchronizations()
+            .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // Assert
+        verifyNoInteractions(redissonClient, driverGeoIndex);
+    }
+
+    @Test
+    void testTryClaim_UsesCityOfLastLocationOverStaleDriverRow() {
+        // Arrange: the drivers row still says PUNE, the last location update was in MUMBAI
+        when(redissonClient.getScript(StringCodec.INSTANCE)).thenReturn(script);
+        when(script.<String>eval(eq(RScript.Mode.READ_WRITE), anyString(), eq(RScript.ReturnType.VALUE), anyList(),
+            eq("1"), anyString(), eq("PUNE"))).thenReturn("MUMBAI");
+
+        // Act
+        boolean claimed = driverAvailabilityService.tryClaim(1L, "PUNE");
+
+        // Assert
+        assertTrue(claimed);
+        verify(driverGeoIndex).remove(1L, "MUMBAI");
+        verify(driverGeoIndex, never()).remove(1L, "PUNE");
+    }
+
+    @Test
+    void testSetStatus_OfflineLeavesGeoSetOfLastLocation() {
+        // Arrange
+        when(redissonClient.getMap(anyString(), eq(StringCodec.INSTANCE))).thenReturn(stateMap);
+        when(redissonClient.getGeo(anyString())).thenReturn(geo);
+        when(stateMap.getOrDefault("city", "PUNE")).thenReturn("MUMBAI");
+
+        // Act: no transaction synchronization, so the change applies immediately
+        driverAvailabilityService.setStatus(1L, "PUNE", DriverStatus.OFFLINE, null, null);
+
+        // Assert
+        verify(redissonClient).getGeo(RedisGeoService.geoKey("MUMBAI"));
+        verify(geo).remove("1");
+        verify(driverGeoIndex).remove(1L, "MUMBAI");
+    }
+}
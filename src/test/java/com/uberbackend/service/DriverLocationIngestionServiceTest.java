@@ -0,0 +1,149 @@
+package com.uberbackend.service;
+
+import com.uberbackend.geo.DriverLocation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DriverLocationIngestionServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 3, 1, 8, 0);
+
+    @Mock
+    private DriverAvailabilityService driverAvailabilityService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private DriverLocationIngestionService ingestionService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(ingestionService, "maxBufferedDrivers", 100);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlushToRedis_KeepsLatestPingPerDriver() {
+        // Arrange
+        ingestionService.submit(1L, "Pune", 18.50, 73.80);
+        ingestionService.submit(1L, "Pune", 18.51, 73.81);
+        ingestionService.submit(2L, "Delhi", 28.61, 77.20);
+
+        // Act
+        ingestionService.flushToRedis();
+
+        // Assert
+        ArgumentCaptor<Map<String, List<DriverLocation>>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(driverAvailabilityService).updateLocationsIfAvailable(captor.capture());
+        Map<String, List<DriverLocation>> byCity = captor.getValue();
+        assertEquals(1, byCity.get("Pune").size());
+        assertEquals(18.51, byCity.get("Pune").get(0).getLatitude());
+        assertEquals(1, byCity.get("Delhi").size());
+
+        // Buffer is drained
+        ingestionService.flushToRedis();
+        verifyNoMoreInteractions(driverAvailabilityService);
+    }
+
+    @Test
+    void testSnapshotToDatabase_SingleBatchStatement() {
+        // Arrange
+        ingestionService.submit(1L, "Pune", 18.50, 73.80);
+        ingestionService.submit(2L, "Pune", 18.52, 73.82);
+
+        // Act
+        ingestionService.snapshotToDatabase();
+
+        // Assert
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE drivers SET current_latitude"), argThat((List<Object[]> args) -> args.size() == 2));
+    }
+
+    @Test
+    void testSubmit_FlushesInlineWhenBufferFull() {
+        // Arrange
+        ReflectionTestUtils.setField(ingestionService, "maxBufferedDrivers", 1);
+        ingestionService.submit(1L, "Pune", 18.50, 73.80);
+
+        // Act
+        ingestionService.submit(2L, "Pune", 18.52, 73.82);
+
+        // Assert
+        verify(driverAvailabilityService).updateLocationsIfAvailable(anyMap());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testIngestBatch_DropsSupersededBufferedPingAfterWrite() {
+        // Arrange
+        ingestionService.submit(new DriverLocation(1L, "Pune", 18.50, 73.80, T0));
+        when(driverAvailabilityService.updateLocationsIfAvailable(anyMap())).thenReturn(1);
+
+        // Act
+        int online = ingestionService.ingestBatch(List.of(new DriverLocation(1L, "Pune", 18.51, 73.81, T0.plusSeconds(1))));
+        ingestionService.flushToRedis();
+
+        // Assert: the batch write was the only one, the older buffered ping is not flushed after it
+        assertEquals(1, online);
+        verify(driverAvailabilityService, times(1)).updateLocationsIfAvailable(anyMap());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testIngestBatch_FailedWriteIsRetriedByNextFlush() {
+        // Arrange
+        ingestionService.submit(new DriverLocation(1L, "Pune", 18.50, 73.80, T0));
+        when(driverAvailabilityService.updateLocationsIfAvailable(anyMap()))
+            .thenThrow(new RuntimeException("redis down"))
+            .thenReturn(2);
+
+        // Act
+        int online = ingestionService.ingestBatch(List.of(
+            new DriverLocation(1L, "Pune", 18.51, 73.81, T0.plusSeconds(1)),
+            new DriverLocation(2L, "Pune", 18.52, 73.82, T0.plusSeconds(1))));
+        ingestionService.flushToRedis();
+
+        // Assert
+        assertEquals(0, online);
+        ArgumentCaptor<Map<String, List<DriverLocation>>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(driverAvailabilityService, times(2)).updateLocationsIfAvailable(captor.capture());
+        List<DriverLocation> retried = captor.getAllValues().get(1).get("Pune");
+        assertEquals(2, retried.size());
+        assertTrue(retried.stream().allMatch(location -> location.getReceivedAt().equals(T0.plusSeconds(1))));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testIngestBatch_FailedWriteKeepsNewerBufferedPing() {
+        // Arrange
+        ingestionService.submit(new DriverLocation(1L, "Pune", 18.60, 73.90, T0.plusSeconds(5)));
+        when(driverAvailabilityService.updateLocationsIfAvailable(anyMap()))
+            .thenThrow(new RuntimeException("redis down"))
+            .thenReturn(1);
+
+        // Act
+        ingestionService.ingestBatch(List.of(new DriverLocation(1L, "Pune", 18.51, 73.81, T0)));
+        ingestionService.flushToRedis();
+
+        // Assert
+        ArgumentCaptor<Map<String, List<DriverLocation>>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(driverAvailabilityService, times(2)).updateLocationsIfAvailable(captor.capture());
+        assertEquals(18.60, captor.getAllValues().get(1).get("Pune").get(0).getLatitude());
+    }
+}
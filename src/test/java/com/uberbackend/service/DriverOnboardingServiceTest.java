@@ -0,0 +1,117 @@
+package com.uberbackend.service;
+
+import com.uberbackend.dto.response.DriverRowError;
+import com.uberbackend.model.entity.Driver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DriverOnboardingServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private DriverOnboardingService driverOnboardingService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(driverOnboardingService, "batchSize", 2);
+        lenient().when(transactionTemplate.execute(any()))
+            .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void testOnboard_InsertsInChunksAndReportsConflicts() {
+        // Arrange: row 1's phone is already registered; row 0 loses a race in the first insert batch
+        stubExisting(new String[]{"+100002", "LIC-X", "PLATE-X"});
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{0}, new int[]{1});
+
+        // Act
+        DriverOnboardingService.Result result = driverOnboardingService.onboard(List.of(
+            candidate(0, 1), candidate(1, 2), candidate(2, 3)));
+
+        // Assert
+        assertEquals(1, result.created());
+        assertEquals(List.of(0, 1), result.errors().stream().map(DriverRowError::getIndex).toList());
+        assertNull(result.errors().get(0).getField());
+        assertEquals("phoneNumber", result.errors().get(1).getField());
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void testOnboard_DuplicatesWithinRequestNeverReachDatabase() {
+        // Arrange
+        Driver first = driver(1);
+        Driver sameLicense = driver(2);
+        sameLicense.setLicenseNumber(first.getLicenseNumber());
+        stubExisting();
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1});
+
+        // Act
+        DriverOnboardingService.Result result = driverOnboardingService.onboard(List.of(
+            new DriverOnboardingService.Candidate(0, first), new DriverOnboardingService.Candidate(1, sameLicense)));
+
+        // Assert
+        assertEquals(1, result.created());
+        assertEquals(1, result.errors().size());
+        assertEquals("licenseNumber", result.errors().get(0).getField());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), rows.capture());
+        assertEquals(1, rows.getValue().size());
+    }
+
+    private void stubExisting(String[]... existing) {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(2);
+            for (String[] row : existing) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getString(1)).thenReturn(row[0]);
+                when(rs.getString(2)).thenReturn(row[1]);
+                when(rs.getString(3)).thenReturn(row[2]);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(namedParameterJdbcTemplate).query(anyString(), any(SqlParameterSource.class), any(RowCallbackHandler.class));
+    }
+
+    private static DriverOnboardingService.Candidate candidate(int index, int n) {
+        return new DriverOnboardingService.Candidate(index, driver(n));
+    }
+
+    private static Driver driver(int n) {
+        Driver driver = new Driver();
+        driver.setTenantId(1L);
+        driver.setPhoneNumber("+10000" + n);
+        driver.setLicenseNumber("LIC-" + n);
+        driver.setVehicleModel("Model " + n);
+        driver.setVehiclePlateNumber("PLATE-" + n);
+        return driver;
+    }
+}
@@ -0,0 +1,77 @@
+package com.uberbackend.service;
+
+import com.uberbackend.dto.request.UpdateDriverLocationRequest;
+import com.uberbackend.repository.DriverRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DriverServiceTest {
+
+    @Mock
+    private DriverRepository driverRepository;
+
+    @Mock
+    private DriverLocationIngestionService driverLocationIngestionService;
+
+    @InjectMocks
+    private DriverService driverService;
+
+    private UpdateDriverLocationRequest request;
+
+    @BeforeEach
+    void setUp() {
+        request = new UpdateDriverLocationRequest();
+        request.setLatitude(new BigDecimal("18.52"));
+        request.setLongitude(new BigDecimal("73.85"));
+        request.setCity("PUNE");
+    }
+
+    @Test
+    void testUpdateDriverLocation_UnknownDriverIsRejected() {
+        // Arrange
+        when(driverRepository.existsById(99L)).thenReturn(false);
+
+        // Act & Assert
+        RuntimeException e = assertThrows(RuntimeException.class, () -> driverService.updateDriverLocation(99L, request));
+        assertEquals("Driver not found: 99", e.getMessage());
+        verifyNoInteractions(driverLocationIngestionService);
+    }
+
+    @Test
+    void testUpdateDriverLocation_KnownDriverIsLookedUpOnce() {
+        // Arrange
+        when(driverRepository.existsById(1L)).thenReturn(true);
+
+        // Act
+        driverService.updateDriverLocation(1L, request);
+        driverService.updateDriverLocation(1L, request);
+
+        // Assert
+        verify(driverRepository, times(1)).existsById(1L);
+        verify(driverLocationIngestionService, times(2)).submit(eq(1L), eq("PUNE"), eq(18.52), eq(73.85));
+    }
+
+    @Test
+    void testUpdateDriverLocation_MissIsNotCached() {
+        // Arrange: the driver registers between their first and second ping
+        when(driverRepository.existsById(2L)).thenReturn(false, true);
+
+        // Act
+        assertThrows(RuntimeException.class, () -> driverService.updateDriverLocation(2L, request));
+        driverService.updateDriverLocation(2L, request);
+
+        // Assert
+        verify(driverLocationIngestionService).submit(eq(2L), eq("PUNE"), eq(18.52), eq(73.85));
+    }
+}
@@ -1,13 +1,19 @@
 package com.uberbackend.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uberbackend.dto.response.RideResponse;
+import com.uberbackend.model.enums.RideStatus;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -16,70 +22,109 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class IdempotencyServiceTest {
 
+    private static final String KEY = "idempotency:ride:123:test-key";
+
     @Mock
     private RedisTemplate<String, Object> redisTemplate;
 
     @Mock
     private ValueOperations<String, Object> valueOperations;
 
-    @InjectMocks
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
     private IdempotencyService idempotencyService;
 
     @BeforeEach
     void setUp() {
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        idempotencyService = new IdempotencyService(redisTemplate, objectMapper, 30000, 100, 300);
     }
 
     @Test
-    void testIsKeyProcessed_WhenKeyExists() {
+    void testReserve_NewKeyIsClaimedInOneRoundTrip() {
         // Arrange
-        Long passengerId = 123L;
-        String idempotencyKey = "test-key";
-        when(redisTemplate.hasKey(anyString())).thenReturn(true);
+        stubReserveScript(null);
 
         // Act
-        boolean result = idempotencyService.isKeyProcessed(passengerId, idempotencyKey);
+        IdempotencyResult<RideResponse> result = idempotencyService.reserve("ride", 123L, "test-key", RideResponse.class);
 
         // Assert
-        assertTrue(result);
-        verify(redisTemplate).hasKey("idempotency:123:test-key");
+        assertFalse(result.isReplay());
+        verify(redisTemplate, times(1)).execute(anyScript(), anySerializer(),
+            anySerializer(), eq(List.of(KEY)), any(Object[].class));
+        verify(redisTemplate, never()).hasKey(anyString());
     }
 
     @Test
-    void testIsKeyProcessed_WhenKeyDoesNotExist() {
+    void testReserve_CompletedKeyReplaysStoredResponse() throws Exception {
         // Arrange
-        Long passengerId = 123L;
-        String idempotencyKey = "test-key";
-        when(redisTemplate.hasKey(anyString())).thenReturn(false);
+        RideResponse stored = RideResponse.builder().id(9L).passengerId(123L).status(RideStatus.ASSIGNED).build();
+        stubReserveScript(objectMapper.writeValueAsString(stored));
 
         // Act
-        boolean result = idempotencyService.isKeyProcessed(passengerId, idempotencyKey);
+        IdempotencyResult<RideResponse> result = idempotencyService.reserve("ride", 123L, "test-key", RideResponse.class);
 
         // Assert
-        assertFalse(result);
+        assertTrue(result.isReplay());
+        assertEquals(9L, result.getResponse().getId());
+        assertEquals(RideStatus.ASSIGNED, result.getResponse().getStatus());
     }
 
     @Test
-    void testIsKeyProcessed_WhenKeyIsNull() {
-        // Act
-        boolean result = idempotencyService.isKeyProcessed(123L, null);
+    void testReserve_InProgressKeyIsRejected() {
+        stubReserveScript("~pending:5f0c");
 
-        // Assert
-        assertFalse(result);
-        verify(redisTemplate, never()).hasKey(anyString());
+        assertThrows(IllegalStateException.class,
+            () -> idempotencyService.reserve("ride", 123L, "test-key", RideResponse.class));
+    }
+
+    @Test
+    void testReserve_NearCacheAnswersRepeatedReplaysLocally() throws Exception {
+        RideResponse stored = RideResponse.builder().id(9L).build();
+        stubReserveScript(objectMapper.writeValueAsString(stored));
+
+        idempotencyService.reserve("ride", 123L, "test-key", RideResponse.class);
+        IdempotencyResult<RideResponse> second = idempotencyService.reserve("ride", 123L, "test-key", RideResponse.class);
+
+        assertTrue(second.isReplay());
+        verify(redisTemplate, times(1)).execute(anyScript(), anySerializer(),
+            anySerializer(), anyList(), any(Object[].class));
+    }
+
+    @Test
+    void testReserve_BlankKeySkipsRedis() {
+        IdempotencyResult<RideResponse> result = idempotencyService.reserve("ride", 123L, null, RideResponse.class);
+
+        assertFalse(result.isReplay());
+        verifyNoInteractions(redisTemplate);
     }
 
     @Test
-    void testMarkKeyAsProcessed() {
+    void testComplete_StoresSerializedResponseAndServesItLocally() {
         // Arrange
-        Long passengerId = 123L;
-        String idempotencyKey = "test-key";
-        Object result = "result-value";
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        RideResponse response = RideResponse.builder().id(9L).build();
 
         // Act
-        idempotencyService.markKeyAsProcessed(passengerId, idempotencyKey, result);
+        idempotencyService.complete("ride", 123L, "test-key", response);
+        IdempotencyResult<RideResponse> replay = idempotencyService.reserve("ride", 123L, "test-key", RideResponse.class);
 
         // Assert
-        verify(valueOperations).set(eq("idempotency:123:test-key"), eq(result), anyLong(), any());
+        verify(valueOperations).set(eq(KEY), contains("\"id\":9"), anyLong(), any());
+        assertTrue(replay.isReplay());
+        verify(redisTemplate, never()).execute(anyScript(), anySerializer(),
+            anySerializer(), anyList(), any(Object[].class));
+    }
+
+    private void stubReserveScript(String existing) {
+        when(redisTemplate.execute(anyScript(), anySerializer(),
+            anySerializer(), anyList(), any(Object[].class))).thenReturn(existing);
+    }
+
+    private static RedisScript<String> anyScript() {
+        return any();
+    }
+
+    private static RedisSerializer<String> anySerializer() {
+        return any();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,79 @@
+package com.uberbackend.service;
+
+import com.uberbackend.dto.response.IdentityResponse;
+import com.uberbackend.model.entity.Driver;
+import com.uberbackend.model.entity.Tenant;
+import com.uberbackend.repository.DriverRepository;
+import com.uberbackend.repository.TenantRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdentityServiceTest {
+
+    private static final String EMAIL = "ops@fleet.example";
+
+    @Mock
+    private TenantRepository tenantRepository;
+
+    @Mock
+    private DriverRepository driverRepository;
+
+    private IdentityService identityService;
+
+    @BeforeEach
+    void setUp() {
+        identityService = new IdentityService(tenantRepository, driverRepository, new SimpleMeterRegistry(), 100, 60);
+    }
+
+    @Test
+    void testLookupByEmail_UsesIndexedQueriesAndCachesResult() {
+        // Arrange
+        Tenant tenant = new Tenant("Fleet", EMAIL);
+        tenant.setId(7L);
+        Driver driver = new Driver();
+        driver.setId(70L);
+        when(tenantRepository.findByContactEmail(EMAIL)).thenReturn(Optional.of(tenant));
+        when(driverRepository.findFirstByTenantIdOrderByIdAsc(7L)).thenReturn(Optional.of(driver));
+
+        // Act
+        IdentityResponse first = identityService.lookupByEmail(EMAIL).orElseThrow();
+        IdentityResponse second = identityService.lookupByEmail(EMAIL).orElseThrow();
+
+        // Assert
+        assertEquals(7L, first.getTenantId());
+        assertEquals(70L, first.getDriverId());
+        assertTrue(first.isDriver());
+        assertSame(first, second);
+        verify(tenantRepository, times(1)).findByContactEmail(EMAIL);
+        verify(driverRepository, never()).findAll();
+    }
+
+    @Test
+    void testLookupByEmail_MissIsNotCached() {
+        // Arrange: the tenant registers (possibly through another node) after the first lookup
+        Tenant tenant = new Tenant("Fleet", EMAIL);
+        tenant.setId(7L);
+        when(tenantRepository.findByContactEmail(EMAIL)).thenReturn(Optional.empty(), Optional.of(tenant));
+        when(driverRepository.findFirstByTenantIdOrderByIdAsc(7L)).thenReturn(Optional.empty());
+
+        // Act
+        Optional<IdentityResponse> miss = identityService.lookupByEmail(EMAIL);
+        Optional<IdentityResponse> found = identityService.lookupByEmail(EMAIL);
+
+        // Assert
+        assertTrue(miss.isEmpty());
+        assertTrue(found.isPresent());
+        assertFalse(found.get().isDriver());
+        verify(tenantRepository, times(2)).findByContactEmail(EMAIL);
+    }
+}
@@ -0,0 +1,163 @@
+package com.uberbackend.service;
+
+import com.uberbackend.event.RideEvent;
+import com.uberbackend.event.RideEventCodec;
+import com.uberbackend.model.enums.RideEventType;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private KafkaEventProducer kafkaEventProducer;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(outboxRelay, "batchSize", 500);
+        ReflectionTestUtils.setField(outboxRelay, "sendTimeoutMs", 1000L);
+        lenient().when(jdbcTemplate.queryForObject(contains("advisory"), eq(Boolean.class), anyLong())).thenReturn(true);
+    }
+
+    @Test
+    void testRelayBatch_MarksOnlyAckedRowsPublished() throws Exception {
+        // Arrange
+        stubOutboxRows(outboxRow(10L, event(1L)), outboxRow(11L, event(2L)));
+        when(kafkaEventProducer.sendRideEvent(argThat(e -> e != null && e.getRideId() == 1L)))
+            .thenReturn(CompletableFuture.completedFuture(sendResult(3, 42L)));
+        when(kafkaEventProducer.sendRideEvent(argThat(e -> e != null && e.getRideId() == 2L)))
+            .thenReturn(CompletableFuture.failedFuture(new RuntimeException("broker down")));
+
+        // Act
+        int relayed = outboxRelay.relayBatch();
+
+        // Assert
+        assertEquals(1, relayed);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> published = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), published.capture());
+        assertEquals(1, published.getValue().size());
+        Object[] row = published.getValue().get(0);
+        assertEquals(3, row[1]);
+        assertEquals(42L, row[2]);
+        assertEquals(10L, row[3]);
+    }
+
+    @Test
+    void testRelayBatch_HoldsBackLaterEventsOfRideWithFailedSend() throws Exception {
+        // Arrange
+        stubOutboxRows(outboxRow(10L, event(1L)), outboxRow(11L, event(1L)), outboxRow(12L, event(2L)));
+        when(kafkaEventProducer.sendRideEvent(any()))
+            .thenReturn(CompletableFuture.failedFuture(new RuntimeException("request timed out")))
+            .thenReturn(CompletableFuture.completedFuture(sendResult(3, 43L)))
+            .thenReturn(CompletableFuture.completedFuture(sendResult(5, 7L)));
+
+        // Act
+        int relayed = outboxRelay.relayBatch();
+
+        // Assert: row 11 was acked but must go out again after row 10
+        assertEquals(1, relayed);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> published = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), published.capture());
+        assertEquals(1, published.getValue().size());
+        assertEquals(12L, published.getValue().get(0)[3]);
+    }
+
+    @Test
+    void testRelayBatch_SkipsWhileAnotherNodeRelays() {
+        // Arrange
+        when(jdbcTemplate.queryForObject(contains("advisory"), eq(Boolean.class), anyLong())).thenReturn(false);
+
+        // Act
+        int relayed = outboxRelay.relayBatch();
+
+        // Assert
+        assertEquals(0, relayed);
+        verify(jdbcTemplate, never()).query(anyString(), any(RowMapper.class), anyInt());
+        verifyNoInteractions(kafkaEventProducer);
+    }
+
+    @Test
+    void testRelay_StopsDrainingAfterBatchWithFailedSends() {
+        // Arrange
+        ReflectionTestUtils.setField(outboxRelay, "enabled", true);
+        ReflectionTestUtils.setField(outboxRelay, "batchSize", 2);
+        ReflectionTestUtils.setField(outboxRelay, "maxBatchesPerRun", 20);
+        when(transactionTemplate.execute(any())).thenReturn(1);
+
+        // Act
+        outboxRelay.relay();
+
+        // Assert
+        verify(transactionTemplate, times(1)).execute(any());
+    }
+
+    @Test
+    void testRelayBatch_EmptyOutboxSendsNothing() {
+        stubOutboxRows();
+
+        assertEquals(0, outboxRelay.relayBatch());
+
+        verifyNoInteractions(kafkaEventProducer);
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubOutboxRows(Object[]... rows) {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(500))).thenAnswer(invocation -> {
+            RowMapper<Object> mapper = invocation.getArgument(1);
+            List<Object> mapped = new java.util.ArrayList<>();
+            for (Object[] row : rows) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getLong("id")).thenReturn((Long) row[0]);
+                when(rs.getBytes("payload")).thenReturn((byte[]) row[1]);
+                mapped.add(mapper.mapRow(rs, mapped.size()));
+            }
+            return mapped;
+        });
+    }
+
+    private static Object[] outboxRow(Long id, RideEvent event) {
+        return new Object[]{id, RideEventCodec.encode(event)};
+    }
+
+    private static RideEvent event(Long rideId) {
+        return RideEvent.builder().rideId(rideId).passengerId(101L).eventType(RideEventType.CREATED).build();
+    }
+
+    private static SendResult<String, RideEvent> sendResult(int partition, long offset) {
+        RecordMetadata metadata = new RecordMetadata(new TopicPartition("ride-events", partition), offset, 0, 0L, 0, 0);
+        return new SendResult<>(new ProducerRecord<>("ride-events", "key", null), metadata);
+    }
+}
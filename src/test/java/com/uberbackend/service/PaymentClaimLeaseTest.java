@@ -0,0 +1,103 @@
+package com.uberbackend.service;
+
+import com.uberbackend.repository.PaymentEventRepository;
+import com.uberbackend.repository.PaymentRepository;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * The claim and recovery SQL of {@link PaymentStateMachine} against a Postgres built from
+ * db/migration: a claim whose worker never finished is recovered once its lease runs out.
+ */
+class PaymentClaimLeaseTest {
+
+    private static EmbeddedPostgres postgres;
+    private static JdbcTemplate jdbcTemplate;
+
+    private PaymentStateMachine paymentStateMachine;
+
+    @BeforeAll
+    static void migrate() throws Exception {
+        postgres = EmbeddedPostgres.start();
+        Flyway.configure()
+            .dataSource(postgres.getPostgresDatabase())
+            .locations("classpath:db/migration")
+            .load()
+            .migrate();
+        jdbcTemplate = new JdbcTemplate(postgres.getPostgresDatabase());
+    }
+
+    @AfterAll
+    static void stop() throws Exception {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE payment_events, payments, rides CASCADE");
+        paymentStateMachine = new PaymentStateMachine(
+            mock(PaymentRepository.class), mock(PaymentEventRepository.class), jdbcTemplate);
+        ReflectionTestUtils.setField(paymentStateMachine, "claimLeaseMs", 60_000L);
+    }
+
+    @Test
+    void testClaim_SecondClaimWithinLeaseLoses() {
+        long paymentId = insertPendingPayment();
+
+        assertTrue(paymentStateMachine.claim(paymentId));
+        assertFalse(paymentStateMachine.claim(paymentId));
+        assertTrue(paymentStateMachine.findRecoverable(LocalDateTime.now().plusMinutes(1), 10).isEmpty());
+    }
+
+    @Test
+    void testRecover_AbandonedClaimIsReclaimedAsNextAttempt() {
+        // Arrange: claimed by a worker that died during the gateway call, longer ago than the lease
+        long paymentId = insertPendingPayment();
+        assertTrue(paymentStateMachine.claim(paymentId));
+        jdbcTemplate.update("UPDATE payment_events SET created_at = created_at - INTERVAL '5 minutes' " +
+            "WHERE payment_id = ?", paymentId);
+
+        // Act
+        List<Long> recoverable = paymentStateMachine.findRecoverable(LocalDateTime.now().plusMinutes(1), 10);
+        boolean reclaimed = paymentStateMachine.claim(paymentId);
+
+        // Assert
+        assertEquals(List.of(paymentId), recoverable);
+        assertTrue(reclaimed);
+        assertEquals(List.of(1, 2), jdbcTemplate.queryForList(
+            "SELECT attempt FROM payment_events WHERE payment_id = ? AND status = 'PROCESSING' ORDER BY attempt",
+            Integer.class, paymentId));
+        assertFalse(paymentStateMachine.claim(paymentId));
+    }
+
+    @Test
+    void testClaim_FinishedPaymentIsNotRecovered() {
+        long paymentId = insertPendingPayment();
+        jdbcTemplate.update("UPDATE payments SET status = 'COMPLETED' WHERE id = ?", paymentId);
+
+        assertFalse(paymentStateMachine.claim(paymentId));
+        assertTrue(paymentStateMachine.findRecoverable(LocalDateTime.now().plusMinutes(1), 10).isEmpty());
+    }
+
+    private long insertPendingPayment() {
+        Long rideId = jdbcTemplate.queryForObject(
+            "INSERT INTO rides (created_at, updated_at, version, passenger_id, status, pickup_latitude, " +
+            "pickup_longitude) VALUES (now(), now(), 0, 101, 'COMPLETED', 12.97, 77.59) RETURNING id", Long.class);
+        return jdbcTemplate.queryForObject(
+            "INSERT INTO payments (created_at, updated_at, version, ride_id, passenger_id, amount, status) " +
+            "VALUES (now() - INTERVAL '10 minutes', now(), 0, ?, 101, 25.00, 'PENDING') RETURNING id",
+            Long.class, rideId);
+    }
+}
@@ -0,0 +1,227 @@
+package com.uberbackend.service;
+
+import com.uberbackend.event.RideEvent;
+import com.uberbackend.model.entity.Payment;
+import com.uberbackend.model.entity.Ride;
+import com.uberbackend.model.enums.PaymentStatus;
+import com.uberbackend.model.enums.RideEventType;
+import com.uberbackend.payment.ChargeRequest;
+import com.uberbackend.payment.PaymentDeclinedException;
+import com.uberbackend.payment.PaymentGateway;
+import com.uberbackend.repository.PaymentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentProcessorTest {
+
+    private static final Long PAYMENT_ID = 7L;
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private PaymentStateMachine paymentStateMachine;
+
+    @Mock
+    private RideEventOutbox rideEventOutbox;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private PaymentGateway paymentGateway;
+
+    @InjectMocks
+    private PaymentProcessor paymentProcessor;
+
+    private Payment payment;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(paymentProcessor, "poolSize", 1);
+        ReflectionTestUtils.setField(paymentProcessor, "queueCapacity", 10);
+        ReflectionTestUtils.setField(paymentProcessor, "claimLeaseMs", 120000L);
+        ReflectionTestUtils.setField(paymentProcessor, "gatewayMaxConcurrency", 4);
+        ReflectionTestUtils.setField(paymentProcessor, "gatewayTimeoutMs", 2000L);
+        ReflectionTestUtils.setField(paymentProcessor, "maxAttempts", 1);
+        paymentProcessor.start();
+
+        Ride ride = new Ride();
+        ride.setId(1L);
+        payment = Payment.builder()
+            .ride(ride)
+            .passengerId(101L)
+            .amount(new BigDecimal("25.00"))
+            .paymentMethod("CARD")
+            .build();
+        payment.setId(PAYMENT_ID);
+
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        paymentProcessor.stop();
+    }
+
+    @Test
+    void testProcess_CompletesAndPublishesEvent() throws Exception {
+        // Arrange
+        when(paymentGateway.name()).thenReturn("simulator");
+        when(paymentGateway.charge(any(ChargeRequest.class))).thenReturn("tx_1");
+        when(paymentStateMachine.claim(PAYMENT_ID)).thenReturn(true);
+        when(paymentRepository.findById(PAYMENT_ID)).thenReturn(Optional.of(payment));
+        when(paymentStateMachine.finish(PAYMENT_ID, PaymentStatus.COMPLETED, "tx_1", null)).thenReturn(true);
+
+        // Act
+        paymentProcessor.process(new PaymentProcessor.PaymentTask(PAYMENT_ID, null, 1));
+
+        // Assert
+        verify(paymentStateMachine).finish(PAYMENT_ID, PaymentStatus.COMPLETED, "tx_1", null);
+        verify(paymentRepository, never()).save(any());
+        ArgumentCaptor<RideEvent> event = ArgumentCaptor.forClass(RideEvent.class);
+        verify(rideEventOutbox).append(event.capture());
+        assertEquals(RideEventType.PAYMENT_COMPLETED, event.getValue().getEventType());
+        assertEquals(1L, event.getValue().getRideId());
+    }
+
+    @Test
+    void testProcess_AlreadyClaimedSkipsGateway() {
+        when(paymentStateMachine.claim(PAYMENT_ID)).thenReturn(false);
+
+        paymentProcessor.process(new PaymentProcessor.PaymentTask(PAYMENT_ID, null, 1));
+
+        verifyNoInteractions(paymentGateway);
+        verify(paymentStateMachine, never()).finish(anyLong(), any(), any(), any());
+        verifyNoInteractions(rideEventOutbox);
+    }
+
+    @Test
+    void testProcess_SaturatedGatewayRequeuesWithoutUsingAnAttempt() throws Exception {
+        // Arrange: no permits at all, and this would be the last attempt
+        ReflectionTestUtils.setField(paymentProcessor, "gatewayMaxConcurrency", 0);
+        ReflectionTestUtils.setField(paymentProcessor, "permitWaitMs", 10L);
+        ReflectionTestUtils.setField(paymentProcessor, "initialBackoffMs", 20L);
+        when(paymentGateway.name()).thenReturn("simulator");
+
+        // Act
+        paymentProcessor.process(new PaymentProcessor.PaymentTask(PAYMENT_ID, chargeRequest(), 1));
+
+        // Assert: tried again from the queue, never charged and never failed
+        verify(paymentGateway, timeout(2000).atLeast(2)).name();
+        verify(paymentGateway, never()).charge(any(ChargeRequest.class));
+        verify(paymentStateMachine, never()).finish(anyLong(), any(), any(), any());
+        verifyNoInteractions(rideEventOutbox);
+    }
+
+    @Test
+    void testProcess_SaturatedGatewayGivesClaimUpBeforeLeaseRunsOut() throws Exception {
+        // Arrange: no permits, and a lease that leaves room for only a few deferrals
+        ReflectionTestUtils.setField(paymentProcessor, "gatewayMaxConcurrency", 0);
+        ReflectionTestUtils.setField(paymentProcessor, "claimLeaseMs", 150L);
+        ReflectionTestUtils.setField(paymentProcessor, "permitWaitMs", 10L);
+        ReflectionTestUtils.setField(paymentProcessor, "gatewayTimeoutMs", 50L);
+        ReflectionTestUtils.setField(paymentProcessor, "initialBackoffMs", 20L);
+        when(paymentGateway.name()).thenReturn("simulator");
+        when(paymentStateMachine.claim(PAYMENT_ID)).thenReturn(true);
+        when(paymentRepository.findById(PAYMENT_ID)).thenReturn(Optional.of(payment));
+        Set<?> inFlight = (Set<?>) ReflectionTestUtils.getField(paymentProcessor, "inFlight");
+
+        // Act
+        paymentProcessor.submit(PAYMENT_ID);
+
+        // Assert: the node lets go of the payment so the recovery sweep can claim it once
+        long deadline = System.currentTimeMillis() + 2000;
+        while (!inFlight.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(inFlight.isEmpty());
+        int deferrals = mockingDetails(paymentGateway).getInvocations().size();
+        Thread.sleep(100);
+        assertEquals(deferrals, mockingDetails(paymentGateway).getInvocations().size());
+        verify(paymentStateMachine, times(1)).claim(PAYMENT_ID);
+        verify(paymentGateway, never()).charge(any(ChargeRequest.class));
+        verify(paymentStateMachine, never()).finish(anyLong(), any(), any(), any());
+    }
+
+    @Test
+    void testProcess_DeclineIsNotRetried() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(paymentProcessor, "maxAttempts", 3);
+        when(paymentGateway.name()).thenReturn("simulator");
+        when(paymentGateway.charge(any(ChargeRequest.class))).thenThrow(new PaymentDeclinedException("insufficient funds"));
+        when(paymentRepository.findById(PAYMENT_ID)).thenReturn(Optional.of(payment));
+
+        // Act
+        paymentProcessor.process(new PaymentProcessor.PaymentTask(PAYMENT_ID, chargeRequest(), 1));
+
+        // Assert
+        verify(paymentGateway, times(1)).charge(any(ChargeRequest.class));
+        verify(paymentStateMachine).finish(PAYMENT_ID, PaymentStatus.FAILED, null, "insufficient funds");
+    }
+
+    @Test
+    void testProcess_OutcomeAlreadyRecordedPublishesNothing() throws Exception {
+        // Arrange: another node finished the payment first
+        when(paymentGateway.name()).thenReturn("simulator");
+        when(paymentGateway.charge(any(ChargeRequest.class))).thenReturn("tx_1");
+        when(paymentRepository.findById(PAYMENT_ID)).thenReturn(Optional.of(payment));
+        when(paymentStateMachine.finish(PAYMENT_ID, PaymentStatus.COMPLETED, "tx_1", null)).thenReturn(false);
+
+        // Act
+        paymentProcessor.process(new PaymentProcessor.PaymentTask(PAYMENT_ID, chargeRequest(), 1));
+
+        // Assert
+        verifyNoInteractions(rideEventOutbox);
+    }
+
+    @Test
+    void testRecoverPending_RequeuesPaymentWithExpiredClaim() throws Exception {
+        // Arrange: the state machine reports a payment whose earlier claim has run out
+        ReflectionTestUtils.setField(paymentProcessor, "recoverAfterMs", 60000L);
+        CountDownLatch charged = new CountDownLatch(1);
+        when(paymentStateMachine.findRecoverable(any(LocalDateTime.class), anyInt())).thenReturn(List.of(PAYMENT_ID));
+        when(paymentStateMachine.claim(PAYMENT_ID)).thenReturn(true);
+        when(paymentRepository.findById(PAYMENT_ID)).thenReturn(Optional.of(payment));
+        when(paymentGateway.name()).thenReturn("simulator");
+        when(paymentGateway.charge(any(ChargeRequest.class))).thenReturn("tx_2");
+        when(paymentStateMachine.finish(PAYMENT_ID, PaymentStatus.COMPLETED, "tx_2", null)).thenAnswer(invocation -> {
+            charged.countDown();
+            return true;
+        });
+
+        // Act
+        paymentProcessor.recoverPending();
+
+        // Assert
+        assertTrue(charged.await(5, TimeUnit.SECONDS));
+        verify(paymentStateMachine).claim(PAYMENT_ID);
+    }
+
+    private ChargeRequest chargeRequest() {
+        return new ChargeRequest(PAYMENT_ID, payment.getAmount(), payment.getPaymentMethod(), "payment-" + PAYMENT_ID);
+    }
+}
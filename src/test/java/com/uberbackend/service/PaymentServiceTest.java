@@ -0,0 +1,66 @@
+package com.uberbackend.service;
+
+import com.uberbackend.dto.request.CreatePaymentRequest;
+import com.uberbackend.model.entity.Payment;
+import com.uberbackend.model.enums.PaymentStatus;
+import com.uberbackend.repository.PaymentRepository;
+import com.uberbackend.repository.RideRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentServiceTest {
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private RideRepository rideRepository;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private PaymentProcessor paymentProcessor;
+
+    @Mock
+    private PaymentStateMachine paymentStateMachine;
+
+    @InjectMocks
+    private PaymentService paymentService;
+
+    @Test
+    void testCreatePayment_ReplayReturnsCurrentRow() {
+        // Arrange: the first request stored payment 5, which has completed since
+        Payment completed = Payment.builder().status(PaymentStatus.COMPLETED).build();
+        completed.setId(5L);
+        when(idempotencyService.reserve("payment", 42L, "pay-key", Long.class))
+            .thenReturn(IdempotencyResult.replay(5L));
+        when(paymentRepository.findById(5L)).thenReturn(Optional.of(completed));
+
+        // Act
+        Payment payment = paymentService.createPayment(request());
+
+        // Assert
+        assertSame(completed, payment);
+        verifyNoInteractions(rideRepository, paymentProcessor, paymentStateMachine);
+        verify(paymentRepository, never()).save(any());
+    }
+
+    private static CreatePaymentRequest request() {
+        CreatePaymentRequest request = new CreatePaymentRequest();
+        request.setRideId(42L);
+        request.setPaymentMethod("CARD");
+        request.setIdempotencyKey("pay-key");
+        return request;
+    }
+}
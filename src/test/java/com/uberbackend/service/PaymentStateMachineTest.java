@@ -0,0 +1,101 @@
+package com.uberbackend.service;
+
+import com.uberbackend.model.entity.Payment;
+import com.uberbackend.model.enums.PaymentStatus;
+import com.uberbackend.repository.PaymentEventRepository;
+import com.uberbackend.repository.PaymentRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentStateMachineTest {
+
+    private static final Long PAYMENT_ID = 7L;
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private PaymentEventRepository paymentEventRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private PaymentStateMachine paymentStateMachine;
+
+    @Test
+    void testTransitions_FollowTheLifecycle() {
+        assertTrue(PaymentStateMachine.canTransition(PaymentStatus.PENDING, PaymentStatus.PROCESSING));
+        assertTrue(PaymentStateMachine.canTransition(PaymentStatus.PROCESSING, PaymentStatus.COMPLETED));
+        assertTrue(PaymentStateMachine.canTransition(PaymentStatus.PROCESSING, PaymentStatus.FAILED));
+        assertTrue(PaymentStateMachine.canTransition(PaymentStatus.COMPLETED, PaymentStatus.REFUNDED));
+        assertFalse(PaymentStateMachine.canTransition(PaymentStatus.PENDING, PaymentStatus.COMPLETED));
+        assertFalse(PaymentStateMachine.canTransition(PaymentStatus.FAILED, PaymentStatus.PROCESSING));
+    }
+
+    @Test
+    void testAccepted_LogsPendingWithoutTouchingTheRow() {
+        // Arrange
+        Payment payment = Payment.builder().passengerId(101L).amount(new BigDecimal("25.00")).build();
+        payment.setId(PAYMENT_ID);
+
+        // Act
+        paymentStateMachine.accepted(payment);
+
+        // Assert
+        verify(jdbcTemplate).update(contains("INSERT INTO payment_events"), eq(PAYMENT_ID), eq("PENDING"),
+            isNull(), isNull(), any());
+        verifyNoInteractions(paymentRepository);
+    }
+
+    @Test
+    void testClaim_OnlyTheFirstClaimWins() {
+        when(jdbcTemplate.update(contains("'PROCESSING'"), any(), eq(PAYMENT_ID), any())).thenReturn(1, 0);
+
+        assertTrue(paymentStateMachine.claim(PAYMENT_ID));
+        assertFalse(paymentStateMachine.claim(PAYMENT_ID));
+        verifyNoInteractions(paymentRepository);
+    }
+
+    @Test
+    void testFinish_UpdatesRowOnceAndLogsOutcome() {
+        // Arrange
+        when(paymentRepository.finishIfClaimed(eq(PAYMENT_ID), eq(PaymentStatus.COMPLETED), eq("tx_1"), isNull(), any()))
+            .thenReturn(1);
+
+        // Act
+        boolean finished = paymentStateMachine.finish(PAYMENT_ID, PaymentStatus.COMPLETED, "tx_1", null);
+
+        // Assert
+        assertTrue(finished);
+        verify(jdbcTemplate).update(contains("INSERT INTO payment_events"), eq(PAYMENT_ID), eq("COMPLETED"),
+            eq("tx_1"), isNull(), any());
+    }
+
+    @Test
+    void testFinish_UnclaimedOrFinishedPaymentLogsNothing() {
+        when(paymentRepository.finishIfClaimed(eq(PAYMENT_ID), eq(PaymentStatus.FAILED), isNull(), eq("timeout"), any()))
+            .thenReturn(0);
+
+        assertFalse(paymentStateMachine.finish(PAYMENT_ID, PaymentStatus.FAILED, null, "timeout"));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void testFinish_RejectsNonTerminalOutcome() {
+        assertThrows(IllegalArgumentException.class,
+            () -> paymentStateMachine.finish(PAYMENT_ID, PaymentStatus.PENDING, null, null));
+        verifyNoInteractions(paymentRepository, jdbcTemplate);
+    }
+}
@@ -0,0 +1,149 @@
+package com.uberbackend.service;
+
+import com.uberbackend.dto.response.DriverHistoryResponse;
+import com.uberbackend.dto.response.DriverSummaryResponse;
+import com.uberbackend.dto.response.RidePage;
+import com.uberbackend.dto.response.RideResponse;
+import com.uberbackend.repository.DriverRepository;
+import com.uberbackend.repository.RideRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReadQueryServiceTest {
+
+    private static final Long DRIVER_ID = 200L;
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 1, 12, 0, 0, 123_456_000);
+
+    @Mock
+    private RideRepository rideRepository;
+
+    @Mock
+    private DriverRepository driverRepository;
+
+    @InjectMocks
+    private ReadQueryService readQueryService;
+
+    @Test
+    void testGetDriverDetail_UsesProjectionsWithoutLocking() {
+        // Arrange
+        when(driverRepository.findSummaryById(DRIVER_ID))
+            .thenReturn(Optional.of(DriverSummaryResponse.builder().id(DRIVER_ID).name("Dana").build()));
+        when(rideRepository.findResponsesByDriverId(eq(DRIVER_ID), any(Pageable.class)))
+            .thenReturn(List.of(ride(1L, NOW)));
+
+        // Act
+        DriverHistoryResponse response = readQueryService.getDriverDetail(DRIVER_ID);
+
+        // Assert
+        assertEquals("Dana", response.getDriver().getName());
+        assertEquals(1, response.getRides().size());
+        assertNull(response.getNextCursor());
+        verify(driverRepository, never()).findByIdAndTenantIdWithLock(anyLong());
+        verify(driverRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void testGetDriverDetail_NotFound() {
+        // Arrange
+        when(driverRepository.findSummaryById(DRIVER_ID)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> readQueryService.getDriverDetail(DRIVER_ID));
+        verifyNoInteractions(rideRepository);
+    }
+
+    @Test
+    void testGetDriverRideHistory_FullPageReturnsCursorToNextPage() {
+        // Arrange
+        List<RideResponse> rows = new ArrayList<>();
+        for (long id = 10; id >= 8; id--) {
+            rows.add(ride(id, NOW.minusMinutes(10 - id)));
+        }
+        when(rideRepository.findResponsesByDriverId(DRIVER_ID, PageRequest.of(0, 3))).thenReturn(rows);
+
+        // Act
+        RidePage page = readQueryService.getDriverRideHistory(DRIVER_ID, null, 2);
+
+        // Assert
+        assertEquals(List.of(10L, 9L), page.getItems().stream().map(RideResponse::getId).toList());
+        RideCursor next = RideCursor.decode(page.getNextCursor());
+        assertEquals(9L, next.id());
+        assertEquals(NOW.minusMinutes(1), next.createdAt());
+    }
+
+    @Test
+    void testGetDriverRideHistory_CursorContinuesAfterLastRow() {
+        // Arrange
+        String cursor = new RideCursor(NOW, 9L).encode();
+        when(rideRepository.findResponsesByDriverIdBefore(DRIVER_ID, NOW, 9L, PageRequest.of(0, 3)))
+            .thenReturn(List.of(ride(8L, NOW)));
+
+        // Act
+        RidePage page = readQueryService.getDriverRideHistory(DRIVER_ID, cursor, 2);
+
+        // Assert
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testGetTenantRideHistory_RejectsMalformedCursor() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+            () -> readQueryService.getTenantRideHistory(1L, "not-a-cursor", 20));
+        verifyNoInteractions(rideRepository);
+    }
+
+    @Test
+    void testExportTenantRideHistory_StreamsEveryRowAndClosesCursor() {
+        // Arrange
+        List<Long> closed = new ArrayList<>();
+        Stream<RideResponse> rows = Stream.of(ride(3L, NOW), ride(2L, NOW), ride(1L, NOW))
+            .onClose(() -> closed.add(1L));
+        when(rideRepository.streamResponsesByTenantId(1L)).thenReturn(rows);
+        List<Long> written = new ArrayList<>();
+
+        // Act
+        long count = readQueryService.exportTenantRideHistory(1L, ride -> written.add(ride.getId()));
+
+        // Assert
+        assertEquals(3, count);
+        assertEquals(List.of(3L, 2L, 1L), written);
+        assertEquals(1, closed.size());
+    }
+
+    @Test
+    void testCacheFills_ReadFromPrimary() throws NoSuchMethodException {
+        // Read-only transactions are routed to the replica; the cache fills must not be
+        Transactional rideFill = ReadQueryService.class.getMethod("getRide", Long.class)
+            .getAnnotation(Transactional.class);
+        Transactional driverFill = ReadQueryService.class.getMethod("getDriverDetail", Long.class)
+            .getAnnotation(Transactional.class);
+        Transactional history = ReadQueryService.class.getAnnotation(Transactional.class);
+
+        assertFalse(rideFill.readOnly());
+        assertFalse(driverFill.readOnly());
+        assertTrue(history.readOnly());
+    }
+
+    private static RideResponse ride(Long id, LocalDateTime createdAt) {
+        return RideResponse.builder().id(id).driverId(DRIVER_ID).createdAt(createdAt).build();
+    }
+}
@@ -1,21 +1,24 @@
 package com.uberbackend.service;
+import com.uberbackend.cache.ReadCaches;
+import com.uberbackend.cache.TwoLevelCache;
 import com.uberbackend.dto.request.CreateRideRequest;
 import com.uberbackend.dto.response.RideResponse;
 import com.uberbackend.event.RideEvent;
-import com.uberbackend.model.entity.Driver;
+import com.uberbackend.geo.NearbyDriver;
 import com.uberbackend.model.entity.Ride;
-import com.uberbackend.model.enums.DriverStatus;
 import com.uberbackend.model.enums.RideStatus;
-import com.uberbackend.repository.DriverRepository;
 import com.uberbackend.repository.RideRepository;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -28,16 +31,25 @@ class RideServiceTest {
     private RideRepository rideRepository;
 
     @Mock
-    private DriverRepository driverRepository;
+    private RedisGeoService redisGeoService;
 
     @Mock
-    private RedisGeoService redisGeoService;
+    private DriverAvailabilityService driverAvailabilityService;
 
     @Mock
     private IdempotencyService idempotencyService;
 
     @Mock
-    private KafkaEventProducer kafkaEventProducer;
+    private RideEventOutbox rideEventOutbox;
+
+    @Mock
+    private ReadCaches readCaches;
+
+    @Mock
+    private TwoLevelCache<RideResponse> rideCache;
+
+    @Mock
+    private ReadQueryService readQueryService;
 
     @InjectMocks
     private RideService rideService;
@@ -45,6 +57,14 @@ class RideServiceTest {
     private static final Long PASSENGER_ID = 101L;
     private static final Long DRIVER_ID = 200L;
 
+    @BeforeEach
+    void setUp() {
+        // Cache misses straight through to the repository
+        lenient().when(readCaches.getRides()).thenReturn(rideCache);
+        lenient().when(rideCache.get(any(), any())).thenAnswer(invocation ->
+            invocation.<Supplier<RideResponse>>getArgument(1).get());
+    }
+
     @Test
     void testCreateRide_Success() {
         // Arrange
@@ -56,13 +76,11 @@ class RideServiceTest {
         request.setDropoffLatitude(new BigDecimal("40.7589"));
         request.setDropoffLongitude(new BigDecimal("-73.9851"));
 
-        when(redisGeoService.findNearbyDrivers(anyString(), anyDouble(), anyDouble(), anyDouble()))
-            .thenReturn(java.util.List.of(String.valueOf(DRIVER_ID)));
+        when(redisGeoService.findNearestDrivers(anyString(), anyDouble(), anyDouble(), anyDouble(), anyDouble(), anyInt()))
+            .thenReturn(java.util.List.of(new NearbyDriver(DRIVER_ID, 0.4)));
 
-        Driver driver = new Driver();
-        driver.setStatus(DriverStatus.ONLINE);
-        when(driverRepository.findByIdAndTenantIdWithLock(eq(DRIVER_ID)))
-            .thenReturn(Optional.of(driver));
+        when(driverAvailabilityService.tryClaim(eq(DRIVER_ID), eq("nyc")))
+            .thenReturn(true);
 
         Ride savedRide = new Ride();
         savedRide.setId(1L);
@@ -82,7 +100,29 @@ class RideServiceTest {
         assertEquals(DRIVER_ID, response.getDriverId());
         assertEquals(RideStatus.ASSIGNED, response.getStatus());
         verify(rideRepository).save(any(Ride.class));
-        verify(kafkaEventProducer).sendRideEvent(any(RideEvent.class));
+        verify(driverAvailabilityService).confirmClaim(DRIVER_ID, "nyc");
+        verify(rideEventOutbox).append(any(RideEvent.class));
+    }
+
+    @Test
+    void testCreateRide_BatchDispatchLeavesRidePending() {
+        // Arrange
+        ReflectionTestUtils.setField(rideService, "batchDispatchEnabled", true);
+        CreateRideRequest request = new CreateRideRequest();
+        request.setPassengerId(PASSENGER_ID);
+        request.setCity("nyc");
+        request.setPickupLatitude(new BigDecimal("40.7128"));
+        request.setPickupLongitude(new BigDecimal("-74.0060"));
+
+        when(rideRepository.save(any(Ride.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        RideResponse response = rideService.createRide(request);
+
+        // Assert
+        assertEquals(RideStatus.PENDING, response.getStatus());
+        assertNull(response.getDriverId());
+        verifyNoInteractions(redisGeoService, driverAvailabilityService);
     }
 
     @Test
@@ -95,14 +135,14 @@ class RideServiceTest {
         request.setPickupLongitude(new BigDecimal("-74.0060"));
         request.setIdempotencyKey("idempotency-key-123");
 
-        Ride existingRide = new Ride();
-        existingRide.setId(1L);
-        existingRide.setPassengerId(PASSENGER_ID);
+        RideResponse earlierResponse = RideResponse.builder()
+            .id(1L)
+            .passengerId(PASSENGER_ID)
+            .status(RideStatus.ASSIGNED)
+            .build();
 
-        when(idempotencyService.isKeyProcessed(eq(PASSENGER_ID), eq("idempotency-key-123")))
-            .thenReturn(true);
-        when(rideRepository.findByIdempotencyKeyAndPassengerId(eq("idempotency-key-123"), eq(PASSENGER_ID)))
-            .thenReturn(Optional.of(existingRide));
+        when(idempotencyService.reserve(eq("ride"), eq(PASSENGER_ID), eq("idempotency-key-123"), eq(RideResponse.class)))
+            .thenReturn(IdempotencyResult.replay(earlierResponse));
 
         // Act
         RideResponse response = rideService.createRide(request);
@@ -111,18 +151,15 @@ class RideServiceTest {
         assertNotNull(response);
         assertEquals(1L, response.getId());
         verify(rideRepository, never()).save(any(Ride.class));
+        verifyNoInteractions(redisGeoService, driverAvailabilityService, rideEventOutbox);
     }
 
     @Test
     void testGetRide_Success() {
         // Arrange
         Long rideId = 1L;
-        Ride ride = new Ride();
-        ride.setId(rideId);
-        ride.setPassengerId(PASSENGER_ID);
-
-        when(rideRepository.findById(rideId))
-            .thenReturn(Optional.of(ride));
+        when(readQueryService.getRide(rideId))
+            .thenReturn(RideResponse.builder().id(rideId).passengerId(PASSENGER_ID).build());
 
         // Act
         RideResponse response = rideService.getRide(rideId);
@@ -136,8 +173,8 @@ class RideServiceTest {
     void testGetRide_NotFound() {
         // Arrange
         Long rideId = 1L;
-        when(rideRepository.findById(rideId))
-            .thenReturn(Optional.empty());
+        when(readQueryService.getRide(rideId))
+            .thenThrow(new RuntimeException("Ride not found: " + rideId));
 
         // Act & Assert
         assertThrows(RuntimeException.class, () -> rideService.getRide(rideId));
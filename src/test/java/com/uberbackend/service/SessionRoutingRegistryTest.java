@@ -0,0 +1,174 @@
+package com.uberbackend.service;
+
+import com.uberbackend.event.RideEvent;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.utils.Utils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.messaging.SessionConnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SessionRoutingRegistryTest {
+
+    private static final String KEY = "101:1";
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    private final Map<String, RBucket<String>> buckets = new HashMap<>();
+    private final Map<String, String> values = new HashMap<>();
+
+    private SessionRoutingRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(redissonClient.<String>getBucket(anyString(), any(Codec.class)))
+            .thenAnswer(invocation -> bucket(invocation.getArgument(0)));
+        registry = new SessionRoutingRegistry(redissonClient, "node-a", true, 12);
+    }
+
+    @Test
+    void testConstructor_MissingNodeIdFallsBackToHostName() {
+        SessionRoutingRegistry unnamed = new SessionRoutingRegistry(redissonClient, " ", false, 12);
+
+        assertEquals(SessionRoutingRegistry.localHostName(), unnamed.getNodeId());
+        assertFalse(unnamed.getNodeId().isBlank());
+    }
+
+    @Test
+    void testPartitionFor_PinsPartitionOfSessionOwner() {
+        // Arrange
+        values.put("ws:route:passenger:101", "node-b");
+        values.put("ws:node-partitions:node-b", "7");
+
+        // Act
+        Integer partition = registry.partitionFor(event(1L), KEY);
+
+        // Assert
+        assertEquals(7, partition);
+        assertEquals("7", values.get("ws:ride-partition:1"));
+    }
+
+    @Test
+    void testPartitionFor_KeepsPinnedPartitionAfterSessionMoves() {
+        // Arrange
+        values.put("ws:route:passenger:101", "node-b");
+        values.put("ws:node-partitions:node-b", "7");
+        registry.partitionFor(event(1L), KEY);
+        values.put("ws:route:passenger:101", "node-c");
+        values.put("ws:node-partitions:node-c", "2");
+
+        // Act
+        Integer partition = registry.partitionFor(event(1L), KEY);
+
+        // Assert
+        assertEquals(7, partition);
+    }
+
+    @Test
+    void testPartitionFor_PinsKeyPartitionWithoutSession() {
+        // Arrange
+        int expected = Utils.toPositive(Utils.murmur2(KEY.getBytes(StandardCharsets.UTF_8))) % 12;
+
+        // Act
+        Integer first = registry.partitionFor(event(1L), KEY);
+        values.put("ws:route:passenger:101", "node-b");
+        values.put("ws:node-partitions:node-b", String.valueOf((expected + 1) % 12));
+        Integer second = registry.partitionFor(event(1L), KEY);
+
+        // Assert
+        assertEquals(expected, first);
+        assertEquals(expected, second);
+    }
+
+    @Test
+    void testPartitionFor_RedisFailureFallsBackToKeyPartitioning() {
+        // Arrange
+        when(redissonClient.<String>getBucket(anyString(), any(Codec.class))).thenThrow(new RuntimeException("redis down"));
+
+        // Act
+        Integer partition = registry.partitionFor(event(1L), KEY);
+
+        // Assert
+        assertNull(partition);
+    }
+
+    @Test
+    void testRefreshRoutes_RepublishesPartitionsAndExtendsOwnRoutes() {
+        // Arrange
+        registry.onPartitionsAssigned(List.of(new TopicPartition("ride-events", 3), new TopicPartition("ride-events", 1)));
+        registry.onConnect(connect("session-1", "101"));
+        registry.onConnect(connect("session-2", "102"));
+        values.put("ws:route:passenger:102", "node-b");
+        clearInvocations(bucket("ws:node-partitions:node-a"));
+
+        // Act
+        registry.refreshRoutes();
+
+        // Assert
+        verify(bucket("ws:node-partitions:node-a")).set("1,3", Duration.ofHours(12));
+        verify(bucket("ws:route:passenger:101")).expire(Duration.ofHours(12));
+        verify(bucket("ws:route:passenger:102"), never()).expire(any(Duration.class));
+    }
+
+    @Test
+    void testOnSubscribe_RegistersDriverFromDottedTopic() {
+        // Arrange
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setSessionId("session-1");
+        accessor.setDestination("/topic/drivers.7.rides");
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+
+        // Act
+        registry.onSubscribe(new SessionSubscribeEvent(SessionRoutingRegistryTest.class, message));
+
+        // Assert
+        assertEquals("node-a", values.get("ws:route:driver:7"));
+    }
+
+    private RBucket<String> bucket(String key) {
+        return buckets.computeIfAbsent(key, k -> {
+            @SuppressWarnings("unchecked")
+            RBucket<String> bucket = mock(RBucket.class);
+            lenient().when(bucket.get()).thenAnswer(invocation -> values.get(k));
+            lenient().doAnswer(invocation -> values.put(k, invocation.getArgument(0)))
+                .when(bucket).set(anyString(), any(Duration.class));
+            lenient().when(bucket.setIfAbsent(anyString(), any(Duration.class)))
+                .thenAnswer(invocation -> values.putIfAbsent(k, invocation.getArgument(0)) == null);
+            return bucket;
+        });
+    }
+
+    private static RideEvent event(Long rideId) {
+        return RideEvent.builder().rideId(rideId).passengerId(101L).build();
+    }
+
+    private static SessionConnectEvent connect(String sessionId, String passengerId) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        accessor.setSessionId(sessionId);
+        accessor.setNativeHeader("passenger-id", passengerId);
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+        return new SessionConnectEvent(SessionRoutingRegistryTest.class, message);
+    }
+}